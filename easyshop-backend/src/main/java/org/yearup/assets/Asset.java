@@ -0,0 +1,24 @@
+package org.yearup.assets;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * A file under the asset directory as it was when it was last hashed. path is the URL path ("/images/logo.png"),
+ * hash is the first 20 hex digits of the SHA-256 of the content.
+ */
+public record Asset(String path, Path file, long length, FileTime lastModified, String hash)
+{
+    public String etag()
+    {
+        return '"' + hash + '"';
+    }
+
+    /**
+     * @return the content-hashed URL of this asset, which can be cached forever
+     */
+    public String versionedUrl()
+    {
+        return StaticAssets.VERSIONED_PREFIX + hash + path;
+    }
+}
@@ -0,0 +1,57 @@
+package org.yearup.assets;
+
+/**
+ * One byte range of a file, first and last inclusive, as in a Range or Content-Range header.
+ */
+public record ByteRange(long first, long last)
+{
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    /**
+     * Parses a single-range "bytes=first-last", "bytes=first-" or "bytes=-suffix" header against a file of the
+     * given length. Multiple ranges are not supported and give null, so the whole file is sent instead, which
+     * RFC 7233 allows.
+     *
+     * @return the range, null to send the whole file, or {@link #UNSATISFIABLE}
+     */
+    public static ByteRange parse(String header, long length)
+    {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) return null;
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+
+        try
+        {
+            String start = spec.substring(0, dash).trim();
+            String end = spec.substring(dash + 1).trim();
+            if (start.isEmpty())
+            {
+                long suffix = Long.parseLong(end);
+                if (suffix <= 0 || length == 0) return UNSATISFIABLE;
+                return new ByteRange(Math.max(0, length - suffix), length - 1);
+            }
+
+            long first = Long.parseLong(start);
+            long last = end.isEmpty() ? length - 1 : Math.min(Long.parseLong(end), length - 1);
+            if (first >= length) return UNSATISFIABLE;
+            if (last < first) return null;
+            return new ByteRange(first, last);
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    public long length()
+    {
+        return last - first + 1;
+    }
+
+    public String contentRange(long total)
+    {
+        return "bytes " + first + "-" + last + "/" + total;
+    }
+}
@@ -0,0 +1,270 @@
+package org.yearup.assets;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resized copies of product images (easyshop.images.*). A variant is made once with ImageIO on a small bounded
+ * pool, written to the variant directory and served from there afterwards; the directory is kept under its size
+ * limit by dropping the least recently used variants.
+ *
+ * Requested widths and heights are rounded up to the nearest of easyshop.images.sizes, so a client can't make
+ * every image in every one of max-dimension x max-dimension sizes. Variants are named after the source's content
+ * hash, so a changed image gets new variants and the old ones age out. Requests for a variant that is already
+ * being made wait for that one instead of starting another. When the pool's queue is full the future fails with a
+ * RejectedExecutionException rather than resizing on the request thread.
+ */
+@Component
+public class ImageVariants implements MeterBinder, DisposableBean
+{
+    private final VariantDirectory directory;
+    private final int maximumDimension;
+    private final int[] sizes;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ImageVariants(@Value("${easyshop.images.variant-directory:data/image-variants}") String directory,
+                         @Value("${easyshop.images.variant-directory-max-size:256MB}") DataSize maximumSize,
+                         @Value("${easyshop.images.max-dimension:1600}") int maximumDimension,
+                         @Value("${easyshop.images.sizes:64,100,200,300,400,600,800,1200,1600}") int[] sizes,
+                         @Value("${easyshop.images.jpeg-quality:0.85}") float jpegQuality,
+                         @Value("${easyshop.images.threads:2}") int threads,
+                         @Value("${easyshop.images.queue-capacity:50}") int queueCapacity) throws IOException
+    {
+        this(Path.of(directory), maximumSize, maximumDimension, sizes, jpegQuality, threads, queueCapacity);
+    }
+
+    ImageVariants(Path directory, DataSize maximumSize, int maximumDimension, int[] sizes, float jpegQuality, int threads,
+                  int queueCapacity) throws IOException
+    {
+        this.directory = new VariantDirectory(directory, maximumSize.toBytes());
+        this.maximumDimension = maximumDimension;
+        this.sizes = Arrays.stream(sizes).filter(size -> size > 0 && size < maximumDimension).sorted().distinct().toArray();
+        this.jpegQuality = jpegQuality;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static boolean isImage(String path)
+    {
+        return format(path) != null;
+    }
+
+    public int maximumDimension()
+    {
+        return maximumDimension;
+    }
+
+    /**
+     * @param requestedWidth  the largest width wanted, or 0 for any
+     * @param requestedHeight the largest height wanted, or 0 for any
+     * @return the source scaled down to fit in width x height, each rounded up to one of the configured sizes,
+     *         keeping its proportions; never scaled up
+     */
+    public CompletableFuture<Asset> variant(Asset source, int requestedWidth, int requestedHeight)
+    {
+        int width = snap(requestedWidth);
+        int height = snap(requestedHeight);
+        String name = source.hash() + "-" + width + "x" + height + "." + format(source.path());
+        String hash = source.hash() + "-" + width + "x" + height;
+
+        Path cached = directory.get(name);
+        if (cached != null)
+        {
+            return CompletableFuture.completedFuture(asset(source, hash, cached));
+        }
+
+        CompletableFuture<Path> started = new CompletableFuture<>();
+        CompletableFuture<Path> made = inFlight.putIfAbsent(name, started);
+        if (made == null)
+        {
+            made = started;
+            try
+            {
+                executor.execute(() -> {
+                    try
+                    {
+                        started.complete(make(source, width, height, name));
+                    }
+                    catch (Throwable e)
+                    {
+                        started.completeExceptionally(e);
+                    }
+                    finally
+                    {
+                        inFlight.remove(name, started);
+                    }
+                });
+            }
+            catch (RejectedExecutionException e)
+            {
+                inFlight.remove(name, started);
+                started.completeExceptionally(e);
+            }
+        }
+        return made.thenApply(file -> asset(source, hash, file));
+    }
+
+    int snap(int dimension)
+    {
+        if (dimension == 0) return 0;
+        for (int size : sizes)
+        {
+            if (size >= dimension) return size;
+        }
+        return maximumDimension;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        new ExecutorServiceMetrics(executor, "image-resize", Tags.empty()).bindTo(registry);
+        registry.gauge("images.variants.size", directory, VariantDirectory::totalBytes);
+    }
+
+    @Override
+    public void destroy()
+    {
+        executor.shutdown();
+    }
+
+    private Path make(Asset source, int width, int height, String name)
+    {
+        try
+        {
+            // another request may have finished it between the directory lookup and getting here
+            Path existing = directory.get(name);
+            if (existing != null) return existing;
+
+            BufferedImage image = ImageIO.read(source.file().toFile());
+            if (image == null)
+                throw new IllegalArgumentException(source.path() + " is not an image ImageIO can read");
+
+            double scale = Math.min(1.0, Math.min(
+                    width == 0 ? 1.0 : (double) width / image.getWidth(),
+                    height == 0 ? 1.0 : (double) height / image.getHeight()));
+            BufferedImage resized = resize(image, Math.max(1, (int) Math.round(image.getWidth() * scale)),
+                    Math.max(1, (int) Math.round(image.getHeight() * scale)), format(source.path()));
+
+            Path temp = directory.newTempFile();
+            try
+            {
+                write(resized, format(source.path()), temp);
+                return directory.put(name, temp);
+            }
+            finally
+            {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height, String format)
+    {
+        // a single bilinear pass skips source pixels when shrinking a lot, so halve first while still over twice the size
+        BufferedImage current = image;
+        int type = format.equals("png") ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        while (current.getWidth() / 2 >= width * 2 && current.getHeight() / 2 >= height * 2)
+        {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2, type);
+        }
+        return draw(current, width, height, type);
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height, int type)
+    {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try
+        {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, String format, Path file) throws IOException
+    {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile()))
+        {
+            writer.setOutput(out);
+            ImageWriteParam parameters = writer.getDefaultWriteParam();
+            if (format.equals("jpg"))
+            {
+                parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                parameters.setCompressionQuality(jpegQuality);
+            }
+            writer.write(null, new IIOImage(image, null, null), parameters);
+        }
+        finally
+        {
+            writer.dispose();
+        }
+    }
+
+    private static Asset asset(Asset source, String hash, Path file)
+    {
+        return new Asset(source.path(), file, file.toFile().length(), source.lastModified(), hash);
+    }
+
+    private static String format(String path)
+    {
+        String name = path.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) return "jpg";
+        if (name.endsWith(".png")) return "png";
+        return null;
+    }
+
+    private static ThreadFactory threadFactory()
+    {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "image-resize-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
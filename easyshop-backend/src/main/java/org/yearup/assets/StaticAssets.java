@@ -0,0 +1,199 @@
+package org.yearup.assets;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.yearup.cache.TtlCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * The frontend's files (easyshop.assets.directory) as {@link Asset}s. An asset's hash is kept until the file's
+ * size or modification time changes, which costs one stat per request. Files up to
+ * easyshop.assets.memory-max-file-size are also kept in memory, keyed by hash, so a changed file can never be
+ * served from a stale copy.
+ *
+ * Only regular files inside the directory are served; paths that climb out of it or touch a dot file or folder
+ * (.idea, .git) are not found.
+ */
+@Component
+public class StaticAssets implements MeterBinder
+{
+    public static final String VERSIONED_PREFIX = "/assets/";
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaticAssets.class);
+
+    private final Path root;
+    private final long memoryMaxFileSize;
+    private final TtlCache<String, Asset> assets;
+    private final TtlCache<String, byte[]> contents;
+
+    @Autowired
+    public StaticAssets(@Value("${easyshop.assets.directory:../easyshop-frontend}") String directory,
+                        @Value("${easyshop.assets.memory-max-file-size:64KB}") DataSize memoryMaxFileSize,
+                        @Value("${easyshop.assets.memory-max-files:1000}") int memoryMaxFiles)
+    {
+        this(Path.of(directory), memoryMaxFileSize, memoryMaxFiles);
+    }
+
+    StaticAssets(Path directory, DataSize memoryMaxFileSize, int memoryMaxFiles)
+    {
+        this.root = directory.toAbsolutePath().normalize();
+        this.memoryMaxFileSize = memoryMaxFileSize.toBytes();
+        this.assets = new TtlCache<>("assets", 100_000, Duration.ofHours(1));
+        this.contents = new TtlCache<>("assetContents", memoryMaxFiles, Duration.ofHours(1));
+
+        if (!Files.isDirectory(root))
+        {
+            LOG.warn("Asset directory {} does not exist; static files will not be served", root);
+        }
+    }
+
+    /**
+     * @param path the URL path, already decoded, e.g. "/images/products/blender.jpg"
+     * @return the asset, or null if there is no such file
+     */
+    public Asset find(String path) throws IOException
+    {
+        Path file = resolve(path);
+        if (file == null) return null;
+
+        BasicFileAttributes attributes;
+        try
+        {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+        if (!attributes.isRegularFile()) return null;
+
+        Asset cached = assets.get(path);
+        if (cached != null && cached.length() == attributes.size() && cached.lastModified().equals(attributes.lastModifiedTime()))
+        {
+            return cached;
+        }
+
+        Asset asset = new Asset(path, file, attributes.size(), attributes.lastModifiedTime(), hash(file, attributes.size()));
+        assets.put(path, asset);
+        return asset;
+    }
+
+    /**
+     * @return the content of a small asset from memory, or null if the asset is too big to keep there
+     */
+    public byte[] content(Asset asset) throws IOException
+    {
+        if (asset.length() > memoryMaxFileSize) return null;
+
+        byte[] content = contents.get(asset.hash());
+        if (content == null)
+        {
+            content = Files.readAllBytes(asset.file());
+            if (content.length != asset.length()) return null; // changed since it was hashed; stream it instead
+            contents.put(asset.hash(), content);
+        }
+        return content;
+    }
+
+    /**
+     * @return every asset's path mapped to its content-hashed URL
+     */
+    public Map<String, String> manifest() throws IOException
+    {
+        Map<String, String> manifest = new TreeMap<>();
+        if (!Files.isDirectory(root)) return manifest;
+
+        try (Stream<Path> files = Files.walk(root))
+        {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator)
+            {
+                String path = "/" + root.relativize(file).toString().replace('\\', '/');
+                Asset asset = find(path);
+                if (asset != null)
+                {
+                    manifest.put(path, asset.versionedUrl());
+                }
+            }
+        }
+        return manifest;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        assets.bindTo(registry);
+        contents.bindTo(registry);
+    }
+
+    private Path resolve(String path)
+    {
+        if (path == null || !path.startsWith("/")) return null;
+
+        for (String segment : path.substring(1).split("/"))
+        {
+            if (segment.isEmpty() || segment.startsWith(".") || segment.indexOf('\\') >= 0) return null;
+        }
+
+        Path file = root.resolve(path.substring(1)).normalize();
+        return file.startsWith(root) ? file : null;
+    }
+
+    private String hash(Path file, long length) throws IOException
+    {
+        MessageDigest digest = sha256();
+        if (length <= memoryMaxFileSize)
+        {
+            byte[] content = Files.readAllBytes(file);
+            String hash = hex(digest.digest(content));
+            if (content.length == length)
+            {
+                contents.put(hash, content);
+            }
+            return hash;
+        }
+
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest))
+        {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return hex(digest.digest());
+    }
+
+    private static String hex(byte[] digest)
+    {
+        return HexFormat.of().formatHex(digest, 0, 10);
+    }
+
+    private static MessageDigest sha256()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
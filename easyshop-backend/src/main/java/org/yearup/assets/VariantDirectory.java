@@ -0,0 +1,159 @@
+package org.yearup.assets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A directory of generated files kept under a total size, least recently used first out. Use is recorded in the
+ * files' modification times as well, so the order survives a restart (the directory is scanned oldest first).
+ */
+final class VariantDirectory
+{
+    private static final Logger LOG = LoggerFactory.getLogger(VariantDirectory.class);
+
+    private final Path directory;
+    private final long maximumBytes;
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    VariantDirectory(Path directory, long maximumBytes) throws IOException
+    {
+        this.directory = Files.createDirectories(directory);
+        this.maximumBytes = maximumBytes;
+
+        // left behind by a resize that was cut off
+        try (Stream<Path> files = Files.list(directory))
+        {
+            for (Path temp : (Iterable<Path>) files.filter(VariantDirectory::isTemp)::iterator)
+            {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        try (Stream<Path> files = Files.list(directory))
+        {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !isTemp(file))
+                    .sorted(Comparator.comparing(VariantDirectory::lastModified))
+                    .forEach(file -> {
+                        long size = file.toFile().length();
+                        sizes.put(file.getFileName().toString(), size);
+                        totalBytes += size;
+                    });
+        }
+        synchronized (sizes)
+        {
+            evict();
+        }
+    }
+
+    /**
+     * @return the file for the name if it is in the directory, marking it as just used; otherwise null
+     */
+    Path get(String name)
+    {
+        synchronized (sizes)
+        {
+            if (sizes.get(name) == null) return null;
+        }
+
+        Path file = directory.resolve(name);
+        try
+        {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return file;
+        }
+        catch (IOException e)
+        {
+            remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * Moves a finished temp file into the directory under the name, then trims the directory back under its limit.
+     */
+    Path put(String name, Path temp) throws IOException
+    {
+        Path file = Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long size = Files.size(file);
+        synchronized (sizes)
+        {
+            Long previous = sizes.put(name, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            evict();
+        }
+        return file;
+    }
+
+    Path newTempFile() throws IOException
+    {
+        return Files.createTempFile(directory, "variant", ".tmp");
+    }
+
+    long totalBytes()
+    {
+        synchronized (sizes)
+        {
+            return totalBytes;
+        }
+    }
+
+    private void remove(String name)
+    {
+        synchronized (sizes)
+        {
+            Long size = sizes.remove(name);
+            if (size != null) totalBytes -= size;
+        }
+    }
+
+    // called with the lock held; the newest entry is always kept, even if it alone is over the limit
+    private void evict()
+    {
+        Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+        while (totalBytes > maximumBytes && sizes.size() > 1 && eldest.hasNext())
+        {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            try
+            {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            }
+            catch (IOException e)
+            {
+                LOG.warn("Could not delete image variant {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    private static boolean isTemp(Path file)
+    {
+        return file.getFileName().toString().endsWith(".tmp");
+    }
+
+    private static FileTime lastModified(Path file)
+    {
+        try
+        {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime();
+        }
+        catch (IOException e)
+        {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.yearup.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A set of strings that can only answer "definitely not in it" or "maybe in it". No false negatives: a string that
+ * was added is always reported. The false positive rate stays near the one asked for until more strings than
+ * expected have been added, then rises. Adding and checking are lock free.
+ */
+public class BloomFilter
+{
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions the number of strings the filter is sized for
+     * @param falsePositiveRate  the chance of "maybe" for a string that was never added, e.g. 0.01
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate)
+    {
+        if (expectedInsertions <= 0)
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+
+        // m = -n ln p / (ln 2)^2 and k = m / n ln 2, rounded up to whole words; indexes are ints, so at most 2^31 bits
+        long bitsWanted = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE / 64 + 1, (bitsWanted + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void add(String value)
+    {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++)
+        {
+            long bit = index(h1, h2, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask))
+            {
+                // another add changed the word, try again
+            }
+        }
+    }
+
+    public boolean mightContain(String value)
+    {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++)
+        {
+            long bit = index(h1, h2, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public long bitCount()
+    {
+        return bitCount;
+    }
+
+    public int hashCount()
+    {
+        return hashCount;
+    }
+
+    // Kirsch-Mitzenmacher: k indexes from two hashes, h1 + i * h2, without computing k hashes
+    private long index(int h1, int h2, int i)
+    {
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so both halves are usable
+    private static long hash(String value)
+    {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8))
+        {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,134 @@
+package org.yearup.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Compresses GET /products and /categories responses for clients that accept it, and keeps the compressed bytes
+ * per URL, content type and encoding so an unchanged body is compressed only once. The body is still built on
+ * every request (from {@link CatalogJsonCache}); a cached compression is served only if it was made from a body
+ * with the same SHA-256, so a catalog change is picked up on the next request without any invalidation. Only the
+ * hash is kept, not the uncompressed body, so an entry costs little more than its compressed bytes.
+ *
+ * Every catalog response carries Vary: Accept, Accept-Encoding, compressed or not, so shared caches keep the JSON,
+ * CBOR and protobuf variants and their compressions apart.
+ */
+@Component
+public class CatalogCompressionFilter extends OncePerRequestFilter implements MeterBinder
+{
+    private final boolean enabled;
+    private final int minimumSize;
+    private final TtlCache<Key, Compressed> compressed;
+
+    public CatalogCompressionFilter(@Value("${easyshop.compression.catalog.enabled:true}") boolean enabled,
+                                    @Value("${easyshop.compression.catalog.min-size:1024}") int minimumSize,
+                                    @Value("${easyshop.compression.catalog.maximum-size:1000}") int maximumSize,
+                                    @Value("${easyshop.compression.catalog.ttl:10m}") Duration ttl)
+    {
+        this.enabled = enabled;
+        this.minimumSize = minimumSize;
+        this.compressed = new TtlCache<>("catalogCompressed", maximumSize, ttl);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+    {
+        if (!enabled || !"GET".equals(request.getMethod())) return true;
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !isUnder(path, "/products") && !isUnder(path, "/categories");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException
+    {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+
+        ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null)
+        {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                || body.length < minimumSize
+                || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null)
+        {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        Key key = new Key(request.getRequestURI(), request.getQueryString(), wrapper.getContentType(), encoding);
+        byte[] encoded = encode(key, body);
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.token());
+        response.setContentLength(encoded.length);
+        response.getOutputStream().write(encoded);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        compressed.bindTo(registry);
+    }
+
+    private byte[] encode(Key key, byte[] body)
+    {
+        byte[] digest = sha256(body);
+        Compressed cached = compressed.get(key);
+        if (cached != null && Arrays.equals(cached.digest(), digest))
+        {
+            return cached.encoded();
+        }
+
+        byte[] encoded = key.encoding().encode(body);
+        compressed.put(key, new Compressed(digest, encoded));
+        return encoded;
+    }
+
+    private static byte[] sha256(byte[] body)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isUnder(String path, String prefix)
+    {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+
+    private record Key(String uri, String query, String contentType, ContentEncoding encoding)
+    {
+    }
+
+    private record Compressed(byte[] digest, byte[] encoded)
+    {
+    }
+}
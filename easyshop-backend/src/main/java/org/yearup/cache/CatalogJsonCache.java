@@ -0,0 +1,172 @@
+package org.yearup.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.stereotype.Component;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.ProductBatch;
+import org.yearup.models.ProductField;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The JSON of each product and category, serialized once with the application's {@link ObjectMapper} and kept as
+ * bytes by id. Catalog responses are assembled from these fragments instead of running Jackson on every request.
+ *
+ * A fragment is only reused while the object just loaded equals the one it was made from, so a row changed by
+ * another instance or straight in the database is re-serialized on its next read. The controllers also invalidate
+ * on update and delete, which frees the entry straight away.
+ *
+ * Products asked for with ?fields= get their own fragments per field set. Those are not freed on update, the
+ * equality check replaces them on their next read.
+ */
+@Component
+public class CatalogJsonCache implements MeterBinder
+{
+    private final ObjectMapper objectMapper;
+    private final TtlCache<ProductKey, Fragment<Product>> products;
+    private final TtlCache<Integer, Fragment<Category>> categories;
+
+    public CatalogJsonCache(ObjectMapper objectMapper,
+                            @Value("${easyshop.cache.catalog-json.maximum-size:100000}") int maximumSize,
+                            @Value("${easyshop.cache.catalog-json.ttl:10m}") Duration ttl)
+    {
+        this.objectMapper = objectMapper;
+        this.products = new TtlCache<>("productJson", maximumSize, ttl);
+        this.categories = new TtlCache<>("categoryJson", maximumSize, ttl);
+    }
+
+    public JsonFragments product(Product product)
+    {
+        return product(product, null);
+    }
+
+    /**
+     * @param fields the fields to write, see {@link ProductField#parse}; null for all of them
+     */
+    public JsonFragments product(Product product, Set<ProductField> fields)
+    {
+        return JsonFragments.value(json(products, new ProductKey(product.getProductId(), fields), product, fields),
+                source(product, fields));
+    }
+
+    public JsonFragments products(List<Product> list)
+    {
+        return products(list, null);
+    }
+
+    public JsonFragments products(List<Product> list, Set<ProductField> fields)
+    {
+        List<byte[]> elements = new ArrayList<>(list.size());
+        for (Product product : list)
+        {
+            elements.add(json(products, new ProductKey(product.getProductId(), fields), product, fields));
+        }
+        return JsonFragments.array(elements, source(list, fields));
+    }
+
+    /**
+     * {"products":[...],"missing":[...]}, the products from their cached fragments
+     */
+    public JsonFragments productBatch(ProductBatch batch, Set<ProductField> fields)
+    {
+        List<byte[]> elements = new ArrayList<>(batch.getProducts().size());
+        for (Product product : batch.getProducts())
+        {
+            elements.add(json(products, new ProductKey(product.getProductId(), fields), product, fields));
+        }
+
+        try
+        {
+            return JsonFragments.array("{\"products\":", elements,
+                    ",\"missing\":" + objectMapper.writeValueAsString(batch.getMissing()) + "}", source(batch, fields));
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public JsonFragments category(Category category)
+    {
+        return JsonFragments.value(json(categories, category.getCategoryId(), category, null), source(category, null));
+    }
+
+    public JsonFragments categories(List<Category> list)
+    {
+        List<byte[]> elements = new ArrayList<>(list.size());
+        for (Category category : list)
+        {
+            elements.add(json(categories, category.getCategoryId(), category, null));
+        }
+        return JsonFragments.array(elements, source(list, null));
+    }
+
+    public void evictProduct(int productId)
+    {
+        products.invalidate(new ProductKey(productId, null));
+    }
+
+    public void evictCategory(int categoryId)
+    {
+        categories.invalidate(categoryId);
+    }
+
+    public void clear()
+    {
+        products.invalidateAll();
+        categories.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        products.bindTo(registry);
+        categories.bindTo(registry);
+    }
+
+    private <K, T> byte[] json(TtlCache<K, Fragment<T>> cache, K key, T value, Set<ProductField> fields)
+    {
+        Fragment<T> cached = cache.get(key);
+        if (cached != null && cached.source().equals(value))
+        {
+            return cached.json();
+        }
+
+        try
+        {
+            byte[] json = fields == null
+                    ? objectMapper.writeValueAsBytes(value)
+                    : objectMapper.writer(ProductField.filters(fields)).writeValueAsBytes(value);
+            cache.put(key, new Fragment<>(value, json));
+            return json;
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static MappingJacksonValue source(Object value, Set<ProductField> fields)
+    {
+        MappingJacksonValue source = new MappingJacksonValue(value);
+        source.setFilters(ProductField.filters(fields));
+        return source;
+    }
+
+    private record Fragment<T>(T source, byte[] json)
+    {
+    }
+
+    private record ProductKey(int productId, Set<ProductField> fields)
+    {
+    }
+}
@@ -0,0 +1,96 @@
+package org.yearup.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The Content-Encodings {@link CatalogCompressionFilter} can produce, in order of preference. Bodies are compressed
+ * once and then served many times, so each one uses its slowest, smallest setting.
+ */
+enum ContentEncoding
+{
+    GZIP("gzip")
+    {
+        @Override
+        byte[] encode(byte[] body)
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)
+            {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            })
+            {
+                gzip.write(body);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    };
+
+    private final String token;
+
+    ContentEncoding(String token)
+    {
+        this.token = token;
+    }
+
+    String token()
+    {
+        return token;
+    }
+
+    abstract byte[] encode(byte[] body);
+
+    /**
+     * @return the most preferred encoding the Accept-Encoding header allows, or null for identity
+     */
+    static ContentEncoding negotiate(String acceptEncoding)
+    {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return null;
+
+        for (ContentEncoding encoding : values())
+        {
+            if (accepts(acceptEncoding, encoding.token)) return encoding;
+        }
+        return null;
+    }
+
+    // an explicit entry for the token wins over "*"; either is ruled out by q=0
+    private static boolean accepts(String acceptEncoding, String token)
+    {
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(","))
+        {
+            String[] parts = entry.trim().split(";");
+            String name = parts[0].trim();
+            boolean allowed = true;
+            for (int i = 1; i < parts.length; i++)
+            {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q="))
+                {
+                    try
+                    {
+                        allowed = Double.parseDouble(parameter.substring(2)) > 0;
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        allowed = false;
+                    }
+                }
+            }
+
+            if (name.equalsIgnoreCase(token)) return allowed;
+            if (name.equals("*")) wildcard = allowed;
+        }
+        return wildcard != null && wildcard;
+    }
+}
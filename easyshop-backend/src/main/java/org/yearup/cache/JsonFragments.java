@@ -0,0 +1,87 @@
+package org.yearup.cache;
+
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A JSON response body made of already serialized values. A single fragment is written as is, a list is written as
+ * a JSON array by putting brackets and commas around the fragments, so the response needs no serialization at all.
+ * Written by {@link JsonFragmentsHttpMessageConverter}.
+ *
+ * The value the fragments were made from is kept alongside them, with any ?fields= filters, for the converters of
+ * the other media types (CBOR, protobuf) to write instead.
+ */
+public final class JsonFragments
+{
+    private static final byte[] NOTHING = {};
+    private static final byte[] OPEN = {'['};
+    private static final byte[] SEPARATOR = {','};
+    private static final byte[] CLOSE = {']'};
+
+    private final byte[] before;
+    private final List<byte[]> fragments;
+    private final boolean array;
+    private final byte[] after;
+    private final MappingJacksonValue source;
+
+    private JsonFragments(byte[] before, List<byte[]> fragments, boolean array, byte[] after, MappingJacksonValue source)
+    {
+        this.before = before;
+        this.fragments = fragments;
+        this.array = array;
+        this.after = after;
+        this.source = source;
+    }
+
+    public static JsonFragments value(byte[] json, MappingJacksonValue source)
+    {
+        return new JsonFragments(NOTHING, List.of(json), false, NOTHING, source);
+    }
+
+    public static JsonFragments array(List<byte[]> elements, MappingJacksonValue source)
+    {
+        return new JsonFragments(NOTHING, elements, true, NOTHING, source);
+    }
+
+    /**
+     * An array with JSON written around it, e.g. prefix {"products": and suffix ,"missing":[4]} for an object
+     * holding the array and one more property.
+     */
+    public static JsonFragments array(String prefix, List<byte[]> elements, String suffix, MappingJacksonValue source)
+    {
+        return new JsonFragments(prefix.getBytes(StandardCharsets.UTF_8), elements, true,
+                suffix.getBytes(StandardCharsets.UTF_8), source);
+    }
+
+    public MappingJacksonValue source()
+    {
+        return source;
+    }
+
+    public long contentLength()
+    {
+        long length = before.length + after.length;
+        for (byte[] fragment : fragments)
+        {
+            length += fragment.length;
+        }
+        return array ? length + 2 + Math.max(0, fragments.size() - 1) : length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException
+    {
+        out.write(before);
+        if (array) out.write(OPEN);
+        for (int i = 0; i < fragments.size(); i++)
+        {
+            if (array && i > 0) out.write(SEPARATOR);
+            out.write(fragments.get(i));
+        }
+        if (array) out.write(CLOSE);
+        out.write(after);
+    }
+}
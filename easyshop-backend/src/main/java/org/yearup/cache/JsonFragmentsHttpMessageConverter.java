@@ -0,0 +1,53 @@
+package org.yearup.cache;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Copies {@link JsonFragments} straight into the response body. Spring Boot puts converter beans in front of its
+ * defaults, so controllers can return {@link JsonFragments} wherever they would have returned the objects.
+ */
+@Component
+public class JsonFragmentsHttpMessageConverter extends AbstractHttpMessageConverter<JsonFragments>
+{
+    public JsonFragmentsHttpMessageConverter()
+    {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz)
+    {
+        return JsonFragments.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType)
+    {
+        return false;
+    }
+
+    @Override
+    protected JsonFragments readInternal(Class<? extends JsonFragments> clazz, HttpInputMessage inputMessage)
+    {
+        throw new HttpMessageNotReadableException("JSON fragments are write only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(JsonFragments fragments, MediaType contentType)
+    {
+        return fragments.contentLength();
+    }
+
+    @Override
+    protected void writeInternal(JsonFragments fragments, HttpOutputMessage outputMessage) throws IOException
+    {
+        fragments.writeTo(outputMessage.getBody());
+    }
+}
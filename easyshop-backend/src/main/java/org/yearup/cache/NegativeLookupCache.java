@@ -0,0 +1,98 @@
+package org.yearup.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers, for a short while, the product ids, category ids and usernames a lookup just failed to find, so a
+ * scraper walking ids or a login retried with the same wrong name is answered without another query
+ * (easyshop.cache.negative.*).
+ *
+ * The controllers forget a miss when they create the product, category or user. Rows added by another instance or
+ * straight in the database are found once the entry expires, so the TTL is kept to seconds.
+ */
+@Component
+public class NegativeLookupCache implements MeterBinder
+{
+    private final TtlCache<Integer, Boolean> products;
+    private final TtlCache<Integer, Boolean> categories;
+    private final TtlCache<String, Boolean> usernames;
+
+    @Autowired
+    public NegativeLookupCache(@Value("${easyshop.cache.negative.maximum-size:100000}") int maximumSize,
+                               @Value("${easyshop.cache.negative.ttl:30s}") Duration ttl)
+    {
+        this(maximumSize, ttl, System::nanoTime);
+    }
+
+    NegativeLookupCache(int maximumSize, Duration ttl, LongSupplier clock)
+    {
+        this.products = new TtlCache<>("missingProducts", maximumSize, ttl, clock);
+        this.categories = new TtlCache<>("missingCategories", maximumSize, ttl, clock);
+        this.usernames = new TtlCache<>("missingUsernames", maximumSize, ttl, clock);
+    }
+
+    public boolean isMissingProduct(int productId)
+    {
+        return products.get(productId) != null;
+    }
+
+    public void productMissing(int productId)
+    {
+        products.put(productId, Boolean.TRUE);
+    }
+
+    public void productCreated(int productId)
+    {
+        products.invalidate(productId);
+    }
+
+    public boolean isMissingCategory(int categoryId)
+    {
+        return categories.get(categoryId) != null;
+    }
+
+    public void categoryMissing(int categoryId)
+    {
+        categories.put(categoryId, Boolean.TRUE);
+    }
+
+    public void categoryCreated(int categoryId)
+    {
+        categories.invalidate(categoryId);
+    }
+
+    public boolean isMissingUsername(String username)
+    {
+        return usernames.get(key(username)) != null;
+    }
+
+    public void usernameMissing(String username)
+    {
+        usernames.put(key(username), Boolean.TRUE);
+    }
+
+    public void usernameCreated(String username)
+    {
+        usernames.invalidate(key(username));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        products.bindTo(registry);
+        categories.bindTo(registry);
+        usernames.bindTo(registry);
+    }
+
+    private static String key(String username)
+    {
+        return username.toLowerCase();
+    }
+}
@@ -0,0 +1,176 @@
+package org.yearup.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A small bounded, least-recently-used cache whose entries expire a fixed time after they were written.
+ * Hit, miss and eviction counts are kept so the cache can be published as Micrometer meters.
+ */
+public class TtlCache<K, V> implements MeterBinder
+{
+    private final String name;
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public TtlCache(String name, int maximumSize, Duration ttl)
+    {
+        this(name, maximumSize, ttl, System::nanoTime);
+    }
+
+    TtlCache(String name, int maximumSize, Duration ttl, LongSupplier clock)
+    {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("maximumSize must be positive");
+
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the cached value, or null if there is no live entry for the key
+     */
+    public V get(K key)
+    {
+        long now = clock.getAsLong();
+        synchronized (entries)
+        {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - now > 0)
+            {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null)
+            {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(K key, V value)
+    {
+        long expiresAt = clock.getAsLong() + ttlNanos;
+        synchronized (entries)
+        {
+            entries.put(key, new Entry<>(value, expiresAt));
+            if (entries.size() > maximumSize)
+            {
+                evictEldest();
+            }
+        }
+    }
+
+    public void invalidate(K key)
+    {
+        synchronized (entries)
+        {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll()
+    {
+        synchronized (entries)
+        {
+            entries.clear();
+        }
+    }
+
+    public int size()
+    {
+        synchronized (entries)
+        {
+            return entries.size();
+        }
+    }
+
+    public long hitCount()
+    {
+        return hits.get();
+    }
+
+    public long missCount()
+    {
+        return misses.get();
+    }
+
+    public long evictionCount()
+    {
+        return evictions.get();
+    }
+
+    public double hitRatio()
+    {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Registers the standard Micrometer cache meters (cache.gets, cache.evictions, cache.size) tagged with this cache's name.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        FunctionCounter.builder("cache.gets", this, TtlCache::hitCount)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value.")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, TtlCache::missCount)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .description("The number of times cache lookup methods have not returned a value.")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, TtlCache::evictionCount)
+                .tag("cache", name)
+                .description("The number of entries evicted because of size or expiry.")
+                .register(registry);
+        Gauge.builder("cache.size", this, TtlCache::size)
+                .tag("cache", name)
+                .description("The number of entries in this cache.")
+                .register(registry);
+    }
+
+    // called with the lock held; the iteration order of an access-ordered map starts at the least recently used entry
+    private void evictEldest()
+    {
+        Iterator<K> iterator = entries.keySet().iterator();
+        while (entries.size() > maximumSize && iterator.hasNext())
+        {
+            iterator.next();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt)
+    {
+    }
+}
@@ -1,20 +1,74 @@
 package org.yearup.configurations;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.yearup.data.metrics.InstrumentedDataSource;
+import org.yearup.data.metrics.StatementMetrics;
+import org.yearup.data.routing.Replica;
+import org.yearup.data.routing.ReplicaRoutingDataSource;
+import org.yearup.data.routing.ReplicaSelector;
 
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// the embedded profile stores everything in local files instead (see org.yearup.data.embedded)
 @Configuration
-public class DatabaseConfig
+@Profile("!embedded")
+public class DatabaseConfig implements DisposableBean
 {
-    private BasicDataSource basicDataSource;
+    private static final Logger LOG = LoggerFactory.getLogger(DatabaseConfig.class);
+
+    private MeteredBasicDataSource basicDataSource;
+    private List<MeteredBasicDataSource> replicaDataSources = new ArrayList<>();
+    private ReplicaSelector replicaSelector;
+
+    // reads go to the replicas when easyshop.datasource.replica-urls is set, otherwise everything uses the primary;
+    // every statement is timed per normalized SQL unless easyshop.datasource.statement-metrics is false.
+    // The wrappers have no close(), so the pools are closed by destroy() below rather than through this bean
+    @Bean(destroyMethod = "")
+    public DataSource dataSource(ObjectProvider<MeterRegistry> registry,
+                                 @Value("${easyshop.datasource.statement-metrics:true}") boolean statementMetrics)
+    {
+        DataSource dataSource = basicDataSource;
+        if (!replicaDataSources.isEmpty())
+        {
+            List<Replica> replicas = new ArrayList<>();
+            for (MeteredBasicDataSource replica : replicaDataSources)
+            {
+                replicas.add(new Replica(replica.getPoolName(), replica));
+            }
+            dataSource = new ReplicaRoutingDataSource(basicDataSource, replicas, replicaSelector);
+        }
+
+        if (statementMetrics)
+        {
+            dataSource = new InstrumentedDataSource(dataSource, new StatementMetrics(registry::getObject));
+        }
+        return dataSource;
+    }
 
     @Bean
-    public BasicDataSource dataSource()
+    public MeterBinder dataSourcePoolMetrics()
     {
-        return basicDataSource;
+        return registry -> {
+            basicDataSource.bindTo(registry);
+            replicaDataSources.forEach(replica -> replica.bindTo(registry));
+        };
     }
 
 //    @Autowired
@@ -31,12 +85,55 @@ public class DatabaseConfig
     @Autowired
     public DatabaseConfig(@Value("${spring.datasource.url}") String url,
                           @Value("${spring.datasource.username}") String username,
-                          @Value("${spring.datasource.password}") String password)
+                          @Value("${spring.datasource.password}") String password,
+                          @Value("${easyshop.datasource.replica-urls:}") List<String> replicaUrls,
+                          @Value("${easyshop.datasource.replica-selection:round-robin}") String replicaSelection,
+                          Environment environment)
     {
-        basicDataSource = new BasicDataSource();
+        basicDataSource = new MeteredBasicDataSource("primary");
         basicDataSource.setUrl(url);
         basicDataSource.setUsername(username);
         basicDataSource.setPassword(password);
+        bindPoolProperties(basicDataSource, environment);
+
+        for (String replicaUrl : replicaUrls)
+        {
+            if (replicaUrl.isBlank()) continue;
+
+            MeteredBasicDataSource replica = new MeteredBasicDataSource("replica-" + (replicaDataSources.size() + 1));
+            replica.setUrl(replicaUrl.trim());
+            replica.setUsername(environment.getProperty("easyshop.datasource.replica-username", username));
+            replica.setPassword(environment.getProperty("easyshop.datasource.replica-password", password));
+            bindPoolProperties(replica, environment);
+            replica.setDefaultReadOnly(true);
+            replicaDataSources.add(replica);
+        }
+        replicaSelector = ReplicaSelector.named(replicaSelection);
+    }
+
+    @Override
+    public void destroy()
+    {
+        close(basicDataSource);
+        replicaDataSources.forEach(DatabaseConfig::close);
+    }
+
+    private static void close(MeteredBasicDataSource dataSource)
+    {
+        try
+        {
+            dataSource.close();
+        }
+        catch (SQLException e)
+        {
+            LOG.warn("Could not close the {} connection pool", dataSource.getPoolName(), e);
+        }
+    }
+
+    // pool size, validation, timeouts and statement caching come from the spring.datasource.dbcp2.* properties
+    private static void bindPoolProperties(BasicDataSource dataSource, Environment environment)
+    {
+        Binder.get(environment).bind("spring.datasource.dbcp2", Bindable.ofInstance(dataSource));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package org.yearup.configurations;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.yearup.models.Product;
+import org.yearup.models.ProductField;
+
+@Configuration
+public class JacksonConfig
+{
+    // lets ?fields= narrow the Product JSON; without a filter for the request every property is written
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer productFields()
+    {
+        return builder -> builder
+                .mixIn(Product.class, ProductField.MixIn.class)
+                .filters(ProductField.filters(null));
+    }
+}
@@ -0,0 +1,79 @@
+package org.yearup.configurations;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A {@link BasicDataSource} that publishes its pool state as Micrometer gauges (db.pool.*{pool=name}),
+ * including the borrow wait times that are only available on the underlying commons-pool object pool.
+ */
+public class MeteredBasicDataSource extends BasicDataSource
+{
+    private final String poolName;
+
+    public MeteredBasicDataSource(String poolName)
+    {
+        this.poolName = poolName;
+    }
+
+    public String getPoolName()
+    {
+        return poolName;
+    }
+
+    /**
+     * @return the number of threads currently blocked waiting for a connection
+     */
+    public int getNumWaiters()
+    {
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        return pool == null ? 0 : pool.getNumWaiters();
+    }
+
+    public long getMeanBorrowWaitTimeMillis()
+    {
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        return pool == null ? 0 : pool.getMeanBorrowWaitTimeMillis();
+    }
+
+    public long getMaxBorrowWaitTimeMillis()
+    {
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        return pool == null ? 0 : pool.getMaxBorrowWaitTimeMillis();
+    }
+
+    public long getBorrowedCount()
+    {
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        return pool == null ? 0 : pool.getBorrowedCount();
+    }
+
+    public void bindTo(MeterRegistry registry)
+    {
+        gauge(registry, "db.pool.active", "Connections currently borrowed from the pool.", MeteredBasicDataSource::getNumActive);
+        gauge(registry, "db.pool.idle", "Idle connections in the pool.", MeteredBasicDataSource::getNumIdle);
+        gauge(registry, "db.pool.max", "Maximum number of connections the pool will open.", MeteredBasicDataSource::getMaxTotal);
+        gauge(registry, "db.pool.pending", "Threads waiting for a connection.", MeteredBasicDataSource::getNumWaiters);
+        gauge(registry, "db.pool.wait.mean", "Mean time spent waiting to borrow a connection, in milliseconds.", MeteredBasicDataSource::getMeanBorrowWaitTimeMillis);
+        gauge(registry, "db.pool.wait.max", "Longest time spent waiting to borrow a connection, in milliseconds.", MeteredBasicDataSource::getMaxBorrowWaitTimeMillis);
+
+        FunctionCounter.builder("db.pool.borrowed", this, MeteredBasicDataSource::getBorrowedCount)
+                .tag("pool", poolName)
+                .description("Connections borrowed from the pool.")
+                .register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, ToDoubleFunction<MeteredBasicDataSource> value)
+    {
+        Gauge.builder(name, this, value)
+                .tag("pool", poolName)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,20 @@
+package org.yearup.configurations;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.yearup.converters.ModelProtobufHttpMessageConverter;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer
+{
+    // appended rather than declared as a bean, which Spring Boot would put in front of JSON; protobuf is only
+    // written to clients that ask for it in Accept
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters)
+    {
+        converters.add(new ModelProtobufHttpMessageConverter());
+    }
+}
@@ -6,20 +6,27 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 
+import org.yearup.exceptions.BadRequestException;
+import org.yearup.exceptions.DaoException;
+import org.yearup.exceptions.ResourceNotFoundException;
+import org.yearup.cache.NegativeLookupCache;
 import org.yearup.models.Profile;
 import org.yearup.data.ProfileDao;
 import org.yearup.data.UserDao;
+import org.yearup.data.unitofwork.UnitOfWork;
 import org.yearup.models.authentication.LoginDto;
 import org.yearup.models.authentication.LoginResponseDto;
 import org.yearup.models.authentication.RegisterUserDto;
 import org.yearup.models.User;
+import org.yearup.security.KnownUsernames;
+import org.yearup.security.UserDetailsCache;
 import org.yearup.security.jwt.JWTFilter;
 import org.yearup.security.jwt.TokenProvider;
 
@@ -32,12 +39,19 @@ public class AuthenticationController {
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
     private UserDao userDao;
     private ProfileDao profileDao;
+    private UserDetailsCache userDetailsCache;
+    private KnownUsernames knownUsernames;
+    private NegativeLookupCache negativeLookups;
 
-    public AuthenticationController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder, UserDao userDao, ProfileDao profileDao) {
+    public AuthenticationController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder, UserDao userDao, ProfileDao profileDao, UserDetailsCache userDetailsCache,
+                                    KnownUsernames knownUsernames, NegativeLookupCache negativeLookups) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
         this.userDao = userDao;
         this.profileDao = profileDao;
+        this.userDetailsCache = userDetailsCache;
+        this.knownUsernames = knownUsernames;
+        this.negativeLookups = negativeLookups;
     }
 
     @RequestMapping(value = "/login", method = RequestMethod.POST)
@@ -46,52 +60,61 @@ public class AuthenticationController {
         UsernamePasswordAuthenticationToken authenticationToken =
                 new UsernamePasswordAuthenticationToken(loginDto.getUsername(), loginDto.getPassword());
 
-        Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        Authentication authentication;
+        try {
+            authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        } catch (InternalAuthenticationServiceException e) {
+            // the user lookup failed, not the credentials; answer a 500 rather than let it pass for a bad password
+            if (e.getCause() instanceof DaoException dao) throw dao;
+            throw e;
+        }
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = tokenProvider.createToken(authentication, false);
 
-        try
-        {
-            User user = userDao.getByUserName(loginDto.getUsername());
+        User user = userDao.getByUserName(loginDto.getUsername());
 
-            if (user == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        if (user == null) throw new ResourceNotFoundException("User " + loginDto.getUsername() + " was not found");
 
-            HttpHeaders httpHeaders = new HttpHeaders();
-            httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-            return new ResponseEntity<>(new LoginResponseDto(jwt, user), httpHeaders, HttpStatus.OK);
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
-        }
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        return new ResponseEntity<>(new LoginResponseDto(jwt, user), httpHeaders, HttpStatus.OK);
     }
 
     @ResponseStatus(HttpStatus.CREATED)
     @RequestMapping(value = "/register", method = RequestMethod.POST)
     public ResponseEntity<User> register(@Valid @RequestBody RegisterUserDto newUser) {
 
-        try
+        // a name the Bloom filter has never seen is free; only "maybe taken" needs the query
+        boolean exists = knownUsernames.mightExist(newUser.getUsername()) && userDao.exists(newUser.getUsername());
+        if (exists)
         {
-            boolean exists = userDao.exists(newUser.getUsername());
-            if (exists)
-            {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User Already Exists.");
-            }
-
-            // create user
-            User user = userDao.create(new User(0, newUser.getUsername(), newUser.getPassword(), newUser.getRole()));
-
-            // create profile
-            Profile profile = new Profile();
-            profile.setUserId(user.getId());
-            profileDao.create(profile);
-
-            return new ResponseEntity<>(user, HttpStatus.CREATED);
+            throw new BadRequestException("User Already Exists.");
         }
-        catch (Exception e)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+
+        // create the user and their profile together - neither is kept if the other fails
+        User user;
+        try {
+            user = UnitOfWork.inTransaction(() -> {
+                User created = userDao.create(new User(0, newUser.getUsername(), newUser.getPassword(), newUser.getRole()));
+
+                Profile profile = new Profile();
+                profile.setUserId(created.getId());
+                profileDao.create(profile);
+                return created;
+            });
+        } catch (DaoException e) {
+            // the filter hasn't heard of a name registered on another instance since its last rebuild, or by a
+            // request racing this one; the unique key on username still turns the insert down
+            if (!e.isConstraintViolation()) throw e;
+
+            knownUsernames.add(newUser.getUsername());
+            throw new BadRequestException("User Already Exists.");
         }
+        userDetailsCache.evict(user.getUsername());
+        negativeLookups.usernameCreated(user.getUsername());
+        knownUsernames.add(user.getUsername());
+
+        return new ResponseEntity<>(user, HttpStatus.CREATED);
     }
 
 }
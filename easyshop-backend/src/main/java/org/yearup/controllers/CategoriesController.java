@@ -5,13 +5,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.yearup.cache.CatalogJsonCache;
+import org.yearup.cache.JsonFragments;
+import org.yearup.cache.NegativeLookupCache;
 import org.yearup.data.CategoryDao;
 import org.yearup.data.ProductDao;
+import org.yearup.exceptions.ResourceNotFoundException;
 import org.yearup.models.Category;
 import org.yearup.models.Product;
+import org.yearup.models.ProductField;
 
 import java.util.List;
+import java.util.Set;
 
 // add the annotations to make this a REST controller
 // add the annotation to make this controller the endpoint for the following url
@@ -24,70 +29,67 @@ public class CategoriesController
 {
     private CategoryDao categoryDao;
     private ProductDao productDao;
+    private CatalogJsonCache catalogJson;
+    private NegativeLookupCache negativeLookups;
 
 
     // create an Autowired controller to inject the categoryDao and ProductDao
     @Autowired
-    public CategoriesController(CategoryDao categoryDao, ProductDao productDao) {
+    public CategoriesController(CategoryDao categoryDao, ProductDao productDao, CatalogJsonCache catalogJson,
+                                NegativeLookupCache negativeLookups) {
         this.categoryDao = categoryDao;
         this.productDao = productDao;
+        this.catalogJson = catalogJson;
+        this.negativeLookups = negativeLookups;
     }
 
     // add the appropriate annotation for a get action
     @GetMapping
-    public List<Category> getAll()
+    public JsonFragments getAll()
     {
         // find and return all categories
-        try
-        {
-            List<Category> categories = categoryDao.getAllCategories();
+        List<Category> categories = categoryDao.getAllCategories();
 
-            if(categories.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
-            }
-            return categories;
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+        if(categories.isEmpty()) {
+            throw new ResourceNotFoundException("There are no categories");
         }
-        //return categoryDao.getAllCategories();
+        return catalogJson.categories(categories);
     }
 
     // add the appropriate annotation for a get action
     // Get by id
     @RequestMapping(path = "/{id}")
     @PreAuthorize("permitAll()")
-    public ResponseEntity<Category> getById(@PathVariable int id)
+    public ResponseEntity<JsonFragments> getById(@PathVariable int id)
     {
+        if (negativeLookups.isMissingCategory(id))
+        {
+            return ResponseEntity.notFound().build();
+        }
+
         Category category = categoryDao.getById(id);
         if (category == null)
         {
+            negativeLookups.categoryMissing(id);
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(category);
+        return ResponseEntity.ok(catalogJson.category(category));
     }
 
     // the url to return all products in category 1 would look like this
     // https://localhost:8080/categories/1/products
     @GetMapping("{categoryId}/products")
-    public List<Product> getProductsById(@PathVariable int categoryId)
+    public JsonFragments getProductsById(@PathVariable int categoryId,
+                                         @RequestParam(name="fields", required = false) String fields)
     {
+        Set<ProductField> productFields = ProductFieldsParameter.parse(fields);
         // get a list of product by categoryId
-        try
-        {
-            List<Product> products = productDao.listByCategoryId(categoryId);
+        List<Product> products = productDao.listByCategoryId(categoryId, productFields);
 
-            if(products.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
-            }
-            return products;
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+        if(products.isEmpty()) {
+            throw new ResourceNotFoundException("Category " + categoryId + " has no products");
         }
-        //return productDao.listByCategoryId(categoryId);
+        return catalogJson.products(products, productFields);
     }
 
     // add annotation to call this method for a POST action
@@ -98,7 +100,10 @@ public class CategoriesController
     public Category addCategory(@RequestBody Category category)
     {
         // insert the category
-        return categoryDao.create(category);
+        Category created = categoryDao.create(category);
+        if (created != null)
+            negativeLookups.categoryCreated(created.getCategoryId());
+        return created;
     }
 
     // add annotation to call this method for a PUT (update) action - the url path must include the categoryId
@@ -108,13 +113,8 @@ public class CategoriesController
     public void updateCategory(@PathVariable int id, @RequestBody Category category)
     {
         // update the category by id
-        try {
-            categoryDao.update(id, category);
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
-        }
+        categoryDao.update(id, category);
+        catalogJson.evictCategory(id);
     }
 
 
@@ -126,27 +126,14 @@ public class CategoriesController
     public void deleteCategory(@PathVariable int id)
     {
         // delete the category by id
-        try
-        {
-            Category category = categoryDao.getById(id);
+        Category category = categoryDao.getById(id);
 
-            if(category == null) {
-                throw new ResponseStatusException(HttpStatus.NO_CONTENT);
-            }
-            categoryDao.delete(id);
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+        // already gone, which is what was asked for
+        if(category == null) {
+            return;
         }
+        categoryDao.delete(id);
+        catalogJson.evictCategory(id);
     }
 }
 
-
-// TODO : Put in own class and Exceptions package
-//@ResponseStatus(HttpStatus.NOT_FOUND)
-//class ResourceNotFoundException extends RuntimeException {
-//    public ResourceNotFoundException(String message) {
-//        super(message);
-//    }
-//}
@@ -0,0 +1,35 @@
+package org.yearup.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.yearup.events.CatalogEventBroadcaster;
+import org.yearup.exceptions.ServiceUnavailableException;
+
+// Server-Sent Events, so clients hear about catalog changes instead of polling /products for them
+@RestController
+@RequestMapping("events")
+@CrossOrigin
+public class EventsController
+{
+    private CatalogEventBroadcaster broadcaster;
+
+    @Autowired
+    public EventsController(CatalogEventBroadcaster broadcaster)
+    {
+        this.broadcaster = broadcaster;
+    }
+
+    @GetMapping(value = "catalog", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("permitAll()")
+    public SseEmitter catalog()
+    {
+        SseEmitter emitter = broadcaster.subscribe();
+        if (emitter == null)
+            throw new ServiceUnavailableException("Too many open event streams, poll instead");
+
+        return emitter;
+    }
+}
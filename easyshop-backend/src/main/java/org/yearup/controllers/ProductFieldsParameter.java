@@ -0,0 +1,26 @@
+package org.yearup.controllers;
+
+import org.yearup.exceptions.BadRequestException;
+import org.yearup.models.ProductField;
+
+import java.util.Set;
+
+// the ?fields= parameter of the product and cart endpoints; an unknown field is the client's mistake, not ours
+final class ProductFieldsParameter
+{
+    private ProductFieldsParameter()
+    {
+    }
+
+    static Set<ProductField> parse(String fields)
+    {
+        try
+        {
+            return ProductField.parse(fields);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            throw new BadRequestException(ex.getMessage());
+        }
+    }
+}
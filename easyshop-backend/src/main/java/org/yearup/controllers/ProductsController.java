@@ -1,15 +1,31 @@
 package org.yearup.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
+import org.yearup.cache.CatalogJsonCache;
+import org.yearup.cache.JsonFragments;
+import org.yearup.cache.NegativeLookupCache;
 import org.yearup.models.Product;
 import org.yearup.data.ProductDao;
+import org.yearup.events.CatalogEvent;
+import org.yearup.events.CatalogEventBroadcaster;
+import org.yearup.exceptions.BadRequestException;
+import org.yearup.exceptions.ResourceNotFoundException;
+import org.yearup.models.ProductBatch;
+import org.yearup.models.ProductBulkResult;
+import org.yearup.models.ProductBulkUpdate;
+import org.yearup.models.ProductField;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("products")
@@ -17,48 +33,97 @@ import java.util.List;
 public class ProductsController
 {
     private ProductDao productDao;
+    private CatalogJsonCache catalogJson;
+    private NegativeLookupCache negativeLookups;
+    private CatalogEventBroadcaster catalogEvents;
+    private int maximumBatchSize;
+    private int bulkChunkSize;
 
     @Autowired
-    public ProductsController(ProductDao productDao)
+    public ProductsController(ProductDao productDao, CatalogJsonCache catalogJson, NegativeLookupCache negativeLookups,
+                              CatalogEventBroadcaster catalogEvents,
+                              @Value("${easyshop.products.max-batch-size:500}") int maximumBatchSize,
+                              @Value("${easyshop.products.bulk-chunk-size:1000}") int bulkChunkSize)
     {
         this.productDao = productDao;
+        this.catalogJson = catalogJson;
+        this.negativeLookups = negativeLookups;
+        this.catalogEvents = catalogEvents;
+        this.maximumBatchSize = maximumBatchSize;
+        this.bulkChunkSize = bulkChunkSize;
     }
 
     @GetMapping("")
     @PreAuthorize("permitAll()")
-    public List<Product> search(@RequestParam(name="cat", required = false) Integer categoryId,
+    public JsonFragments search(@RequestParam(name="cat", required = false) Integer categoryId,
                                 @RequestParam(name="minPrice", required = false) BigDecimal minPrice,
                                 @RequestParam(name="maxPrice", required = false) BigDecimal maxPrice,
-                                @RequestParam(name="color", required = false) String color
+                                @RequestParam(name="color", required = false) String color,
+                                @RequestParam(name="fields", required = false) String fields
                                 )
     {
-        try
-        {
-            return productDao.search(categoryId, minPrice, maxPrice, color);
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
-        }
+        Set<ProductField> productFields = ProductFieldsParameter.parse(fields);
+        return catalogJson.products(productDao.search(categoryId, minPrice, maxPrice, color, productFields), productFields);
+    }
+
+    // several products in one query, e.g. /products?ids=3,1,2 for a wishlist; the POST below takes longer lists
+    @GetMapping(value = "", params = "ids")
+    @PreAuthorize("permitAll()")
+    public JsonFragments getByIds(@RequestParam(name="ids") List<Integer> ids,
+                                  @RequestParam(name="fields", required = false) String fields)
+    {
+        return batch(ids, fields);
+    }
+
+    @PostMapping("batch")
+    @PreAuthorize("permitAll()")
+    public JsonFragments postByIds(@RequestBody List<Integer> ids,
+                                   @RequestParam(name="fields", required = false) String fields)
+    {
+        return batch(ids, fields);
     }
 
     @GetMapping("{id}")
     @PreAuthorize("permitAll()")
-    public Product getById(@PathVariable int id )
+    public JsonFragments getById(@PathVariable int id, @RequestParam(name="fields", required = false) String fields)
     {
-        try
+        Set<ProductField> productFields = ProductFieldsParameter.parse(fields);
+        if (negativeLookups.isMissingProduct(id))
+            throw new ResourceNotFoundException("Product " + id + " was not found");
+
+        var product = productDao.getById(id, productFields);
+
+        if(product == null)
         {
-            var product = productDao.getById(id);
+            negativeLookups.productMissing(id);
+            throw new ResourceNotFoundException("Product " + id + " was not found");
+        }
+
+        return catalogJson.product(product, productFields);
+    }
 
-            if(product == null)
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+    private JsonFragments batch(List<Integer> ids, String fields)
+    {
+        Set<ProductField> productFields = ProductFieldsParameter.parse(fields);
+        if (ids == null || ids.isEmpty() || ids.size() > maximumBatchSize || ids.contains(null))
+            throw new BadRequestException("ids takes 1 to " + maximumBatchSize + " product ids");
 
-            return product;
+        Map<Integer, Product> found = new HashMap<>();
+        for (Product product : productDao.getByIds(new LinkedHashSet<>(ids), productFields))
+        {
+            found.put(product.getProductId(), product);
         }
-        catch(Exception ex)
+
+        // in the order asked for
+        List<Product> products = new ArrayList<>(ids.size());
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (int id : ids)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            Product product = found.get(id);
+            if (product == null) missing.add(id);
+            else products.add(product);
         }
+        return catalogJson.productBatch(new ProductBatch(products, new ArrayList<>(missing)), productFields);
     }
 
     @PostMapping()
@@ -66,48 +131,53 @@ public class ProductsController
     @ResponseStatus(HttpStatus.CREATED) // Sets the HTTP status to 201
     public Product addProduct(@RequestBody Product product)
     {
-        try
+        Product created = productDao.create(product);
+        if (created != null)
         {
-            return productDao.create(product);
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            negativeLookups.productCreated(created.getProductId());
+            catalogEvents.publish(CatalogEvent.created(created));
         }
+        return created;
     }
 
     @PutMapping("{id}")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public void updateProduct(@PathVariable int id, @RequestBody Product product)
     {
-        try
-        {
-            // This needed to use update instead of create
-            // productDao.create(product);
-            productDao.update(id, product);
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
-        }
+        // This needed to use update instead of create
+        // productDao.create(product);
+        productDao.update(id, product);
+        catalogJson.evictProduct(id);
+        catalogEvents.publish(CatalogEvent.updated(id, product));
+    }
+
+    // one set-based change to every product matching the filter, e.g. {"categoryId":2,"pricePercent":-10}
+    @PatchMapping("")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ProductBulkResult updateProducts(@RequestBody ProductBulkUpdate update)
+    {
+        if (!update.hasChanges())
+            throw new BadRequestException("Give at least one of pricePercent, priceChange, stockChange and featured");
+        if (update.getPricePercent() != null && update.getPriceChange() != null)
+            throw new BadRequestException("Change the price by pricePercent or by priceChange, not both");
+
+        ProductBulkResult result = productDao.updateAll(update, bulkChunkSize);
+        if (result.getUpdated() > 0)
+            catalogEvents.publish(CatalogEvent.bulkUpdated());
+        return result;
     }
 
     @DeleteMapping("{id}")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public void deleteProduct(@PathVariable int id)
     {
-        try
-        {
-            var product = productDao.getById(id);
+        var product = productDao.getById(id);
 
-            if(product == null)
-                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        if(product == null)
+            throw new ResourceNotFoundException("Product " + id + " was not found");
 
-            productDao.delete(id);
-        }
-        catch(Exception ex)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
-        }
+        productDao.delete(id);
+        catalogJson.evictProduct(id);
+        catalogEvents.publish(CatalogEvent.deleted(id));
     }
 }
@@ -1,16 +1,15 @@
 package org.yearup.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.server.ResponseStatusException;
 import org.yearup.data.ProfileDao;
 import org.yearup.data.UserDao;
 import org.yearup.models.Profile;
 import org.yearup.models.User;
+import org.yearup.exceptions.ResourceNotFoundException;
 
 import java.security.Principal;
 
@@ -29,20 +28,16 @@ public class ProfileController {
 
     @GetMapping
     public Profile getProfile(Principal principal) {
-        try
-        {
-            // get the currently logged in username
-            String userName = principal.getName();
-            // find database user by userId
-            User user = userDao.getByUserName(userName);
-            int userId = user.getId();
-
-            // use the profileDao to get user profile
-            return profileDao.get(userId);
-        }
-        catch(Exception e)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+        // get the currently logged in username
+        String userName = principal.getName();
+        // find database user by userId
+        User user = userDao.getByUserName(userName);
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found");
         }
+        int userId = user.getId();
+
+        // use the profileDao to get user profile
+        return profileDao.get(userId);
     }
 }
@@ -1,19 +1,21 @@
 package org.yearup.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 import org.yearup.data.ProductDao;
 import org.yearup.data.ShoppingCartDao;
 import org.yearup.data.UserDao;
+import org.yearup.exceptions.ResourceNotFoundException;
 import org.yearup.models.Product;
+import org.yearup.models.ProductField;
 import org.yearup.models.ShoppingCart;
 import org.yearup.models.ShoppingCartItem;
 import org.yearup.models.User;
 
 import java.security.Principal;
+import java.util.Set;
 
 // convert this class to a REST controller
 // only logged in users should have access to these actions
@@ -38,8 +40,9 @@ public class ShoppingCartController
 
     // each method in this controller requires a Principal object as a parameter
     @GetMapping
-    public ShoppingCart getCart(Principal principal)
+    public MappingJacksonValue getCart(@RequestParam(name="fields", required = false) String fields, Principal principal)
     {
+        Set<ProductField> productFields = ProductFieldsParameter.parse(fields);
         // TODO : fix principal null pointer
         // FIXED : Make sure Bearer Token is used in Authorization tab of Postman
         // Mock authentication with username
@@ -52,22 +55,21 @@ public class ShoppingCartController
 //                }
 //            };
 //        }
-        try
-        {
-            // get the currently logged in username
-            String userName = principal.getName();
-            // find database user by userId
-            User user = userDao.getByUserName(userName);
-            int userId = user.getId();
-
-            // use the shoppingcartDao to get all items in the cart and return the cart
-            ShoppingCart cart = shoppingCartDao.getByUserId(userId);
-            return cart;
-        }
-        catch(Exception e)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+        // get the currently logged in username
+        String userName = principal.getName();
+        // find database user by userId
+        User user = userDao.getByUserName(userName);
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found");
         }
+        int userId = user.getId();
+
+        // use the shoppingcartDao to get all items in the cart and return the cart
+        ShoppingCart cart = shoppingCartDao.getByUserId(userId, productFields);
+        // ?fields= narrows the products inside the items; the cart's own properties are always written
+        MappingJacksonValue body = new MappingJacksonValue(cart);
+        body.setFilters(ProductField.filters(productFields));
+        return body;
     }
 
     // add a POST method to add a product to the cart - the url should be
@@ -75,22 +77,18 @@ public class ShoppingCartController
     //const url = `${config.baseUrl}/cart/products/${productId}`;
     @PostMapping("/products/{productId}")
     public Product addProductToCart(@PathVariable Integer productId, Principal principal) {
-        try
-        {
-            // get the currently logged in username
-            String userName = principal.getName();
-            // find database user by userId
-            User user = userDao.getByUserName(userName);
-            int userId = user.getId();
-
-            // use the shoppingcartDao to get add product to cart
-            shoppingCartDao.addProductById(userId, productId);
-            return productDao.getById(productId);
-        }
-        catch(Exception e)
-        {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+        // get the currently logged in username
+        String userName = principal.getName();
+        // find database user by userId
+        User user = userDao.getByUserName(userName);
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found");
         }
+        int userId = user.getId();
+
+        // use the shoppingcartDao to get add product to cart
+        shoppingCartDao.addProductById(userId, productId);
+        return productDao.getById(productId);
     }
 
 
@@ -102,28 +100,22 @@ public class ShoppingCartController
     public ResponseEntity<String> updateProductInCart(@PathVariable Integer productId,
                                                       @RequestBody ShoppingCartItem cartItem,
                                                       Principal principal) {
-        try {
-            // Get the currently logged-in username
-            String userName = principal.getName();
-            // Find database user by userName
-            User user = userDao.getByUserName(userName);
-            if (user == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-            }
-            int userId = user.getId();
-
-            // Check if the product exists in the user's cart
-            boolean isUpdated = shoppingCartDao.updateProductQuantity(userId, productId, cartItem.getQuantity());
-
-            if (isUpdated) {
-                return ResponseEntity.ok("Product quantity updated successfully");
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Product not found in cart");
-            }
-
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error updating product in cart");
+        // Get the currently logged-in username
+        String userName = principal.getName();
+        // Find database user by userName
+        User user = userDao.getByUserName(userName);
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found");
         }
+        int userId = user.getId();
+
+        // Check if the product exists in the user's cart
+        boolean isUpdated = shoppingCartDao.updateProductQuantity(userId, productId, cartItem.getQuantity());
+
+        if (!isUpdated) {
+            throw new ResourceNotFoundException("Product not found in cart");
+        }
+        return ResponseEntity.ok("Product quantity updated successfully");
     }
 
     // add a DELETE method to clear all products from the current users cart
@@ -131,23 +123,18 @@ public class ShoppingCartController
     // DELETE method to clear all products from the current user's cart
     @DeleteMapping
     public ResponseEntity<String> clearCart(Principal principal) {
-        try {
-            // Get the currently logged-in username
-            String userName = principal.getName();
-            // Find database user by userName
-            User user = userDao.getByUserName(userName);
-            if (user == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-            }
-            int userId = user.getId();
-
-            // Clear the user's cart
-            shoppingCartDao.clearCart(userId);
-            return ResponseEntity.ok("All products have been removed from the cart");
-
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error clearing the cart");
+        // Get the currently logged-in username
+        String userName = principal.getName();
+        // Find database user by userName
+        User user = userDao.getByUserName(userName);
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found");
         }
+        int userId = user.getId();
+
+        // Clear the user's cart
+        shoppingCartDao.clearCart(userId);
+        return ResponseEntity.ok("All products have been removed from the cart");
     }
 
 
@@ -0,0 +1,226 @@
+package org.yearup.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UrlPathHelper;
+import org.yearup.assets.Asset;
+import org.yearup.assets.ByteRange;
+import org.yearup.assets.ImageVariants;
+import org.yearup.assets.StaticAssets;
+import org.yearup.exceptions.BadRequestException;
+import org.yearup.exceptions.ResourceNotFoundException;
+import org.yearup.exceptions.ServiceUnavailableException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Serves the frontend (index.html, css, js, templates and product images) from easyshop.assets.directory.
+ *
+ * Plain URLs are revalidated on every use (no-cache plus a strong ETag, so an unchanged file costs a 304). The
+ * content-hashed URLs listed in /assets/manifest.json, /assets/{hash}/images/..., never change and are cached for a
+ * year. Small files come from memory; bigger ones are handed to Tomcat's sendfile, or copied with
+ * FileChannel.transferTo where the connector can't do that.
+ *
+ * Images take ?w= and/or ?h= for a copy scaled down to fit, made once by {@link ImageVariants}.
+ */
+@RestController
+@CrossOrigin
+public class StaticAssetsController
+{
+    // request attributes Tomcat's NIO connector reads after the servlet returns, see its DefaultServlet
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String REVALIDATE = "no-cache";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private static final long RESIZE_TIMEOUT_SECONDS = 30;
+
+    private final StaticAssets assets;
+    private final ImageVariants imageVariants;
+    private final UrlPathHelper pathHelper = new UrlPathHelper();
+
+    @Autowired
+    public StaticAssetsController(StaticAssets assets, ImageVariants imageVariants)
+    {
+        this.assets = assets;
+        this.imageVariants = imageVariants;
+    }
+
+    @GetMapping({"/", "/index.html", "/css/**", "/js/**", "/templates/**", "/images/**"})
+    @PreAuthorize("permitAll()")
+    public void getAsset(@RequestParam(name="w", required = false) Integer width,
+                         @RequestParam(name="h", required = false) Integer height,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException
+    {
+        String path = pathHelper.getPathWithinApplication(request);
+        Asset asset = assets.find(path.equals("/") ? "/index.html" : path);
+        if (asset == null)
+            throw new ResourceNotFoundException(path + " was not found");
+
+        write(resized(asset, width, height), REVALIDATE, request, response);
+    }
+
+    @GetMapping("/assets/{hash}/**")
+    @PreAuthorize("permitAll()")
+    public void getVersionedAsset(@PathVariable String hash,
+                                  @RequestParam(name="w", required = false) Integer width,
+                                  @RequestParam(name="h", required = false) Integer height,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException
+    {
+        String path = pathHelper.getPathWithinApplication(request).substring(StaticAssets.VERSIONED_PREFIX.length() + hash.length());
+        Asset asset = assets.find(path);
+
+        // an old hash is gone for good rather than answered with content it doesn't name
+        if (asset == null || !asset.hash().equals(hash))
+            throw new ResourceNotFoundException(path + " was not found");
+
+        write(resized(asset, width, height), IMMUTABLE, request, response);
+    }
+
+    @GetMapping("/assets/manifest.json")
+    @PreAuthorize("permitAll()")
+    public Map<String, String> getManifest(HttpServletResponse response) throws IOException
+    {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+        return assets.manifest();
+    }
+
+    private Asset resized(Asset asset, Integer width, Integer height)
+    {
+        if (width == null && height == null) return asset;
+
+        int w = width == null ? 0 : width;
+        int h = height == null ? 0 : height;
+        if (!ImageVariants.isImage(asset.path()) || w < 0 || h < 0 || w > imageVariants.maximumDimension() || h > imageVariants.maximumDimension())
+            throw new BadRequestException(
+                    "w and h resize .jpg and .png images, up to " + imageVariants.maximumDimension() + " pixels");
+
+        try
+        {
+            return imageVariants.variant(asset, w, h).get(RESIZE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Stopped waiting for the resize, try again");
+        }
+        catch (TimeoutException ex)
+        {
+            throw new ServiceUnavailableException("Resizing is taking too long, try again");
+        }
+        catch (ExecutionException ex)
+        {
+            if (ex.getCause() instanceof RejectedExecutionException)
+                throw new ServiceUnavailableException("Too many images are being resized, try again");
+            if (ex.getCause() instanceof IllegalArgumentException)
+                throw new BadRequestException(ex.getCause().getMessage());
+
+            throw new IllegalStateException("Could not resize " + asset.path(), ex.getCause());
+        }
+    }
+
+    private void write(Asset asset, String cacheControl, HttpServletRequest request, HttpServletResponse response) throws IOException
+    {
+        response.setHeader(HttpHeaders.ETAG, asset.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, asset.lastModified().toMillis());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), asset))
+        {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        ByteRange range = null;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.equals(asset.etag()))
+        {
+            range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), asset.length());
+        }
+        if (range == ByteRange.UNSATISFIABLE)
+        {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + asset.length());
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (range == null)
+        {
+            range = new ByteRange(0, asset.length() - 1);
+        }
+        else
+        {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(asset.length()));
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(asset.path()).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(range.length());
+        if ("HEAD".equals(request.getMethod()) || range.length() == 0) return;
+
+        byte[] content = assets.content(asset);
+        if (content != null)
+        {
+            response.getOutputStream().write(content, (int) range.first(), (int) range.length());
+        }
+        else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED)))
+        {
+            request.setAttribute(SENDFILE_FILENAME, asset.file().toString());
+            request.setAttribute(SENDFILE_START, range.first());
+            request.setAttribute(SENDFILE_END, range.last() + 1);
+        }
+        else
+        {
+            transfer(asset, range, response);
+        }
+    }
+
+    private static void transfer(Asset asset, ByteRange range, HttpServletResponse response) throws IOException
+    {
+        try (FileChannel file = FileChannel.open(asset.file()))
+        {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.first();
+            long remaining = range.length();
+            while (remaining > 0)
+            {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) break; // the file got shorter
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // If-None-Match uses the weak comparison, so W/"hash" matches too
+    private static boolean matches(String ifNoneMatch, Asset asset)
+    {
+        if (ifNoneMatch == null) return false;
+
+        for (String tag : ifNoneMatch.split(","))
+        {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) return true;
+            if (candidate.startsWith("W/")) candidate = candidate.substring(2);
+            if (candidate.equals(asset.etag())) return true;
+        }
+        return false;
+    }
+}
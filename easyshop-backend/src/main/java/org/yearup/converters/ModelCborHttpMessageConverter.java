@@ -0,0 +1,54 @@
+package org.yearup.converters;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.yearup.cache.JsonFragments;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * application/cbor for every endpoint that writes JSON, with an ObjectMapper built like the JSON one (so ?fields=
+ * works the same). Catalog responses arrive as {@link JsonFragments}; those are written from the objects they were
+ * made from.
+ *
+ * Being a subclass, Spring Boot puts this bean where its own CBOR converter would be, after the JSON converter, so
+ * clients that accept anything still get JSON.
+ */
+@Component
+public class ModelCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter
+{
+    public ModelCborHttpMessageConverter(Jackson2ObjectMapperBuilder builder)
+    {
+        super(builder.factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType)
+    {
+        return JsonFragments.class == clazz ? canWrite(mediaType) : super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType)
+    {
+        return JsonFragments.class == clazz ? canWrite(mediaType) : super.canWrite(type, clazz, mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException
+    {
+        if (object instanceof JsonFragments fragments)
+        {
+            super.writeInternal(fragments.source(), null, outputMessage);
+            return;
+        }
+        super.writeInternal(object, type, outputMessage);
+    }
+}
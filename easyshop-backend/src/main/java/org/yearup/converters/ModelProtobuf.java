@@ -0,0 +1,125 @@
+package org.yearup.converters;
+
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.ProductBatch;
+import org.yearup.models.ProductField;
+import org.yearup.models.ShoppingCart;
+import org.yearup.models.ShoppingCartItem;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Encodes the catalog and cart models as the protobuf messages in src/main/proto/easyshop.proto, for clients that
+ * would rather not parse JSON. A list is written as the matching ProductList or CategoryList message, whose only
+ * field is the repeated element, so an empty list is an empty body.
+ *
+ * The messages are written field by field with protobuf-java's CodedOutputStream (see {@link ProtobufWriter}) against
+ * that file, which keeps protoc and generated classes out of the build; any change to the models has to be made in
+ * both places. ModelProtobufTest decodes the output with descriptors read from the file.
+ */
+public final class ModelProtobuf
+{
+    private ModelProtobuf()
+    {
+    }
+
+    public static boolean canEncode(Class<?> type)
+    {
+        return Product.class == type || Category.class == type || ShoppingCart.class == type || ShoppingCartItem.class == type
+                || ProductBatch.class == type;
+    }
+
+    /**
+     * @param fields the Product fields to write, see {@link ProductField#parse}; null for all of them
+     * @throws IllegalArgumentException for a value that has no message in easyshop.proto
+     */
+    public static byte[] encode(Object value, Set<ProductField> fields)
+    {
+        return write(value, fields).toByteArray();
+    }
+
+    private static ProtobufWriter write(Object value, Set<ProductField> fields)
+    {
+        if (value instanceof Product product) return product(product, fields);
+        if (value instanceof Category category) return category(category);
+        if (value instanceof ShoppingCart cart) return cart(cart, fields);
+        if (value instanceof ShoppingCartItem item) return item(item, fields);
+        if (value instanceof ProductBatch batch) return batch(batch, fields);
+        if (value instanceof List<?> list)
+        {
+            // ProductList.products and CategoryList.categories are both field 1
+            ProtobufWriter out = new ProtobufWriter();
+            for (Object element : list)
+            {
+                if (!(element instanceof Product) && !(element instanceof Category))
+                    throw new IllegalArgumentException("No protobuf message for a list of " + element.getClass().getSimpleName());
+                out.message(1, write(element, fields));
+            }
+            return out;
+        }
+        throw new IllegalArgumentException("No protobuf message for " + (value == null ? "null" : value.getClass().getSimpleName()));
+    }
+
+    private static ProtobufWriter product(Product product, Set<ProductField> fields)
+    {
+        ProtobufWriter out = new ProtobufWriter();
+        out.int32(1, product.getProductId());
+        if (has(fields, ProductField.NAME)) out.string(2, product.getName());
+        if (has(fields, ProductField.PRICE)) out.decimal(3, product.getPrice());
+        if (has(fields, ProductField.CATEGORY_ID)) out.int32(4, product.getCategoryId());
+        if (has(fields, ProductField.DESCRIPTION)) out.string(5, product.getDescription());
+        if (has(fields, ProductField.COLOR)) out.string(6, product.getColor());
+        if (has(fields, ProductField.STOCK)) out.int32(7, product.getStock());
+        if (has(fields, ProductField.FEATURED)) out.bool(8, product.isFeatured());
+        if (has(fields, ProductField.IMAGE_URL)) out.string(9, product.getImageUrl());
+        return out;
+    }
+
+    private static ProtobufWriter category(Category category)
+    {
+        ProtobufWriter out = new ProtobufWriter();
+        out.int32(1, category.getCategoryId());
+        out.string(2, category.getName());
+        out.string(3, category.getDescription());
+        return out;
+    }
+
+    private static ProtobufWriter item(ShoppingCartItem item, Set<ProductField> fields)
+    {
+        ProtobufWriter out = new ProtobufWriter();
+        out.message(1, product(item.getProduct(), fields));
+        out.int32(2, item.getQuantity());
+        out.decimal(3, item.getDiscountPercent());
+        out.decimal(4, item.getLineTotal());
+        return out;
+    }
+
+    private static ProtobufWriter cart(ShoppingCart cart, Set<ProductField> fields)
+    {
+        ProtobufWriter out = new ProtobufWriter();
+        for (ShoppingCartItem item : cart.getItems().values())
+        {
+            out.message(1, item(item, fields));
+        }
+        out.decimal(2, cart.getTotal());
+        return out;
+    }
+
+    private static ProtobufWriter batch(ProductBatch batch, Set<ProductField> fields)
+    {
+        ProtobufWriter out = new ProtobufWriter();
+        for (Product product : batch.getProducts())
+        {
+            out.message(1, product(product, fields));
+        }
+        out.packedInt32(2, batch.getMissing());
+        return out;
+    }
+
+    private static boolean has(Set<ProductField> fields, ProductField field)
+    {
+        return fields == null || fields.contains(field);
+    }
+}
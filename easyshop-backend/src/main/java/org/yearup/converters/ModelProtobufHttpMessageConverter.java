@@ -0,0 +1,96 @@
+package org.yearup.converters;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.yearup.cache.JsonFragments;
+import org.yearup.models.ProductField;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes products, categories and carts as protobuf ({@link ModelProtobuf}) for requests that accept
+ * application/x-protobuf. Write only; request bodies stay JSON.
+ */
+public class ModelProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object>
+{
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public ModelProtobufHttpMessageConverter()
+    {
+        super(PROTOBUF, new MediaType("application", "protobuf"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz)
+    {
+        return ModelProtobuf.canEncode(clazz) || JsonFragments.class == clazz || MappingJacksonValue.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType)
+    {
+        if (!canWrite(mediaType)) return false;
+        if (supports(clazz)) return true;
+
+        ResolvableType resolved = type == null ? ResolvableType.forClass(clazz) : ResolvableType.forType(type);
+        return List.class.isAssignableFrom(resolved.toClass()) && ModelProtobuf.canEncode(resolved.asCollection().resolveGeneric(0));
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType)
+    {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType)
+    {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+    {
+        throw new HttpMessageNotReadableException("Protobuf is only written", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+    {
+        throw new HttpMessageNotReadableException("Protobuf is only written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException
+    {
+        Object value = object instanceof JsonFragments fragments ? fragments.source() : object;
+        Set<ProductField> fields = null;
+        if (value instanceof MappingJacksonValue wrapper)
+        {
+            fields = ProductField.of(wrapper.getFilters());
+            value = wrapper.getValue();
+        }
+
+        byte[] body;
+        try
+        {
+            body = ModelProtobuf.encode(value, fields);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            throw new HttpMessageNotWritableException(ex.getMessage(), ex);
+        }
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+}
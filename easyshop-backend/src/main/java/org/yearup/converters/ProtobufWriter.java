@@ -0,0 +1,100 @@
+package org.yearup.converters;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Builds one protobuf (proto3) message with protobuf-java's {@link CodedOutputStream}, field by field, for messages
+ * that have no generated class. Fields holding their default value are left out, as proto3 does.
+ */
+final class ProtobufWriter
+{
+    private final ByteString.Output buffer = ByteString.newOutput(64);
+    private final CodedOutputStream out = CodedOutputStream.newInstance(buffer, 256);
+
+    void int32(int field, int value)
+    {
+        if (value == 0) return;
+
+        write(out -> out.writeInt32(field, value));
+    }
+
+    void bool(int field, boolean value)
+    {
+        if (!value) return;
+
+        write(out -> out.writeBool(field, true));
+    }
+
+    void string(int field, String value)
+    {
+        if (value == null || value.isEmpty()) return;
+
+        write(out -> out.writeString(field, value));
+    }
+
+    // decimals go out as strings ("499.99") so no precision is lost
+    void decimal(int field, BigDecimal value)
+    {
+        if (value == null) return;
+
+        string(field, value.toPlainString());
+    }
+
+    void packedInt32(int field, List<Integer> values)
+    {
+        if (values.isEmpty()) return;
+
+        int size = values.stream().mapToInt(CodedOutputStream::computeInt32SizeNoTag).sum();
+        write(out ->
+        {
+            out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            out.writeUInt32NoTag(size);
+            for (int value : values)
+            {
+                out.writeInt32NoTag(value);
+            }
+        });
+    }
+
+    // unlike the scalars a message is written even when empty, so a repeated field keeps its element count
+    void message(int field, ProtobufWriter message)
+    {
+        write(out -> out.writeBytes(field, message.toByteString()));
+    }
+
+    byte[] toByteArray()
+    {
+        return toByteString().toByteArray();
+    }
+
+    private ByteString toByteString()
+    {
+        write(CodedOutputStream::flush);
+        return buffer.toByteString();
+    }
+
+    // the stream writes to memory, so an IOException here would be a bug
+    private void write(Field field)
+    {
+        try
+        {
+            field.writeTo(out);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Field
+    {
+        void writeTo(CodedOutputStream out) throws IOException;
+    }
+}
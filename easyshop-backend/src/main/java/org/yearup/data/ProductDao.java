@@ -1,16 +1,42 @@
 package org.yearup.data;
 
 import org.yearup.models.Product;
+import org.yearup.models.ProductBulkResult;
+import org.yearup.models.ProductBulkUpdate;
+import org.yearup.models.ProductField;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface ProductDao
 {
     List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String color);
     List<Product> listByCategoryId(int categoryId);
     Product getById(int productId);
+    // the products with these ids in one round trip, in no particular order; ids with no product are left out
+    List<Product> getByIds(Collection<Integer> productIds, Set<ProductField> fields);
     Product create(Product product);
     void update(int productId, Product product);
     void delete(int productId);
+    // applies the change to every product matching its filter, chunkSize product ids at a time
+    ProductBulkResult updateAll(ProductBulkUpdate update, int chunkSize);
+
+    // Narrowed reads for ?fields=. An implementation may load only those fields (null loads all of them) and leave
+    // the rest null/0; by default everything is loaded and the JSON output does the narrowing.
+    default List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String color, Set<ProductField> fields)
+    {
+        return search(categoryId, minPrice, maxPrice, color);
+    }
+
+    default List<Product> listByCategoryId(int categoryId, Set<ProductField> fields)
+    {
+        return listByCategoryId(categoryId);
+    }
+
+    default Product getById(int productId, Set<ProductField> fields)
+    {
+        return getById(productId);
+    }
 }
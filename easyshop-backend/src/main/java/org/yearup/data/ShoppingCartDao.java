@@ -1,8 +1,11 @@
 package org.yearup.data;
 
 import org.yearup.models.Product;
+import org.yearup.models.ProductField;
 import org.yearup.models.ShoppingCart;
 
+import java.util.Set;
+
 public interface ShoppingCartDao
 {
     ShoppingCart getByUserId(int userId);
@@ -10,4 +13,10 @@ public interface ShoppingCartDao
     Product addProductById(int userId, int productId);
     boolean updateProductQuantity(int userId, int productId, int newQuantity);
     public void clearCart(int userId);
+
+    // a cart whose products may only have the given fields loaded (price is always needed for the totals)
+    default ShoppingCart getByUserId(int userId, Set<ProductField> fields)
+    {
+        return getByUserId(userId);
+    }
 }
@@ -3,6 +3,7 @@ package org.yearup.data;
 import org.yearup.models.User;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 public interface UserDao {
 
@@ -17,4 +18,9 @@ public interface UserDao {
     User create(User user);
 
     boolean exists(String username);
+
+    // every username, for KnownUsernames; an implementation can read just that column
+    default List<String> getUsernames() {
+        return getAll().stream().map(User::getUsername).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,160 @@
+package org.yearup.data.embedded;
+
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+import org.yearup.models.User;
+
+/**
+ * Record layouts for the embedded tables. String widths are in bytes of UTF-8 and follow the MySQL column sizes;
+ * TEXT columns are capped at 1 KB. Values that do not fit are rejected rather than truncated.
+ */
+final class Codecs
+{
+    private Codecs()
+    {
+    }
+
+    static final RecordCodec<Product> PRODUCTS = new RecordCodec<>()
+    {
+        @Override
+        public int size()
+        {
+            return Integer.BYTES * 3 + Long.BYTES + 1 + Record.stringSize(100) + Record.stringSize(1024)
+                    + Record.stringSize(20) + Record.stringSize(200);
+        }
+
+        @Override
+        public void write(Product product, Record record)
+        {
+            record.putInt(product.getProductId());
+            record.putString(product.getName(), 100);
+            record.putDecimal(product.getPrice(), 2);
+            record.putInt(product.getCategoryId());
+            record.putString(product.getDescription(), 1024);
+            record.putString(product.getColor(), 20);
+            record.putInt(product.getStock());
+            record.putBoolean(product.isFeatured());
+            record.putString(product.getImageUrl(), 200);
+        }
+
+        @Override
+        public Product read(Record record)
+        {
+            return new Product(record.getInt(), record.getString(100), record.getDecimal(2), record.getInt(),
+                    record.getString(1024), record.getString(20), record.getInt(), record.getBoolean(), record.getString(200));
+        }
+    };
+
+    static final RecordCodec<Category> CATEGORIES = new RecordCodec<>()
+    {
+        @Override
+        public int size()
+        {
+            return Integer.BYTES + Record.stringSize(100) + Record.stringSize(1024);
+        }
+
+        @Override
+        public void write(Category category, Record record)
+        {
+            record.putInt(category.getCategoryId());
+            record.putString(category.getName(), 100);
+            record.putString(category.getDescription(), 1024);
+        }
+
+        @Override
+        public Category read(Record record)
+        {
+            return new Category(record.getInt(), record.getString(100), record.getString(1024));
+        }
+    };
+
+    static final RecordCodec<User> USERS = new RecordCodec<>()
+    {
+        @Override
+        public int size()
+        {
+            return Integer.BYTES + Record.stringSize(50) + Record.stringSize(255) + Record.stringSize(50);
+        }
+
+        @Override
+        public void write(User user, Record record)
+        {
+            record.putInt(user.getId());
+            record.putString(user.getUsername(), 50);
+            record.putString(user.getPassword(), 255);
+            record.putString(user.getRole(), 50);
+        }
+
+        @Override
+        public User read(Record record)
+        {
+            return new User(record.getInt(), record.getString(50), record.getString(255), record.getString(50));
+        }
+    };
+
+    static final RecordCodec<Profile> PROFILES = new RecordCodec<>()
+    {
+        @Override
+        public int size()
+        {
+            return Integer.BYTES + Record.stringSize(50) * 2 + Record.stringSize(20) + Record.stringSize(200) * 2
+                    + Record.stringSize(50) * 2 + Record.stringSize(20);
+        }
+
+        @Override
+        public void write(Profile profile, Record record)
+        {
+            record.putInt(profile.getUserId());
+            record.putString(profile.getFirstName(), 50);
+            record.putString(profile.getLastName(), 50);
+            record.putString(profile.getPhone(), 20);
+            record.putString(profile.getEmail(), 200);
+            record.putString(profile.getAddress(), 200);
+            record.putString(profile.getCity(), 50);
+            record.putString(profile.getState(), 50);
+            record.putString(profile.getZip(), 20);
+        }
+
+        @Override
+        public Profile read(Record record)
+        {
+            return new Profile(record.getInt(), record.getString(50), record.getString(50), record.getString(20),
+                    record.getString(200), record.getString(200), record.getString(50), record.getString(50), record.getString(20));
+        }
+    };
+
+    static final RecordCodec<CartRow> CART_ITEMS = new RecordCodec<>()
+    {
+        @Override
+        public int size()
+        {
+            return Integer.BYTES * 3;
+        }
+
+        @Override
+        public void write(CartRow row, Record record)
+        {
+            record.putInt(row.userId());
+            record.putInt(row.productId());
+            record.putInt(row.quantity());
+        }
+
+        @Override
+        public CartRow read(Record record)
+        {
+            return new CartRow(record.getInt(), record.getInt(), record.getInt());
+        }
+    };
+
+    /**
+     * A shopping_cart row.
+     */
+    record CartRow(int userId, int productId, int quantity)
+    {
+        long key()
+        {
+            return ((long) userId << 32) | (productId & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.yearup.data.embedded;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.CategoryDao;
+import org.yearup.models.Category;
+
+import java.util.List;
+
+@Component
+@Profile("embedded")
+public class EmbeddedCategoryDao implements CategoryDao
+{
+    private final EmbeddedStore store;
+
+    public EmbeddedCategoryDao(EmbeddedStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    public List<Category> getAllCategories()
+    {
+        return store.categories.scan(category -> true);
+    }
+
+    @Override
+    public Category getById(int categoryId)
+    {
+        return store.categories.get(categoryId);
+    }
+
+    @Override
+    public Category create(Category category)
+    {
+        return store.categories.insertWithNextKey(id -> new Category(id, category.getName(), category.getDescription()));
+    }
+
+    @Override
+    public void update(int categoryId, Category category)
+    {
+        store.categories.update(new Category(categoryId, category.getName(), category.getDescription()));
+    }
+
+    @Override
+    public void delete(int categoryId)
+    {
+        store.categories.delete(categoryId);
+    }
+}
@@ -0,0 +1,112 @@
+package org.yearup.data.embedded;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.ProductDao;
+import org.yearup.models.Product;
+import org.yearup.models.ProductBulkResult;
+import org.yearup.models.ProductBulkUpdate;
+import org.yearup.models.ProductField;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+@Component
+@Profile("embedded")
+public class EmbeddedProductDao implements ProductDao
+{
+    private final EmbeddedStore store;
+
+    public EmbeddedProductDao(EmbeddedStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    public List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String color)
+    {
+        // same filters as MySqlProductDao.search; the most selective index narrows the rows, the rest filter them
+        Predicate<Product> filter = product ->
+                (categoryId == null || product.getCategoryId() == categoryId)
+                && (minPrice == null || product.getPrice().compareTo(minPrice) >= 0)
+                && (maxPrice == null || product.getPrice().compareTo(maxPrice) <= 0)
+                && (color == null || color.isEmpty() || color.equalsIgnoreCase(product.getColor()));
+
+        if (categoryId != null)
+        {
+            return store.products.where(store.productsByCategory, categoryId, filter);
+        }
+        if (color != null && !color.isEmpty())
+        {
+            return store.products.where(store.productsByColor, EmbeddedStore.lowerCase(color), filter);
+        }
+        if (minPrice != null || maxPrice != null)
+        {
+            return store.products.between(store.productsByPrice, minPrice, maxPrice, filter);
+        }
+        return store.products.scan(filter);
+    }
+
+    @Override
+    public List<Product> listByCategoryId(int categoryId)
+    {
+        return store.products.where(store.productsByCategory, categoryId, product -> true);
+    }
+
+    @Override
+    public Product getById(int productId)
+    {
+        return store.products.get(productId);
+    }
+
+    @Override
+    public List<Product> getByIds(Collection<Integer> productIds, Set<ProductField> fields)
+    {
+        // lookups by key are an in-memory index probe each, so there is nothing to batch
+        List<Product> products = new ArrayList<>(productIds.size());
+        for (int productId : productIds)
+        {
+            Product product = store.products.get(productId);
+            if (product != null) products.add(product);
+        }
+        return products;
+    }
+
+    @Override
+    public Product create(Product product)
+    {
+        return store.products.insertWithNextKey(id -> new Product(id, product.getName(), product.getPrice(),
+                product.getCategoryId(), product.getDescription(), product.getColor(), product.getStock(),
+                product.isFeatured(), product.getImageUrl()));
+    }
+
+    @Override
+    public void update(int productId, Product product)
+    {
+        store.products.update(new Product(productId, product.getName(), product.getPrice(), product.getCategoryId(),
+                product.getDescription(), product.getColor(), product.getStock(), product.isFeatured(), product.getImageUrl()));
+    }
+
+    @Override
+    public ProductBulkResult updateAll(ProductBulkUpdate update, int chunkSize)
+    {
+        // each row is changed under the table lock on its own, so there is no long lock to break into chunks; the
+        // change is applied to the row as it is then, so a concurrent stock update isn't lost
+        int updated = 0;
+        for (Product product : search(update.getCategoryId(), update.getMinPrice(), update.getMaxPrice(), update.getColor()))
+        {
+            if (store.products.update(product.getProductId(), update::applyTo)) updated++;
+        }
+        return new ProductBulkResult(updated, updated == 0 ? 0 : 1);
+    }
+
+    @Override
+    public void delete(int productId)
+    {
+        store.products.delete(productId);
+    }
+}
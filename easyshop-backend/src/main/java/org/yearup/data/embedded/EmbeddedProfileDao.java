@@ -0,0 +1,34 @@
+package org.yearup.data.embedded;
+
+import org.springframework.stereotype.Component;
+import org.yearup.data.ProfileDao;
+import org.yearup.models.Profile;
+import org.yearup.exceptions.DaoException;
+
+@Component
+@org.springframework.context.annotation.Profile("embedded")
+public class EmbeddedProfileDao implements ProfileDao
+{
+    private final EmbeddedStore store;
+
+    public EmbeddedProfileDao(EmbeddedStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    public Profile create(Profile profile)
+    {
+        if (!store.profiles.insert(profile))
+        {
+            throw new DaoException("A profile for user " + profile.getUserId() + " already exists.");
+        }
+        return profile;
+    }
+
+    @Override
+    public Profile get(int userId)
+    {
+        return store.profiles.get(userId);
+    }
+}
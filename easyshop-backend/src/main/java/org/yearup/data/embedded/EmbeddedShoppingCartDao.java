@@ -0,0 +1,70 @@
+package org.yearup.data.embedded;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.ShoppingCartDao;
+import org.yearup.data.embedded.Codecs.CartRow;
+import org.yearup.models.Product;
+import org.yearup.models.ShoppingCart;
+import org.yearup.models.ShoppingCartItem;
+
+import java.util.List;
+
+@Component
+@Profile("embedded")
+public class EmbeddedShoppingCartDao implements ShoppingCartDao
+{
+    private final EmbeddedStore store;
+
+    public EmbeddedShoppingCartDao(EmbeddedStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    public ShoppingCart getByUserId(int userId)
+    {
+        ShoppingCart shoppingCart = new ShoppingCart();
+        for (CartRow row : rows(userId))
+        {
+            // an inner join, like the MySQL query: items whose product is gone are left out
+            Product product = store.products.get(row.productId());
+            if (product != null)
+            {
+                ShoppingCartItem item = new ShoppingCartItem();
+                item.setProduct(product);
+                item.setQuantity(row.quantity());
+                shoppingCart.add(item);
+            }
+        }
+        return shoppingCart;
+    }
+
+    @Override
+    public Product addProductById(int userId, int productId)
+    {
+        store.cartItems.merge(new CartRow(userId, productId, 1),
+                existing -> new CartRow(userId, productId, existing.quantity() + 1));
+        return null;
+    }
+
+    @Override
+    public boolean updateProductQuantity(int userId, int productId, int newQuantity)
+    {
+        return store.cartItems.update(new CartRow(userId, productId, newQuantity));
+    }
+
+    @Override
+    public void clearCart(int userId)
+    {
+        for (CartRow row : rows(userId))
+        {
+            store.cartItems.delete(row.key());
+        }
+    }
+
+    private List<CartRow> rows(int userId)
+    {
+        return store.cartItems.where(store.cartItemsByUser, userId, row -> true);
+    }
+}
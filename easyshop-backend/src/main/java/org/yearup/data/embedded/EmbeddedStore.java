@@ -0,0 +1,134 @@
+package org.yearup.data.embedded;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.yearup.data.embedded.Codecs.CartRow;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+import org.yearup.models.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The tables behind the embedded DAOs: one memory-mapped record file per table in easyshop.embedded.directory,
+ * with the indexes the DAO lookups need.
+ *
+ * When the store is empty it is seeded from the INSERT statements of easyshop.embedded.seed-script (by default
+ * the same create_database.sql used for MySQL), if that file exists.
+ */
+@Component
+@org.springframework.context.annotation.Profile("embedded")
+public class EmbeddedStore implements DisposableBean
+{
+    final Table<Product> products;
+    final TableIndex<Product, Integer> productsByCategory;
+    final TableIndex<Product, BigDecimal> productsByPrice;
+    final TableIndex<Product, String> productsByColor;
+
+    final Table<Category> categories;
+
+    final Table<User> users;
+    final TableIndex<User, String> usersByUsername;
+
+    final Table<Profile> profiles;
+
+    final Table<CartRow> cartItems;
+    final TableIndex<CartRow, Integer> cartItemsByUser;
+
+    public EmbeddedStore(@Value("${easyshop.embedded.directory:data}") Path directory,
+                         @Value("${easyshop.embedded.seed-script:database/create_database.sql}") Path seedScript) throws IOException
+    {
+        Files.createDirectories(directory);
+
+        products = new Table<>(new RecordFile(directory.resolve("products.dat"), Codecs.PRODUCTS.size()), Codecs.PRODUCTS, Product::getProductId);
+        productsByCategory = products.index(TableIndex.sorted(Product::getCategoryId));
+        productsByPrice = products.index(TableIndex.sorted(Product::getPrice));
+        productsByColor = products.index(TableIndex.hash(product -> lowerCase(product.getColor())));
+
+        categories = new Table<>(new RecordFile(directory.resolve("categories.dat"), Codecs.CATEGORIES.size()), Codecs.CATEGORIES, Category::getCategoryId);
+
+        users = new Table<>(new RecordFile(directory.resolve("users.dat"), Codecs.USERS.size()), Codecs.USERS, User::getId);
+        usersByUsername = users.index(TableIndex.hash(user -> lowerCase(user.getUsername())));
+
+        profiles = new Table<>(new RecordFile(directory.resolve("profiles.dat"), Codecs.PROFILES.size()), Codecs.PROFILES,
+                Profile::getUserId);
+
+        cartItems = new Table<>(new RecordFile(directory.resolve("shopping_cart.dat"), Codecs.CART_ITEMS.size()), Codecs.CART_ITEMS, CartRow::key);
+        cartItemsByUser = cartItems.index(TableIndex.hash(CartRow::userId));
+
+        if (seedScript != null && Files.isRegularFile(seedScript) && users.size() == 0 && products.size() == 0)
+        {
+            seed(SeedScript.parse(Files.readString(seedScript)));
+        }
+    }
+
+    /**
+     * MySQL compares strings case-insensitively, so lookups on text columns go through lower-cased keys.
+     */
+    static String lowerCase(String value)
+    {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    public void flush()
+    {
+        products.flush();
+        categories.flush();
+        users.flush();
+        profiles.flush();
+        cartItems.flush();
+    }
+
+    @Override
+    public void destroy() throws IOException
+    {
+        products.close();
+        categories.close();
+        users.close();
+        profiles.close();
+        cartItems.close();
+    }
+
+    private void seed(List<SeedScript.Insert> inserts)
+    {
+        for (SeedScript.Insert insert : inserts)
+        {
+            for (List<Object> row : insert.rows())
+            {
+                switch (insert.table())
+                {
+                    case "users" -> users.insertWithNextKey(id -> new User(id, (String) insert.value(row, "username"),
+                            (String) insert.value(row, "hashed_password"), (String) insert.value(row, "role")));
+                    case "profiles" -> profiles.insert(new Profile(number(insert.value(row, "user_id")).intValue(),
+                            (String) insert.value(row, "first_name"), (String) insert.value(row, "last_name"),
+                            (String) insert.value(row, "phone"), (String) insert.value(row, "email"),
+                            (String) insert.value(row, "address"), (String) insert.value(row, "city"),
+                            (String) insert.value(row, "state"), (String) insert.value(row, "zip")));
+                    case "categories" -> categories.insertWithNextKey(id -> new Category(id, (String) insert.value(row, "name"),
+                            (String) insert.value(row, "description")));
+                    case "products" -> products.insertWithNextKey(id -> new Product(id, (String) insert.value(row, "name"),
+                            new BigDecimal(insert.value(row, "price").toString()), number(insert.value(row, "category_id")).intValue(),
+                            (String) insert.value(row, "description"), (String) insert.value(row, "color"),
+                            number(insert.value(row, "stock")).intValue(), number(insert.value(row, "featured")).intValue() != 0,
+                            (String) insert.value(row, "image_url")));
+                    case "shopping_cart" -> cartItems.insert(new CartRow(number(insert.value(row, "user_id")).intValue(),
+                            number(insert.value(row, "product_id")).intValue(), number(insert.value(row, "quantity")).intValue()));
+                    default -> { }
+                }
+            }
+        }
+        flush();
+    }
+
+    private static Number number(Object value)
+    {
+        return value == null ? 0 : (Number) value;
+    }
+}
@@ -0,0 +1,71 @@
+package org.yearup.data.embedded;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.yearup.data.UserDao;
+import org.yearup.exceptions.DaoException;
+import org.yearup.models.User;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+
+@Component
+@Profile("embedded")
+public class EmbeddedUserDao implements UserDao
+{
+    private final EmbeddedStore store;
+
+    public EmbeddedUserDao(EmbeddedStore store)
+    {
+        this.store = store;
+    }
+
+    @Override
+    public List<User> getAll()
+    {
+        return store.users.scan(user -> true);
+    }
+
+    @Override
+    public User getUserById(int userId)
+    {
+        return store.users.get(userId);
+    }
+
+    @Override
+    public User getByUserName(String username)
+    {
+        List<User> users = store.users.where(store.usersByUsername, EmbeddedStore.lowerCase(username), user -> true);
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    @Override
+    public int getIdByUsername(String username)
+    {
+        User user = getByUserName(username);
+        return user == null ? -1 : user.getId();
+    }
+
+    @Override
+    public User create(User newUser)
+    {
+        String hashedPassword = new BCryptPasswordEncoder().encode(newUser.getPassword());
+        User user = store.users.insertWithNextKey(store.usersByUsername, EmbeddedStore.lowerCase(newUser.getUsername()),
+                id -> new User(id, newUser.getUsername(), hashedPassword, newUser.getRole()));
+        if (user == null)
+        {
+            // what MySQL's ux_users_username reports, so callers handle both stores the same way
+            throw new DaoException(new SQLIntegrityConstraintViolationException(
+                    "Duplicate entry '" + newUser.getUsername() + "' for key 'users.ux_users_username'", "23000", 1062));
+        }
+        user.setPassword("");
+        return user;
+    }
+
+    @Override
+    public boolean exists(String username)
+    {
+        return getByUserName(username) != null;
+    }
+}
@@ -0,0 +1,101 @@
+package org.yearup.data.embedded;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A cursor over one fixed-width record in a {@link RecordFile}. Fields are written and read back in the same order.
+ *
+ * Strings take a two byte length (-1 for null) followed by a fixed number of bytes of UTF-8, so every record of a
+ * table has the same size no matter what it holds.
+ */
+final class Record
+{
+    private final ByteBuffer buffer;
+    private int position;
+
+    Record(ByteBuffer buffer, int offset)
+    {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    static int stringSize(int maximumBytes)
+    {
+        return Short.BYTES + maximumBytes;
+    }
+
+    void putInt(int value)
+    {
+        buffer.putInt(position, value);
+        position += Integer.BYTES;
+    }
+
+    int getInt()
+    {
+        int value = buffer.getInt(position);
+        position += Integer.BYTES;
+        return value;
+    }
+
+    void putBoolean(boolean value)
+    {
+        buffer.put(position++, (byte) (value ? 1 : 0));
+    }
+
+    boolean getBoolean()
+    {
+        return buffer.get(position++) != 0;
+    }
+
+    /**
+     * Stores a decimal as a long with a fixed scale, the way a DECIMAL(n, scale) column would.
+     */
+    void putDecimal(BigDecimal value, int scale)
+    {
+        buffer.putLong(position, value == null ? Long.MIN_VALUE : value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        position += Long.BYTES;
+    }
+
+    BigDecimal getDecimal(int scale)
+    {
+        long value = buffer.getLong(position);
+        position += Long.BYTES;
+        return value == Long.MIN_VALUE ? null : BigDecimal.valueOf(value, scale);
+    }
+
+    void putString(String value, int maximumBytes)
+    {
+        if (value == null)
+        {
+            buffer.putShort(position, (short) -1);
+        }
+        else
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > maximumBytes)
+            {
+                throw new IllegalArgumentException("Value is longer than " + maximumBytes + " bytes: " + value);
+            }
+            buffer.putShort(position, (short) bytes.length);
+            buffer.put(position + Short.BYTES, bytes);
+        }
+        position += stringSize(maximumBytes);
+    }
+
+    String getString(int maximumBytes)
+    {
+        short length = buffer.getShort(position);
+        String value = null;
+        if (length >= 0)
+        {
+            byte[] bytes = new byte[length];
+            buffer.get(position + Short.BYTES, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        position += stringSize(maximumBytes);
+        return value;
+    }
+}
@@ -0,0 +1,16 @@
+package org.yearup.data.embedded;
+
+/**
+ * Lays a row out as a fixed-width {@link Record}.
+ */
+interface RecordCodec<T>
+{
+    /**
+     * @return the number of bytes every record of this type takes
+     */
+    int size();
+
+    void write(T row, Record record);
+
+    T read(Record record);
+}
@@ -0,0 +1,147 @@
+package org.yearup.data.embedded;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A file of fixed-width records, memory-mapped so reads and writes are plain memory accesses.
+ *
+ * The file starts with a 16 byte header (magic, record size, slots in use, auto-increment counter), followed by
+ * the record slots. Each slot begins with a status byte; deleted slots are reused by later inserts. The mapping
+ * doubles whenever the slots run out.
+ *
+ * Not thread safe; {@link Table} guards it with a read/write lock.
+ */
+final class RecordFile implements Closeable
+{
+    private static final int MAGIC = 0x45534844;
+    private static final int HEADER_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final byte FREE = 0;
+    private static final byte LIVE = 1;
+
+    private final FileChannel channel;
+    private final int slotSize;
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int slots;
+
+    RecordFile(Path path, int recordSize) throws IOException
+    {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.slotSize = recordSize + 1;
+
+        if (channel.size() == 0)
+        {
+            capacity = INITIAL_CAPACITY;
+            map();
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, slotSize);
+            buffer.putInt(8, 0);
+            buffer.putInt(12, 0);
+        }
+        else
+        {
+            capacity = (int) ((channel.size() - HEADER_SIZE) / slotSize);
+            map();
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != slotSize)
+            {
+                throw new IOException(path + " was written with a different record layout");
+            }
+            slots = buffer.getInt(8);
+            for (int slot = 0; slot < slots; slot++)
+            {
+                if (!isLive(slot)) freeSlots.push(slot);
+            }
+        }
+    }
+
+    /**
+     * @return the number of slots ever used, live or deleted
+     */
+    int slots()
+    {
+        return slots;
+    }
+
+    boolean isLive(int slot)
+    {
+        return buffer.get(offset(slot)) == LIVE;
+    }
+
+    /**
+     * @return a slot for a new record, reusing a deleted one when there is one
+     */
+    int allocate() throws IOException
+    {
+        if (!freeSlots.isEmpty())
+        {
+            return freeSlots.pop();
+        }
+        if (slots == capacity)
+        {
+            capacity *= 2;
+            map();
+        }
+        buffer.putInt(8, ++slots);
+        return slots - 1;
+    }
+
+    void write(int slot, ByteBuffer record)
+    {
+        buffer.put(offset(slot), LIVE);
+        buffer.put(offset(slot) + 1, record, 0, record.capacity());
+    }
+
+    Record read(int slot)
+    {
+        return new Record(buffer, offset(slot) + 1);
+    }
+
+    void free(int slot)
+    {
+        buffer.put(offset(slot), FREE);
+        freeSlots.push(slot);
+    }
+
+    int getCounter()
+    {
+        return buffer.getInt(12);
+    }
+
+    void setCounter(int value)
+    {
+        buffer.putInt(12, value);
+    }
+
+    void force()
+    {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        force();
+        channel.close();
+    }
+
+    private int offset(int slot)
+    {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    private void map() throws IOException
+    {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * slotSize);
+    }
+}
@@ -0,0 +1,230 @@
+package org.yearup.data.embedded;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the INSERT statements out of a MySQL script such as database/create_database.sql, so the embedded store
+ * can start with the same data as a freshly created database. Everything other than INSERT ... VALUES is ignored.
+ */
+final class SeedScript
+{
+    record Insert(String table, List<String> columns, List<List<Object>> rows)
+    {
+        Object value(List<Object> row, String column)
+        {
+            int index = columns.indexOf(column);
+            return index < 0 ? null : row.get(index);
+        }
+    }
+
+    private final String sql;
+    private int position;
+
+    private SeedScript(String sql)
+    {
+        this.sql = sql;
+    }
+
+    static List<Insert> parse(String script)
+    {
+        List<Insert> inserts = new ArrayList<>();
+        for (String statement : statements(script))
+        {
+            SeedScript parser = new SeedScript(statement);
+            if (parser.keyword("insert") && parser.keyword("into"))
+            {
+                inserts.add(parser.insert());
+            }
+        }
+        return inserts;
+    }
+
+    // splits on semicolons outside of string literals and drops --, # and /* */ comments
+    private static List<String> statements(String script)
+    {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int i = 0;
+        while (i < script.length())
+        {
+            char c = script.charAt(i);
+            if (c == '\'')
+            {
+                int end = i + 1;
+                while (end < script.length())
+                {
+                    if (script.charAt(end) == '\\') end++;
+                    else if (script.charAt(end) == '\'')
+                    {
+                        if (end + 1 < script.length() && script.charAt(end + 1) == '\'') end++;
+                        else break;
+                    }
+                    end++;
+                }
+                current.append(script, i, Math.min(end + 1, script.length()));
+                i = end + 1;
+            }
+            else if (script.startsWith("--", i) || c == '#')
+            {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? script.length() : end;
+            }
+            else if (script.startsWith("/*", i))
+            {
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? script.length() : end + 2;
+            }
+            else if (c == ';')
+            {
+                statements.add(current.toString());
+                current.setLength(0);
+                i++;
+            }
+            else
+            {
+                current.append(c);
+                i++;
+            }
+        }
+        if (!current.toString().isBlank())
+        {
+            statements.add(current.toString());
+        }
+        return statements;
+    }
+
+    private Insert insert()
+    {
+        String table = identifier();
+        List<String> columns = new ArrayList<>();
+        expect('(');
+        do
+        {
+            columns.add(identifier());
+        }
+        while (accept(','));
+        expect(')');
+
+        if (!keyword("values"))
+        {
+            throw new IllegalArgumentException("Only INSERT ... VALUES is supported: " + sql.strip());
+        }
+
+        List<List<Object>> rows = new ArrayList<>();
+        do
+        {
+            List<Object> row = new ArrayList<>();
+            expect('(');
+            do
+            {
+                row.add(value());
+            }
+            while (accept(','));
+            expect(')');
+            rows.add(row);
+        }
+        while (accept(','));
+
+        return new Insert(table, columns, rows);
+    }
+
+    private Object value()
+    {
+        skipWhitespace();
+        if (sql.charAt(position) == '\'')
+        {
+            StringBuilder value = new StringBuilder();
+            position++;
+            while (true)
+            {
+                char c = sql.charAt(position++);
+                if (c == '\\')
+                {
+                    value.append(sql.charAt(position++));
+                }
+                else if (c == '\'')
+                {
+                    if (position < sql.length() && sql.charAt(position) == '\'')
+                    {
+                        value.append('\'');
+                        position++;
+                    }
+                    else
+                    {
+                        return value.toString();
+                    }
+                }
+                else
+                {
+                    value.append(c);
+                }
+            }
+        }
+
+        int start = position;
+        while (position < sql.length() && ",)".indexOf(sql.charAt(position)) < 0 && !Character.isWhitespace(sql.charAt(position)))
+        {
+            position++;
+        }
+        String literal = sql.substring(start, position);
+        return switch (literal.toLowerCase(Locale.ROOT))
+        {
+            case "null" -> null;
+            case "true" -> 1;
+            case "false" -> 0;
+            default -> literal.contains(".") ? new BigDecimal(literal) : (Object) Integer.valueOf(literal);
+        };
+    }
+
+    private String identifier()
+    {
+        skipWhitespace();
+        int start = position;
+        while (position < sql.length() && (Character.isLetterOrDigit(sql.charAt(position)) || sql.charAt(position) == '_' || sql.charAt(position) == '`'))
+        {
+            position++;
+        }
+        return sql.substring(start, position).replace("`", "").toLowerCase(Locale.ROOT);
+    }
+
+    private boolean keyword(String keyword)
+    {
+        skipWhitespace();
+        if (sql.regionMatches(true, position, keyword, 0, keyword.length()))
+        {
+            position += keyword.length();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean accept(char c)
+    {
+        skipWhitespace();
+        if (position < sql.length() && sql.charAt(position) == c)
+        {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c)
+    {
+        if (!accept(c))
+        {
+            throw new IllegalArgumentException("Expected '" + c + "' at " + position + " in: " + sql.strip());
+        }
+    }
+
+    private void skipWhitespace()
+    {
+        while (position < sql.length() && Character.isWhitespace(sql.charAt(position)))
+        {
+            position++;
+        }
+    }
+}
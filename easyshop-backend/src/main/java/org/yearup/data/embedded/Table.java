@@ -0,0 +1,388 @@
+package org.yearup.data.embedded;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rows of one type stored in a {@link RecordFile}, with a hash index on the primary key and any number of
+ * {@link TableIndex secondary indexes}. Indexes live in memory and are rebuilt from the file when it is opened.
+ *
+ * Rows are decoded from the mapped file on every read, so callers always get their own copies. Results come back
+ * in primary key order, like an InnoDB table read without an ORDER BY.
+ */
+final class Table<T> implements Closeable
+{
+    private final RecordFile file;
+    private final RecordCodec<T> codec;
+    private final ToLongFunction<T> primaryKey;
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final List<TableIndex<T, ?>> indexes = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    Table(RecordFile file, RecordCodec<T> codec, ToLongFunction<T> primaryKey)
+    {
+        this.file = file;
+        this.codec = codec;
+        this.primaryKey = primaryKey;
+
+        for (int slot = 0; slot < file.slots(); slot++)
+        {
+            if (file.isLive(slot))
+            {
+                slots.put(primaryKey.applyAsLong(codec.read(file.read(slot))), slot);
+            }
+        }
+    }
+
+    <K> TableIndex<T, K> index(TableIndex<T, K> index)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            slots.forEach((key, slot) -> index.add(codec.read(file.read(slot)), key));
+            indexes.add(index);
+            return index;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return slots.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    T get(long key)
+    {
+        lock.readLock().lock();
+        try
+        {
+            Integer slot = slots.get(key);
+            return slot == null ? null : codec.read(file.read(slot));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<T> scan(Predicate<T> filter)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return read(new TreeSet<>(slots.keySet()), filter);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    <K> List<T> where(TableIndex<T, K> index, K value, Predicate<T> filter)
+    {
+        lock.readLock().lock();
+        try
+        {
+            TreeSet<Long> keys = new TreeSet<>();
+            index.get(value, keys);
+            return read(keys, filter);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    <K> List<T> between(TableIndex<T, K> index, K from, K to, Predicate<T> filter)
+    {
+        lock.readLock().lock();
+        try
+        {
+            TreeSet<Long> keys = new TreeSet<>();
+            index.range(from, to, keys);
+            return read(keys, filter);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a row built around the next value of the table's auto-increment counter.
+     */
+    T insertWithNextKey(IntFunction<T> row)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            int key = file.getCounter() + 1;
+            T inserted = row.apply(key);
+            write(inserted);
+            return inserted;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts a row built around the next key, unless another row already has the value in the given index - the
+     * check and the insert happen under one lock, like a unique key.
+     *
+     * @return null when the value is taken
+     */
+    <K> T insertWithNextKey(TableIndex<T, K> unique, K value, IntFunction<T> row)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            List<Long> taken = new ArrayList<>();
+            unique.get(value, taken);
+            if (!taken.isEmpty())
+            {
+                return null;
+            }
+            return insertWithNextKey(row);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false when a row with the same primary key already exists
+     */
+    boolean insert(T row)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            if (slots.containsKey(primaryKey.applyAsLong(row)))
+            {
+                return false;
+            }
+            write(row);
+            return true;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false when there is no row with the row's primary key
+     */
+    boolean update(T row)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            Integer slot = slots.get(primaryKey.applyAsLong(row));
+            if (slot == null)
+            {
+                return false;
+            }
+            replace(slot, row);
+            return true;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the row with the key by what the function makes of it, atomically, like UPDATE ... SET x = x + 1.
+     *
+     * @return false when there is no row with the key
+     */
+    boolean update(long key, UnaryOperator<T> change)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            Integer slot = slots.get(key);
+            if (slot == null)
+            {
+                return false;
+            }
+            replace(slot, change.apply(codec.read(file.read(slot))));
+            return true;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inserts the row, or if one with the same primary key exists, replaces that one with what the function makes
+     * of it - atomically, like INSERT ... ON DUPLICATE KEY UPDATE.
+     */
+    T merge(T row, UnaryOperator<T> existing)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            Integer slot = slots.get(primaryKey.applyAsLong(row));
+            if (slot == null)
+            {
+                write(row);
+                return row;
+            }
+
+            T merged = existing.apply(codec.read(file.read(slot)));
+            replace(slot, merged);
+            return merged;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean delete(long key)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            Integer slot = slots.remove(key);
+            if (slot == null)
+            {
+                return false;
+            }
+
+            T previous = codec.read(file.read(slot));
+            file.free(slot);
+            for (TableIndex<T, ?> index : indexes)
+            {
+                index.remove(previous, key);
+            }
+            return true;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void flush()
+    {
+        lock.readLock().lock();
+        try
+        {
+            file.force();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        lock.writeLock().lock();
+        try
+        {
+            file.close();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // callers hold the write lock
+    private void write(T row)
+    {
+        long key = primaryKey.applyAsLong(row);
+        ByteBuffer record = encode(row);
+        int slot;
+        try
+        {
+            slot = file.allocate();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        file.write(slot, record);
+
+        slots.put(key, slot);
+        if (key > file.getCounter() && key <= Integer.MAX_VALUE)
+        {
+            file.setCounter((int) key);
+        }
+        for (TableIndex<T, ?> index : indexes)
+        {
+            index.add(row, key);
+        }
+    }
+
+    // callers hold the write lock
+    private void replace(int slot, T row)
+    {
+        long key = primaryKey.applyAsLong(row);
+        ByteBuffer record = encode(row);
+        T previous = codec.read(file.read(slot));
+        file.write(slot, record);
+        for (TableIndex<T, ?> index : indexes)
+        {
+            index.remove(previous, key);
+            index.add(row, key);
+        }
+    }
+
+    // encoded up front so a value that does not fit fails before anything in the file changes
+    private ByteBuffer encode(T row)
+    {
+        ByteBuffer record = ByteBuffer.allocate(codec.size());
+        codec.write(row, new Record(record, 0));
+        return record;
+    }
+
+    // callers hold the read lock
+    private List<T> read(Collection<Long> keys, Predicate<T> filter)
+    {
+        List<T> rows = new ArrayList<>();
+        for (long key : keys)
+        {
+            T row = codec.read(file.read(slots.get(key)));
+            if (filter.test(row))
+            {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,85 @@
+package org.yearup.data.embedded;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * A secondary index of a {@link Table}: the primary keys of the rows that have each value of a column.
+ *
+ * Hash indexes answer equality lookups; sorted ones (a balanced tree, standing in for a B-tree) also answer
+ * range lookups. Rows whose column is null are not indexed.
+ */
+final class TableIndex<T, K>
+{
+    private final Function<T, K> column;
+    private final Map<K, Set<Long>> keys;
+
+    private TableIndex(Function<T, K> column, Map<K, Set<Long>> keys)
+    {
+        this.column = column;
+        this.keys = keys;
+    }
+
+    static <T, K> TableIndex<T, K> hash(Function<T, K> column)
+    {
+        return new TableIndex<>(column, new HashMap<>());
+    }
+
+    static <T, K extends Comparable<? super K>> TableIndex<T, K> sorted(Function<T, K> column)
+    {
+        return new TableIndex<>(column, new TreeMap<>());
+    }
+
+    void add(T row, long key)
+    {
+        K value = column.apply(row);
+        if (value != null)
+        {
+            keys.computeIfAbsent(value, v -> new TreeSet<>()).add(key);
+        }
+    }
+
+    void remove(T row, long key)
+    {
+        K value = column.apply(row);
+        if (value == null) return;
+
+        Set<Long> matching = keys.get(value);
+        if (matching != null)
+        {
+            matching.remove(key);
+            if (matching.isEmpty()) keys.remove(value);
+        }
+    }
+
+    void get(K value, Collection<Long> into)
+    {
+        Set<Long> matching = keys.get(value);
+        if (matching != null)
+        {
+            into.addAll(matching);
+        }
+    }
+
+    /**
+     * Collects the keys of rows whose value is between from and to, both inclusive; a null bound is open.
+     */
+    void range(K from, K to, Collection<Long> into)
+    {
+        if (!(keys instanceof NavigableMap<K, Set<Long>> sorted))
+        {
+            throw new UnsupportedOperationException("Range lookups need a sorted index");
+        }
+
+        NavigableMap<K, Set<Long>> range = sorted;
+        if (from != null) range = range.tailMap(from, true);
+        if (to != null) range = range.headMap(to, true);
+        range.values().forEach(into::addAll);
+    }
+}
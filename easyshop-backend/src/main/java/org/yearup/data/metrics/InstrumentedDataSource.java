@@ -0,0 +1,236 @@
+package org.yearup.data.metrics;
+
+import org.yearup.data.routing.RoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Wraps a DataSource so every statement executed on its connections is timed and counted in
+ * {@link StatementMetrics}.
+ *
+ * Execution time is measured around the execute call; for queries the rows are counted as the caller walks the
+ * result set and recorded when it reaches the end or is closed. Reads keep going through the wrapped
+ * {@link RoutingDataSource} when there is one, so replica reads are measured too. Connections and statements are
+ * also added to the current {@link RequestQueries}, if any.
+ */
+public class InstrumentedDataSource implements RoutingDataSource
+{
+    private final DataSource delegate;
+    private final StatementMetrics metrics;
+
+    public InstrumentedDataSource(DataSource delegate, StatementMetrics metrics)
+    {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public DataSource getDelegate()
+    {
+        return delegate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        return instrument(delegate.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        return instrument(delegate.getConnection(username, password));
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException
+    {
+        if (delegate instanceof RoutingDataSource routingDataSource)
+        {
+            return instrument(routingDataSource.getReadConnection());
+        }
+        return getConnection();
+    }
+
+    private Connection instrument(Connection connection)
+    {
+        RequestQueries queries = RequestQueries.current();
+        if (queries != null)
+        {
+            queries.connectionOpened();
+        }
+
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            return switch (method.getName())
+            {
+                case "prepareStatement" -> proxy(PreparedStatement.class, result, statementHandler((String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class, result, statementHandler((String) args[0]));
+                case "createStatement" -> proxy(Statement.class, result, statementHandler(null));
+                default -> result;
+            };
+        });
+    }
+
+    // preparedSql is null for plain Statements, whose SQL arrives with each execute call
+    private InvocationHandler statementHandler(String preparedSql)
+    {
+        return (target, method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute"))
+            {
+                return method.invoke(target, args);
+            }
+
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : "batch";
+            StatementMetrics.Meters meters = metrics.forSql(sql);
+
+            long start = System.nanoTime();
+            Object result;
+            try
+            {
+                result = method.invoke(target, args);
+            }
+            catch (InvocationTargetException e)
+            {
+                meters.errors().increment();
+                throw e;
+            }
+            finally
+            {
+                long elapsed = System.nanoTime() - start;
+                meters.latency().record(elapsed, TimeUnit.NANOSECONDS);
+
+                RequestQueries queries = RequestQueries.current();
+                if (queries != null)
+                {
+                    queries.statementExecuted(meters.statement(), elapsed);
+                }
+            }
+
+            if (result instanceof ResultSet resultSet)
+            {
+                return proxy(ResultSet.class, resultSet, rowCounting(meters));
+            }
+            if (result instanceof Integer rows)
+            {
+                meters.rows().record(Math.max(rows, 0));
+            }
+            else if (result instanceof Long rows)
+            {
+                meters.rows().record(Math.max(rows, 0));
+            }
+            else if (result instanceof int[] counts)
+            {
+                long rows = 0;
+                for (int count : counts) rows += Math.max(count, 0);
+                meters.rows().record(rows);
+            }
+            else if (result instanceof long[] counts)
+            {
+                long rows = 0;
+                for (long count : counts) rows += Math.max(count, 0);
+                meters.rows().record(rows);
+            }
+            return result;
+        };
+    }
+
+    private static InvocationHandler rowCounting(StatementMetrics.Meters meters)
+    {
+        long[] rows = {0};
+        boolean[] recorded = {false};
+        return (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            boolean done = switch (method.getName())
+            {
+                case "next" -> {
+                    if ((Boolean) result) rows[0]++;
+                    yield !(Boolean) result;
+                }
+                case "close" -> true;
+                default -> false;
+            };
+            if (done && !recorded[0])
+            {
+                recorded[0] = true;
+                meters.rows().record(rows[0]);
+            }
+            return result;
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler)
+    {
+        InvocationHandler unwrapping = (proxy, method, args) -> {
+            try
+            {
+                return handler.invoke(target, method, args);
+            }
+            catch (InvocationTargetException e)
+            {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, unwrapping));
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException
+    {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException
+    {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException
+    {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException
+    {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException
+    {
+        if (type.isInstance(this))
+            return type.cast(this);
+        return delegate.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException
+    {
+        return type.isInstance(this) || delegate.isWrapperFor(type);
+    }
+}
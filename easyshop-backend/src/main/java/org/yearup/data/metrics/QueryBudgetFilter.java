@@ -0,0 +1,175 @@
+package org.yearup.data.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts the connections, statements and database time of every HTTP request and checks them against a
+ * per-request budget (easyshop.query-budget.*).
+ *
+ * Requests over budget, including ones that run the same statement over and over (N+1), are logged with the
+ * controller method that handled them and counted in db.request.budget.exceeded{handler}. With
+ * easyshop.query-budget.response-header=true (meant for development) the counts are also returned in an
+ * X-Query-Stats header, and X-Query-Budget names whatever was exceeded. The headers are set just before the
+ * response commits, so a handler that streams its body (SSE, sendfile) reports the queries it ran up to then.
+ */
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter
+{
+    static final String STATS_HEADER = "X-Query-Stats";
+    static final String BUDGET_HEADER = "X-Query-Budget";
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final MeterRegistry registry;
+    private final int maxConnections;
+    private final int maxStatements;
+    private final int maxRepeatedStatements;
+    private final Duration maxDatabaseTime;
+    private final boolean responseHeader;
+
+    public QueryBudgetFilter(MeterRegistry registry,
+                             @Value("${easyshop.query-budget.max-connections:2}") int maxConnections,
+                             @Value("${easyshop.query-budget.max-statements:10}") int maxStatements,
+                             @Value("${easyshop.query-budget.max-repeated-statements:5}") int maxRepeatedStatements,
+                             @Value("${easyshop.query-budget.max-database-time:250ms}") Duration maxDatabaseTime,
+                             @Value("${easyshop.query-budget.response-header:false}") boolean responseHeader)
+    {
+        this.registry = registry;
+        this.maxConnections = maxConnections;
+        this.maxStatements = maxStatements;
+        this.maxRepeatedStatements = maxRepeatedStatements;
+        this.maxDatabaseTime = maxDatabaseTime;
+        this.responseHeader = responseHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException
+    {
+        RequestQueries queries = RequestQueries.begin();
+        HttpServletResponse reported = responseHeader ? new QueryStatsResponse(response, queries) : response;
+        try
+        {
+            filterChain.doFilter(request, reported);
+        }
+        finally
+        {
+            RequestQueries.end();
+
+            String handler = handlerName(request);
+            List<String> exceeded = check(queries);
+            if (handler != null)
+            {
+                record(handler, queries, exceeded);
+            }
+
+            // a response that is still open gets the final counts; one already committed got them on its way out
+            if (responseHeader && !response.isCommitted())
+            {
+                setHeaders(response, queries, exceeded);
+            }
+        }
+    }
+
+    List<String> check(RequestQueries queries)
+    {
+        List<String> exceeded = new ArrayList<>();
+        if (queries.getConnections() > maxConnections)
+        {
+            exceeded.add("connections=" + queries.getConnections() + ">" + maxConnections);
+        }
+        if (queries.getStatements() > maxStatements)
+        {
+            exceeded.add("statements=" + queries.getStatements() + ">" + maxStatements);
+        }
+        if (queries.getDatabaseNanos() > maxDatabaseTime.toNanos())
+        {
+            exceeded.add("db-time-ms=" + queries.getDatabaseNanos() / 1_000_000 + ">" + maxDatabaseTime.toMillis());
+        }
+
+        Map.Entry<String, Integer> repeated = queries.mostRepeated();
+        if (repeated != null && repeated.getValue() > maxRepeatedStatements)
+        {
+            exceeded.add("repeated=" + repeated.getValue() + ">" + maxRepeatedStatements + " (" + repeated.getKey() + ")");
+        }
+        return exceeded;
+    }
+
+    private void record(String handler, RequestQueries queries, List<String> exceeded)
+    {
+        DistributionSummary.builder("db.request.statements")
+                .description("SQL statements executed per HTTP request.")
+                .tag("handler", handler)
+                .register(registry)
+                .record(queries.getStatements());
+
+        if (!exceeded.isEmpty())
+        {
+            Counter.builder("db.request.budget.exceeded")
+                    .description("HTTP requests that went over their query budget.")
+                    .tag("handler", handler)
+                    .register(registry)
+                    .increment();
+            LOG.warn("{} exceeded its query budget: {}", handler, String.join("; ", exceeded));
+        }
+    }
+
+    private static void setHeaders(HttpServletResponse response, RequestQueries queries, List<String> exceeded)
+    {
+        response.setHeader(STATS_HEADER, String.format(Locale.ROOT, "connections=%d; statements=%d; db-time-ms=%.3f",
+                queries.getConnections(), queries.getStatements(), queries.getDatabaseNanos() / 1_000_000.0));
+        if (!exceeded.isEmpty())
+        {
+            response.setHeader(BUDGET_HEADER, String.join("; ", exceeded));
+        }
+    }
+
+    // e.g. ShoppingCartController#addProductToCart; null for requests that never reached a controller
+    private static String handlerName(HttpServletRequest request)
+    {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method)
+        {
+            return method.getBeanType().getSimpleName() + "#" + method.getMethod().getName();
+        }
+        return null;
+    }
+
+    // passes the body straight through and sets the headers when the handler commits the response itself
+    private class QueryStatsResponse extends OnCommittedResponseWrapper
+    {
+        private final RequestQueries queries;
+
+        QueryStatsResponse(HttpServletResponse response, RequestQueries queries)
+        {
+            super(response);
+            this.queries = queries;
+        }
+
+        @Override
+        protected void onResponseCommitted()
+        {
+            setHeaders((HttpServletResponse) getResponse(), queries, check(queries));
+        }
+    }
+}
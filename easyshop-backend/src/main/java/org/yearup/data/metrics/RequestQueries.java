@@ -0,0 +1,98 @@
+package org.yearup.data.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The connections opened, statements executed and time spent in the database on behalf of one HTTP request.
+ *
+ * {@link QueryBudgetFilter} opens the scope for each request and {@link InstrumentedDataSource} adds to it.
+ * Work handed to another thread can {@link #attach} the same instance there; the counters are thread safe.
+ */
+public final class RequestQueries
+{
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong databaseNanos = new AtomicLong();
+    private final Map<String, AtomicInteger> executionsByStatement = new ConcurrentHashMap<>();
+
+    /**
+     * Starts accounting for the current thread, replacing any scope left over on it.
+     */
+    public static RequestQueries begin()
+    {
+        RequestQueries queries = new RequestQueries();
+        CURRENT.set(queries);
+        return queries;
+    }
+
+    /**
+     * @return the scope of the current thread, or null outside of one
+     */
+    public static RequestQueries current()
+    {
+        return CURRENT.get();
+    }
+
+    public static void attach(RequestQueries queries)
+    {
+        if (queries == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(queries);
+    }
+
+    public static void end()
+    {
+        CURRENT.remove();
+    }
+
+    void connectionOpened()
+    {
+        connections.incrementAndGet();
+    }
+
+    void statementExecuted(String statement, long nanos)
+    {
+        statements.incrementAndGet();
+        databaseNanos.addAndGet(nanos);
+        executionsByStatement.computeIfAbsent(statement, s -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public int getConnections()
+    {
+        return connections.get();
+    }
+
+    public int getStatements()
+    {
+        return statements.get();
+    }
+
+    public long getDatabaseNanos()
+    {
+        return databaseNanos.get();
+    }
+
+    /**
+     * @return the normalized statement executed most often in this request and how often, the usual shape of
+     * an N+1 (one query per row of an earlier result)
+     */
+    public Map.Entry<String, Integer> mostRepeated()
+    {
+        Map.Entry<String, Integer> most = null;
+        for (Map.Entry<String, AtomicInteger> entry : executionsByStatement.entrySet())
+        {
+            int count = entry.getValue().get();
+            if (most == null || count > most.getValue())
+            {
+                most = Map.entry(entry.getKey(), count);
+            }
+        }
+        return most;
+    }
+}
@@ -0,0 +1,140 @@
+package org.yearup.data.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Latency, row count and error meters for each distinct SQL statement, tagged with the statement text after
+ * literals and whitespace have been normalized away (db.statement, db.statement.rows, db.statement.errors).
+ *
+ * The latency timers publish percentile histograms, so p50/p95/p99 can be read per statement from
+ * /actuator/prometheus or /actuator/metrics/db.statement?tag=sql:...
+ */
+public class StatementMetrics
+{
+    /** Statements beyond this many distinct shapes are all recorded under {@link #OTHER}. */
+    static final int MAXIMUM_STATEMENTS = 500;
+    static final String OTHER = "other";
+    /** Raw SQL texts whose shape is remembered, so the regular expressions only run for new ones. */
+    static final int MAXIMUM_SQL_TEXTS = 2_000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Supplier<MeterRegistry> registry;
+    private final LinkedHashMap<String, String> normalized = new LinkedHashMap<>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+        {
+            return size() > MAXIMUM_SQL_TEXTS;
+        }
+    };
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public StatementMetrics(MeterRegistry registry)
+    {
+        this(() -> registry);
+    }
+
+    /**
+     * The registry is only looked up when the first statement runs, since the registry itself is built after
+     * the DataSource it would otherwise be waiting on.
+     */
+    public StatementMetrics(Supplier<MeterRegistry> registry)
+    {
+        this.registry = registry;
+    }
+
+    /**
+     * @return the meters for a statement, looked up by its raw SQL text
+     */
+    Meters forSql(String sql)
+    {
+        String statement;
+        synchronized (normalized)
+        {
+            statement = normalized.get(sql);
+        }
+        if (statement == null)
+        {
+            // IN lists and ?fields= column lists give many texts of the same shape, so the cap counts shapes
+            statement = normalize(sql);
+            synchronized (normalized)
+            {
+                normalized.put(sql, statement);
+            }
+        }
+
+        Meters statementMeters = meters.get(statement);
+        if (statementMeters != null)
+            return statementMeters;
+        return meters.computeIfAbsent(meters.size() < MAXIMUM_STATEMENTS ? statement : OTHER, this::register);
+    }
+
+    /**
+     * Reduces a statement to its shape: literals become ?, IN lists collapse to a single ?, whitespace is
+     * collapsed and keywords are lower cased, so the same query issued with different values is one series.
+     */
+    static String normalize(String sql)
+    {
+        String statement = STRING_LITERAL.matcher(sql).replaceAll("?");
+        statement = NUMBER_LITERAL.matcher(statement).replaceAll("?");
+        statement = IN_LIST.matcher(statement).replaceAll("(?)");
+        statement = WHITESPACE.matcher(statement).replaceAll(" ").strip();
+        return statement.toLowerCase(Locale.ROOT);
+    }
+
+    private Meters register(String statement)
+    {
+        MeterRegistry meterRegistry = registry.get();
+        String operation = statement.equals(OTHER) ? OTHER : operation(statement);
+
+        Timer latency = Timer.builder("db.statement")
+                .description("Time spent executing a SQL statement.")
+                .tag("sql", statement)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.of(100, ChronoUnit.MICROS))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+
+        DistributionSummary rows = DistributionSummary.builder("db.statement.rows")
+                .description("Rows read or written by a SQL statement.")
+                .tag("sql", statement)
+                .tag("operation", operation)
+                .register(meterRegistry);
+
+        Counter errors = Counter.builder("db.statement.errors")
+                .description("SQL statements that failed with an exception.")
+                .tag("sql", statement)
+                .tag("operation", operation)
+                .register(meterRegistry);
+
+        return new Meters(statement, latency, rows, errors);
+    }
+
+    private static String operation(String statement)
+    {
+        int end = statement.indexOf(' ');
+        return end < 0 ? statement : statement.substring(0, end);
+    }
+
+    record Meters(String statement, Timer latency, DistributionSummary rows, Counter errors)
+    {
+    }
+}
@@ -0,0 +1,30 @@
+package org.yearup.data.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * One numbered schema change, read from a file named V&lt;version&gt;__&lt;description&gt;.sql.
+ * The checksum covers the script with line endings normalized, so a checkout on another OS does not change it.
+ */
+record Migration(int version, String description, String script, long checksum)
+{
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    static Migration of(String fileName, String script)
+    {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches())
+        {
+            throw new IllegalArgumentException("Migration file names look like V1__description.sql, not " + fileName);
+        }
+
+        String normalized = script.replace("\r\n", "\n");
+        CRC32 crc = new CRC32();
+        crc.update(normalized.getBytes(StandardCharsets.UTF_8));
+
+        return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), normalized, crc.getValue());
+    }
+}
@@ -0,0 +1,217 @@
+package org.yearup.data.migration;
+
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the schema up to date at startup by running the db/migration/V*__*.sql scripts that have not run yet, in
+ * version order, and recording each one in the schema_version table.
+ *
+ * A migration that was already applied is never run again; if its file has changed since (the checksum no longer
+ * matches) startup fails rather than leaving the schema and the scripts out of step. Runs before the web server
+ * accepts requests. Turn it off with easyshop.migrations.enabled=false.
+ */
+@Component
+@Profile("!embedded")
+public class MigrationRunner implements InitializingBean
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MigrationRunner.class);
+    private static final String LOCK_NAME = "easyshop_migrations";
+
+    private final DataSource dataSource;
+    private final String locations;
+    private final boolean enabled;
+
+    public MigrationRunner(DataSource dataSource,
+                           @Value("${easyshop.migrations.locations:classpath:db/migration/V*__*.sql}") String locations,
+                           @Value("${easyshop.migrations.enabled:true}") boolean enabled)
+    {
+        this.dataSource = dataSource;
+        this.locations = locations;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException, SQLException
+    {
+        if (enabled)
+        {
+            migrate();
+        }
+    }
+
+    /**
+     * @return the migrations that were applied by this call
+     */
+    public List<Migration> migrate() throws IOException, SQLException
+    {
+        List<Migration> migrations = load();
+        List<Migration> applied = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection())
+        {
+            createVersionTable(connection);
+            boolean locked = lock(connection);
+            try
+            {
+                Map<Integer, Long> checksums = appliedChecksums(connection);
+                for (Migration migration : migrations)
+                {
+                    Long checksum = checksums.get(migration.version());
+                    if (checksum == null)
+                    {
+                        apply(connection, migration);
+                        applied.add(migration);
+                    }
+                    else if (checksum != migration.checksum())
+                    {
+                        throw new IllegalStateException("Migration V" + migration.version() + " (" + migration.description()
+                                + ") was changed after it was applied; add a new migration instead");
+                    }
+                }
+            }
+            finally
+            {
+                if (locked) unlock(connection);
+            }
+        }
+
+        LOG.info("Schema is at version {} ({} migration(s) applied now)",
+                migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version(), applied.size());
+        return applied;
+    }
+
+    List<Migration> load() throws IOException
+    {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locations))
+        {
+            String script = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            migrations.add(Migration.of(resource.getFilename(), script));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+
+        for (int i = 1; i < migrations.size(); i++)
+        {
+            if (migrations.get(i).version() == migrations.get(i - 1).version())
+            {
+                throw new IllegalStateException("Two migrations share version " + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException
+    {
+        LOG.info("Applying migration V{}: {}", migration.version(), migration.description());
+        long start = System.nanoTime();
+
+        ScriptRunner runner = new ScriptRunner(connection);
+        runner.setStopOnError(true);
+        runner.setAutoCommit(true);
+        runner.setLogWriter(null);
+        runner.runScript(new StringReader(migration.script()));
+
+        String sql = """
+                INSERT INTO schema_version (version, description, checksum, applied_at, execution_ms)
+                VALUES (?, ?, ?, ?, ?)
+                """;
+        try (PreparedStatement statement = connection.prepareStatement(sql))
+        {
+            statement.setInt(1, migration.version());
+            statement.setString(2, migration.description());
+            statement.setLong(3, migration.checksum());
+            statement.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            statement.setLong(5, (System.nanoTime() - start) / 1_000_000);
+            statement.executeUpdate();
+        }
+        if (!connection.getAutoCommit())
+        {
+            connection.commit();
+        }
+    }
+
+    private static void createVersionTable(Connection connection) throws SQLException
+    {
+        try (Statement statement = connection.createStatement())
+        {
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INT NOT NULL,
+                        description VARCHAR(200) NOT NULL,
+                        checksum BIGINT NOT NULL,
+                        applied_at TIMESTAMP NOT NULL,
+                        execution_ms BIGINT NOT NULL,
+                        PRIMARY KEY (version))
+                    """);
+        }
+    }
+
+    private static Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException
+    {
+        Map<Integer, Long> checksums = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery("SELECT version, checksum FROM schema_version"))
+        {
+            while (row.next())
+            {
+                checksums.put(row.getInt(1), row.getLong(2));
+            }
+        }
+        return checksums;
+    }
+
+    // MySQL named lock, so two instances starting together do not both run a migration
+    private static boolean lock(Connection connection)
+    {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 60)"))
+        {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet row = statement.executeQuery())
+            {
+                if (row.next() && row.getInt(1) == 1)
+                {
+                    return true;
+                }
+                throw new IllegalStateException("Timed out waiting for another instance to finish migrating");
+            }
+        }
+        catch (SQLException e)
+        {
+            LOG.debug("Named locks are not available on this database; migrating without one", e);
+            return false;
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException
+    {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)"))
+        {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package org.yearup.data.mysql;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.yearup.data.CategoryDao;
 import org.yearup.models.Category;
+import org.yearup.exceptions.DaoException;
 
 import javax.sql.DataSource;
 import java.sql.*;
@@ -10,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Component
+@Profile("!embedded")
 public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
 {
     public MySqlCategoryDao(DataSource dataSource)
@@ -26,19 +29,13 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
                 SELECT * FROM categories
                 """;
 
-        try (Connection connection = getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(sql);
-            ResultSet rs = statement.executeQuery();
-            while (rs.next()) {
-                int categoryId = rs.getInt("category_id");
-                String name = rs.getString("name");
-                String description = rs.getString("description");
-
-                categories.add(new Category(categoryId, name, description));
-            }
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+            categories.addAll(CATEGORY_MAPPER.mapAll(rs));
             return categories;
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
@@ -51,19 +48,16 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
                 WHERE category_id = ?
                 """;
 
-        try (Connection connection = getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(sql);
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, categoryId);
-            ResultSet row = statement.executeQuery();
 
-            if (row.next())
-            {
-                return mapRow(row);
+            try (ResultSet row = statement.executeQuery()) {
+                return CATEGORY_MAPPER.mapFirst(row);
             }
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
-        return null;
     }
 
     @Override
@@ -76,8 +70,8 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
                 """;
         int generatedId = -1;
 
-        try (Connection connection = getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             statement.setString(1, category.getName());
             statement.setString(2, category.getDescription());
 
@@ -93,7 +87,7 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
            // Category newCategory = getById(category.getCategoryId());
             return category;
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
@@ -107,16 +101,15 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
                 WHERE category_id = ?
                 """;
 
-        try (Connection connection = getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setString(1, category.getName());
             statement.setString(2, category.getDescription());
             statement.setInt(3, categoryId);
 
-            int rows = statement.executeUpdate();
-            System.out.println(rows + " rows updated...");
+            statement.executeUpdate();
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
@@ -129,31 +122,18 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
                 WHERE category_id = ?
                 """;
 
-        try (Connection connection = getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, categoryId);
 
-            int rows = statement.executeUpdate();
-            System.out.println(rows + " rows deleted...");
+            statement.executeUpdate();
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
-    private Category mapRow(ResultSet row) throws SQLException
-    {
-        int categoryId = row.getInt("category_id");
-        String name = row.getString("name");
-        String description = row.getString("description");
-
-        Category category = new Category()
-        {{
-            setCategoryId(categoryId);
-            setName(name);
-            setDescription(description);
-        }};
-
-        return category;
-    }
+    static final RowMapper<Category> CATEGORY_MAPPER = new RowMapper<>(
+            row -> new Category(row.getInt(0), row.getString(1), row.getString(2)),
+            "category_id", "name", "description");
 
 }
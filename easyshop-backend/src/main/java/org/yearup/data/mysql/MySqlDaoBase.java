@@ -1,8 +1,21 @@
 package org.yearup.data.mysql;
 
+import org.yearup.data.routing.RoutingDataSource;
+import org.yearup.exceptions.DaoException;
+import org.yearup.data.unitofwork.UnitOfWork;
+
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class MySqlDaoBase
 {
@@ -13,8 +26,198 @@ public abstract class MySqlDaoBase
         this.dataSource = dataSource;
     }
 
+    /**
+     * A connection to the primary database. Inside a {@link UnitOfWork} this is the connection bound to it,
+     * and closing it leaves it open for the next DAO call.
+     */
     protected Connection getConnection() throws SQLException
     {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null)
+        {
+            return unitOfWork.getConnection(dataSource);
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * A connection for reads that can tolerate replication lag. It comes from a read replica when one is
+     * configured, unless the current request has already written through {@link #getConnection()}.
+     */
+    protected Connection getReadConnection() throws SQLException
+    {
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null)
+        {
+            return unitOfWork.getReadConnection(dataSource, this::borrowReadConnection);
+        }
+        return borrowReadConnection();
+    }
+
+    private Connection borrowReadConnection() throws SQLException
+    {
+        if (dataSource instanceof RoutingDataSource routingDataSource)
+        {
+            return routingDataSource.getReadConnection();
+        }
         return dataSource.getConnection();
     }
+
+    /**
+     * Converts rows into objects by column position instead of by column name.
+     *
+     * A mapper is declared with the column labels it reads. The first time it sees a result set with a given
+     * shape (its list of column labels) it works out where each of those columns is and remembers it, so every
+     * row after that is read with plain index lookups.
+     *
+     * A column the result set doesn't have fails with a {@link DaoException}, so a misspelled label in a SELECT
+     * is caught instead of read as null/0/false. Columns declared {@link #optional(String...)} are the exception:
+     * when they weren't selected they read as null/0/false, which lets one mapper serve narrowed SELECT lists.
+     */
+    protected static final class RowMapper<T>
+    {
+        private final String[] columns;
+        private final boolean[] optional;
+        private final Mapping<T> mapping;
+        private final Map<String, int[]> positionsByShape = new ConcurrentHashMap<>();
+
+        public RowMapper(Mapping<T> mapping, String... columns)
+        {
+            this(mapping, columns.clone(), new boolean[columns.length]);
+        }
+
+        private RowMapper(Mapping<T> mapping, String[] columns, boolean[] optional)
+        {
+            this.mapping = mapping;
+            this.columns = columns;
+            this.optional = optional;
+        }
+
+        /**
+         * @return a mapper like this one that reads the given columns as null/0/false when a query leaves them out
+         */
+        public RowMapper<T> optional(String... names)
+        {
+            boolean[] marked = optional.clone();
+            for (String name : names)
+            {
+                int column = Arrays.asList(columns).indexOf(name);
+                if (column < 0)
+                    throw new IllegalArgumentException(name + " is not one of the mapper's columns");
+                marked[column] = true;
+            }
+            return new RowMapper<>(mapping, columns, marked);
+        }
+
+        public List<T> mapAll(ResultSet resultSet) throws SQLException
+        {
+            IndexedRow row = bind(resultSet);
+            List<T> results = new ArrayList<>();
+            while (resultSet.next())
+            {
+                results.add(mapping.map(row));
+            }
+            return results;
+        }
+
+        /**
+         * @return the first row of the result set, or null when it is empty
+         */
+        public T mapFirst(ResultSet resultSet) throws SQLException
+        {
+            IndexedRow row = bind(resultSet);
+            return resultSet.next() ? mapping.map(row) : null;
+        }
+
+        /**
+         * Binds this mapper to a result set so the caller can drive the cursor and map rows itself.
+         */
+        public IndexedRow bind(ResultSet resultSet) throws SQLException
+        {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            int count = metaData.getColumnCount();
+            String[] labels = new String[count];
+            for (int i = 0; i < count; i++)
+            {
+                labels[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+            }
+
+            int[] positions = positionsByShape.computeIfAbsent(String.join(",", labels), shape -> resolve(labels));
+            return new IndexedRow(resultSet, positions);
+        }
+
+        public T map(IndexedRow row) throws SQLException
+        {
+            return mapping.map(row);
+        }
+
+        private int[] resolve(String[] labels)
+        {
+            int[] positions = new int[columns.length];
+            for (int column = 0; column < columns.length; column++)
+            {
+                for (int i = 0; i < labels.length; i++)
+                {
+                    if (labels[i].equalsIgnoreCase(columns[column]))
+                    {
+                        positions[column] = i + 1;
+                        break;
+                    }
+                }
+                if (positions[column] == 0 && !optional[column])
+                    throw new DaoException("Column " + columns[column] + " is not in the result set " + Arrays.toString(labels));
+            }
+            return positions;
+        }
+    }
+
+    @FunctionalInterface
+    protected interface Mapping<T>
+    {
+        T map(IndexedRow row) throws SQLException;
+    }
+
+    /**
+     * The current row of a result set, addressed by the position of a column in its {@link RowMapper}'s column list.
+     */
+    protected static final class IndexedRow
+    {
+        private final ResultSet resultSet;
+        private final int[] positions;
+
+        IndexedRow(ResultSet resultSet, int[] positions)
+        {
+            this.resultSet = resultSet;
+            this.positions = positions;
+        }
+
+        public boolean has(int column)
+        {
+            return positions[column] != 0;
+        }
+
+        public int getInt(int column) throws SQLException
+        {
+            int position = positions[column];
+            return position == 0 ? 0 : resultSet.getInt(position);
+        }
+
+        public boolean getBoolean(int column) throws SQLException
+        {
+            int position = positions[column];
+            return position != 0 && resultSet.getBoolean(position);
+        }
+
+        public String getString(int column) throws SQLException
+        {
+            int position = positions[column];
+            return position == 0 ? null : resultSet.getString(position);
+        }
+
+        public BigDecimal getBigDecimal(int column) throws SQLException
+        {
+            int position = positions[column];
+            return position == 0 ? null : resultSet.getBigDecimal(position);
+        }
+    }
 }
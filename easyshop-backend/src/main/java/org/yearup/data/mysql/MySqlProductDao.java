@@ -1,16 +1,25 @@
 package org.yearup.data.mysql;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.yearup.models.Product;
+import org.yearup.models.ProductBulkResult;
+import org.yearup.models.ProductBulkUpdate;
 import org.yearup.data.ProductDao;
+import org.yearup.models.ProductField;
+import org.yearup.exceptions.DaoException;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 @Component
+@Profile("!embedded")
 public class MySqlProductDao extends MySqlDaoBase implements ProductDao
 {
     public MySqlProductDao(DataSource dataSource)
@@ -20,6 +29,12 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
 
     @Override
     public List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String color)
+    {
+        return search(categoryId, minPrice, maxPrice, color, null);
+    }
+
+    @Override
+    public List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String color, Set<ProductField> fields)
     {
         List<Product> products = new ArrayList<>();
 
@@ -29,21 +44,21 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
                 "   AND (price <= ? OR ? = -1) " +
                 "   AND (color = ? OR ? = '') ";
         sql = """
-                SELECT * FROM products
+                SELECT %s FROM products
                 WHERE (category_id = ? OR ? = -1)
                 AND (price >= ? OR ? = -1)
                 AND (price <= ? OR ? = -1)
                 AND (color = ? OR ? = '')
-                """;
+                """.formatted(ProductField.columns(fields, null));
 
         categoryId = categoryId == null ? -1 : categoryId;
         minPrice = minPrice == null ? new BigDecimal("-1") : minPrice;
         maxPrice = maxPrice == null ? new BigDecimal("-1") : maxPrice;
         color = color == null ? "" : color;
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setInt(1, categoryId);
             statement.setInt(2, categoryId);
             statement.setBigDecimal(3, minPrice);
@@ -54,17 +69,14 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
             statement.setString(7, color);
             statement.setString(8, color);
 
-            ResultSet row = statement.executeQuery();
-
-            while (row.next())
+            try (ResultSet row = statement.executeQuery())
             {
-                Product product = mapRow(row);
-                products.add(product);
+                products.addAll(PRODUCT_FIELDS_MAPPER.mapAll(row));
             }
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
 
         return products;
@@ -72,28 +84,31 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
 
     @Override
     public List<Product> listByCategoryId(int categoryId)
+    {
+        return listByCategoryId(categoryId, null);
+    }
+
+    @Override
+    public List<Product> listByCategoryId(int categoryId, Set<ProductField> fields)
     {
         List<Product> products = new ArrayList<>();
 
-        String sql = "SELECT * FROM products " +
+        String sql = "SELECT " + ProductField.columns(fields, null) + " FROM products " +
                     " WHERE category_id = ? ";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setInt(1, categoryId);
 
-            ResultSet row = statement.executeQuery();
-
-            while (row.next())
+            try (ResultSet row = statement.executeQuery())
             {
-                Product product = mapRow(row);
-                products.add(product);
+                products.addAll(PRODUCT_FIELDS_MAPPER.mapAll(row));
             }
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
 
         return products;
@@ -103,24 +118,55 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
     @Override
     public Product getById(int productId)
     {
-        String sql = "SELECT * FROM products WHERE product_id = ?";
-        try (Connection connection = getConnection())
+        return getById(productId, null);
+    }
+
+    @Override
+    public Product getById(int productId, Set<ProductField> fields)
+    {
+        String sql = "SELECT " + ProductField.columns(fields, null) + " FROM products WHERE product_id = ?";
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setInt(1, productId);
 
-            ResultSet row = statement.executeQuery();
+            try (ResultSet row = statement.executeQuery())
+            {
+                return PRODUCT_FIELDS_MAPPER.mapFirst(row);
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new DaoException(e);
+        }
+    }
+
+    @Override
+    public List<Product> getByIds(Collection<Integer> productIds, Set<ProductField> fields)
+    {
+        if (productIds.isEmpty()) return new ArrayList<>();
 
-            if (row.next())
+        String sql = "SELECT " + ProductField.columns(fields, null) + " FROM products " +
+                " WHERE product_id IN (" + String.join(", ", Collections.nCopies(productIds.size(), "?")) + ")";
+
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
+        {
+            int index = 1;
+            for (int productId : productIds)
+            {
+                statement.setInt(index++, productId);
+            }
+
+            try (ResultSet row = statement.executeQuery())
             {
-                return mapRow(row);
+                return PRODUCT_FIELDS_MAPPER.mapAll(row);
             }
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
-        return null;
     }
 
     @Override
@@ -130,9 +176,9 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
         String sql = "INSERT INTO products(name, price, category_id, description, color, image_url, stock, featured) " +
                 " VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS))
         {
-            PreparedStatement statement = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
             statement.setString(1, product.getName());
             statement.setBigDecimal(2, product.getPrice());
             statement.setInt(3, product.getCategoryId());
@@ -146,20 +192,21 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
 
             if (rowsAffected > 0) {
                 // Retrieve the generated keys
-                ResultSet generatedKeys = statement.getGeneratedKeys();
-
-                if (generatedKeys.next()) {
-                    // Retrieve the auto-incremented ID
-                    int orderId = generatedKeys.getInt(1);
-
-                    // get the newly inserted category
-                    return getById(orderId);
+                try (ResultSet generatedKeys = statement.getGeneratedKeys())
+                {
+                    if (generatedKeys.next()) {
+                        // Retrieve the auto-incremented ID
+                        int orderId = generatedKeys.getInt(1);
+
+                        // get the newly inserted category
+                        return getById(orderId);
+                    }
                 }
             }
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
         return null;
     }
@@ -178,9 +225,9 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
                 "   , featured = ? " +
                 " WHERE product_id = ?;";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setString(1, product.getName());
             statement.setBigDecimal(2, product.getPrice());
             statement.setInt(3, product.getCategoryId());
@@ -195,8 +242,104 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
+        }
+    }
+
+    @Override
+    public ProductBulkResult updateAll(ProductBulkUpdate update, int chunkSize)
+    {
+        // the search filters, checked again in every chunk so rows changed in between are judged as they are now
+        String filter = """
+                (category_id = ? OR ? = -1)
+                AND (price >= ? OR ? = -1)
+                AND (price <= ? OR ? = -1)
+                AND (color = ? OR ? = '')
+                """;
+        String rangeSql = "SELECT MIN(product_id), MAX(product_id) FROM products WHERE " + filter;
+        String updateSql = "UPDATE products SET " + assignments(update) +
+                " WHERE product_id BETWEEN ? AND ? AND " + filter;
+
+        // outside a transaction every chunk commits on its own, so no lock is held longer than one chunk's UPDATE
+        try (Connection connection = getConnection())
+        {
+            long first;
+            long last;
+            try (PreparedStatement statement = connection.prepareStatement(rangeSql))
+            {
+                setFilter(statement, 1, update);
+                try (ResultSet row = statement.executeQuery())
+                {
+                    row.next();
+                    first = row.getLong(1);
+                    if (row.wasNull()) return new ProductBulkResult(0, 0);
+                    last = row.getLong(2);
+                }
+            }
+
+            int updated = 0;
+            int chunks = 0;
+            try (PreparedStatement statement = connection.prepareStatement(updateSql))
+            {
+                for (long low = first; low <= last; low += chunkSize)
+                {
+                    int index = setChanges(statement, 1, update);
+                    statement.setLong(index++, low);
+                    statement.setLong(index++, Math.min(last, low + chunkSize - 1));
+                    setFilter(statement, index, update);
+
+                    updated += statement.executeUpdate();
+                    chunks++;
+                }
+            }
+            return new ProductBulkResult(updated, chunks);
+        }
+        catch (SQLException e)
+        {
+            throw new DaoException(e);
+        }
+    }
+
+    // the SET list for the changes given; ProductBulkUpdate.applyTo does the same in Java
+    private static String assignments(ProductBulkUpdate update)
+    {
+        List<String> assignments = new ArrayList<>();
+        if (update.getPricePercent() != null || update.getPriceChange() != null)
+        {
+            String price = "price";
+            if (update.getPricePercent() != null) price = "ROUND(" + price + " * (100 + ?) / 100, 2)";
+            if (update.getPriceChange() != null) price = price + " + ?";
+            assignments.add("price = GREATEST(0, " + price + ")");
         }
+        if (update.getStockChange() != null) assignments.add("stock = GREATEST(0, stock + ?)");
+        if (update.getFeatured() != null) assignments.add("featured = ?");
+        return String.join(", ", assignments);
+    }
+
+    private static int setChanges(PreparedStatement statement, int index, ProductBulkUpdate update) throws SQLException
+    {
+        if (update.getPricePercent() != null) statement.setBigDecimal(index++, update.getPricePercent());
+        if (update.getPriceChange() != null) statement.setBigDecimal(index++, update.getPriceChange());
+        if (update.getStockChange() != null) statement.setInt(index++, update.getStockChange());
+        if (update.getFeatured() != null) statement.setBoolean(index++, update.getFeatured());
+        return index;
+    }
+
+    private static void setFilter(PreparedStatement statement, int index, ProductBulkUpdate update) throws SQLException
+    {
+        int categoryId = update.getCategoryId() == null ? -1 : update.getCategoryId();
+        BigDecimal minPrice = update.getMinPrice() == null ? new BigDecimal("-1") : update.getMinPrice();
+        BigDecimal maxPrice = update.getMaxPrice() == null ? new BigDecimal("-1") : update.getMaxPrice();
+        String color = update.getColor() == null ? "" : update.getColor();
+
+        statement.setInt(index++, categoryId);
+        statement.setInt(index++, categoryId);
+        statement.setBigDecimal(index++, minPrice);
+        statement.setBigDecimal(index++, minPrice);
+        statement.setBigDecimal(index++, maxPrice);
+        statement.setBigDecimal(index++, maxPrice);
+        statement.setString(index++, color);
+        statement.setString(index, color);
     }
 
     @Override
@@ -206,31 +349,25 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
         String sql = "DELETE FROM products " +
                 " WHERE product_id = ?;";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setInt(1, productId);
 
             statement.executeUpdate();
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
-    protected static Product mapRow(ResultSet row) throws SQLException
-    {
-        int productId = row.getInt("product_id");
-        String name = row.getString("name");
-        BigDecimal price = row.getBigDecimal("price");
-        int categoryId = row.getInt("category_id");
-        String description = row.getString("description");
-        String color = row.getString("color");
-        int stock = row.getInt("stock");
-        boolean isFeatured = row.getBoolean("featured");
-        String imageUrl = row.getString("image_url");
-
-        return new Product(productId, name, price, categoryId, description, color, stock, isFeatured, imageUrl);
-    }
+    static final RowMapper<Product> PRODUCT_MAPPER = new RowMapper<>(
+            row -> new Product(row.getInt(0), row.getString(1), row.getBigDecimal(2), row.getInt(3),
+                    row.getString(4), row.getString(5), row.getInt(6), row.getBoolean(7), row.getString(8)),
+            "product_id", "name", "price", "category_id", "description", "color", "stock", "featured", "image_url");
+
+    // for the ?fields= selects, which always include product_id
+    static final RowMapper<Product> PRODUCT_FIELDS_MAPPER = PRODUCT_MAPPER.optional(
+            "name", "price", "category_id", "description", "color", "stock", "featured", "image_url");
 }
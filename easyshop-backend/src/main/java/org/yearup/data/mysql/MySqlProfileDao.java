@@ -3,11 +3,13 @@ package org.yearup.data.mysql;
 import org.springframework.stereotype.Component;
 import org.yearup.models.Profile;
 import org.yearup.data.ProfileDao;
+import org.yearup.exceptions.DaoException;
 
 import javax.sql.DataSource;
 import java.sql.*;
 
 @Component
+@org.springframework.context.annotation.Profile("!embedded")
 public class MySqlProfileDao extends MySqlDaoBase implements ProfileDao
 {
     public MySqlProfileDao(DataSource dataSource)
@@ -21,9 +23,9 @@ public class MySqlProfileDao extends MySqlDaoBase implements ProfileDao
         String sql = "INSERT INTO profiles (user_id, first_name, last_name, phone, email, address, city, state, zip) " +
                 " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try(Connection connection = getConnection())
+        try(Connection connection = getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql))
         {
-            PreparedStatement ps = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
             ps.setInt(1, profile.getUserId());
             ps.setString(2, profile.getFirstName());
             ps.setString(3, profile.getLastName());
@@ -40,7 +42,7 @@ public class MySqlProfileDao extends MySqlDaoBase implements ProfileDao
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
@@ -50,30 +52,25 @@ public class MySqlProfileDao extends MySqlDaoBase implements ProfileDao
                 SELECT * FROM profiles
                 WHERE user_id = ?
                 """;
-        try(Connection connection = getConnection())
+        try(Connection connection = getConnection();
+            PreparedStatement ps = connection.prepareStatement(sql))
         {
-            PreparedStatement ps = connection.prepareStatement(sql);
             ps.setInt(1, userId);
 
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String firstName = rs.getString("first_name");
-                String lastName = rs.getString("last_name");
-                String phone = rs.getString("phone");
-                String email = rs.getString("email");
-                String address = rs.getString("address");
-                String city = rs.getString("city");
-                String state = rs.getString("state");
-                String zip = rs.getString("zip");
-
-                return new Profile(userId, firstName, lastName, phone, email, address, city, state, zip);
+            try(ResultSet rs = ps.executeQuery())
+            {
+                return PROFILE_MAPPER.mapFirst(rs);
             }
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
-        return null;
     }
 
+    static final RowMapper<Profile> PROFILE_MAPPER = new RowMapper<>(
+            row -> new Profile(row.getInt(0), row.getString(1), row.getString(2), row.getString(3), row.getString(4),
+                    row.getString(5), row.getString(6), row.getString(7), row.getString(8)),
+            "user_id", "first_name", "last_name", "phone", "email", "address", "city", "state", "zip");
+
 }
@@ -1,18 +1,24 @@
 package org.yearup.data.mysql;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.yearup.data.ShoppingCartDao;
 import org.yearup.models.Product;
+import org.yearup.models.ProductField;
 import org.yearup.models.ShoppingCart;
 import org.yearup.models.ShoppingCartItem;
+import org.yearup.exceptions.DaoException;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.Set;
 
 @Component
+@Profile("!embedded")
 public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDao {
     public MySqlShoppingCartDao(DataSource dataSource) {
         super(dataSource);
@@ -20,45 +26,36 @@ public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDa
 
     @Override
     public ShoppingCart getByUserId(int userId) {
+        return getByUserId(userId, null);
+    }
+
+    @Override
+    public ShoppingCart getByUserId(int userId, Set<ProductField> fields) {
+        // the line totals need the price whatever the client asked for
+        Set<ProductField> columns = fields == null ? EnumSet.allOf(ProductField.class) : EnumSet.copyOf(fields);
+        columns.add(ProductField.PRICE);
+        columns.remove(ProductField.PRODUCT_ID);
+
         String sql = """
-                    SELECT sc.product_id, sc.quantity, 
-                           p.name, p.price, p.category_id, p.description, 
-                           p.color, p.image_url, p.stock, p.featured
+                    SELECT sc.product_id, sc.quantity, %s
                     FROM shopping_cart sc
                     JOIN products p ON sc.product_id = p.product_id
                     WHERE sc.user_id = ?
-                """;
+                """.formatted(ProductField.columns(columns, "p"));
 
         ShoppingCart shoppingCart = new ShoppingCart();
 
-        try (Connection connection = getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(sql);
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, userId);
-            ResultSet row = statement.executeQuery();
-
-            while (row.next()) {
-                // Map product details
-                Product product = new Product();
-                product.setProductId(row.getInt("product_id"));
-                product.setName(row.getString("name"));
-                product.setPrice(row.getBigDecimal("price"));
-                product.setCategoryId(row.getInt("category_id"));
-                product.setDescription(row.getString("description"));
-                product.setColor(row.getString("color"));
-                product.setImageUrl(row.getString("image_url"));
-                product.setStock(row.getInt("stock"));
-                product.setFeatured(row.getBoolean("featured"));
-
-                // Map shopping cart item
-                ShoppingCartItem cartItem = new ShoppingCartItem();
-                cartItem.setProduct(product);
-                cartItem.setQuantity(row.getInt("quantity"));
 
-                // Add item to the cart
-                shoppingCart.add(cartItem);
+            try (ResultSet row = statement.executeQuery()) {
+                for (ShoppingCartItem cartItem : CART_ITEM_MAPPER.mapAll(row)) {
+                    shoppingCart.add(cartItem);
+                }
             }
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
         return shoppingCart;
     }
@@ -78,7 +75,7 @@ public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDa
 //            int rows = statement.executeUpdate();
 //            System.out.println(rows + " rows added");
 //        } catch (SQLException e) {
-//            throw new RuntimeException(e);
+//            throw new DaoException(e);
 //        }
         String checkSql = """
                 SELECT quantity FROM shopping_cart WHERE user_id = ? AND product_id = ?
@@ -93,29 +90,34 @@ public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDa
 
         try (Connection connection = getConnection()) {
             // Check if the product is already in the cart
-            PreparedStatement checkStatement = connection.prepareStatement(checkSql);
-            checkStatement.setInt(1, userId);
-            checkStatement.setInt(2, productId);
+            boolean inCart;
+            try (PreparedStatement checkStatement = connection.prepareStatement(checkSql)) {
+                checkStatement.setInt(1, userId);
+                checkStatement.setInt(2, productId);
+
+                try (ResultSet resultSet = checkStatement.executeQuery()) {
+                    inCart = resultSet.next();
+                }
+            }
 
-            ResultSet resultSet = checkStatement.executeQuery();
-            if (resultSet.next()) {
+            if (inCart) {
                 // Product exists in cart, update the quantity
-                PreparedStatement updateStatement = connection.prepareStatement(updateSql);
-                updateStatement.setInt(1, userId);
-                updateStatement.setInt(2, productId);
-                int rows = updateStatement.executeUpdate();
-                System.out.println(rows + " rows updated");
+                try (PreparedStatement updateStatement = connection.prepareStatement(updateSql)) {
+                    updateStatement.setInt(1, userId);
+                    updateStatement.setInt(2, productId);
+                    updateStatement.executeUpdate();
+                }
             } else {
                 // Product does not exist, insert a new record
-                PreparedStatement insertStatement = connection.prepareStatement(insertSql);
-                insertStatement.setInt(1, userId);
-                insertStatement.setInt(2, productId);
-                int rows = insertStatement.executeUpdate();
-                System.out.println(rows + " rows inserted");
+                try (PreparedStatement insertStatement = connection.prepareStatement(insertSql)) {
+                    insertStatement.setInt(1, userId);
+                    insertStatement.setInt(2, productId);
+                    insertStatement.executeUpdate();
+                }
             }
             return null;
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
@@ -125,8 +127,8 @@ public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDa
             SET quantity = ?
             WHERE user_id = ? AND product_id = ?
             """;
-        try (Connection connection = getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, newQuantity);
             statement.setInt(2, userId);
             statement.setInt(3, productId);
@@ -134,7 +136,7 @@ public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDa
             int rowsAffected = statement.executeUpdate();
             return rowsAffected > 0;  // Return true if the product was updated
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
@@ -143,13 +145,27 @@ public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDa
             DELETE FROM shopping_cart
             WHERE user_id = ?
             """;
-        try (Connection connection = getConnection()) {
-            PreparedStatement statement = connection.prepareStatement(sql);
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setInt(1, userId);
             statement.executeUpdate();
         } catch (SQLException e) {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
+    static final RowMapper<ShoppingCartItem> CART_ITEM_MAPPER = new RowMapper<>(
+            row -> {
+                Product product = new Product(row.getInt(0), row.getString(1), row.getBigDecimal(2), row.getInt(3),
+                        row.getString(4), row.getString(5), row.getInt(6), row.getBoolean(7), row.getString(8));
+
+                ShoppingCartItem cartItem = new ShoppingCartItem();
+                cartItem.setProduct(product);
+                cartItem.setQuantity(row.getInt(9));
+                return cartItem;
+            },
+            "product_id", "name", "price", "category_id", "description", "color", "stock", "featured", "image_url", "quantity")
+            // ?fields= narrows the product columns; the id, price and quantity are always selected
+            .optional("name", "category_id", "description", "color", "stock", "featured", "image_url");
+
 }
@@ -1,9 +1,11 @@
 package org.yearup.data.mysql;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.yearup.data.UserDao;
 import org.yearup.models.User;
+import org.yearup.exceptions.DaoException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import javax.sql.DataSource;
@@ -12,6 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Component
+@Profile("!embedded")
 public class MySqlUserDao extends MySqlDaoBase implements UserDao
 {
     @Autowired
@@ -27,9 +30,9 @@ public class MySqlUserDao extends MySqlDaoBase implements UserDao
         String sql = "INSERT INTO users (username, hashed_password, role) VALUES (?, ?, ?)";
         String hashedPassword = new BCryptPasswordEncoder().encode(newUser.getPassword());
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS))
         {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, newUser.getUsername());
             ps.setString(2, hashedPassword);
             ps.setString(3, newUser.getRole());
@@ -44,7 +47,7 @@ public class MySqlUserDao extends MySqlDaoBase implements UserDao
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
     }
 
@@ -54,48 +57,61 @@ public class MySqlUserDao extends MySqlDaoBase implements UserDao
         List<User> users = new ArrayList<>();
 
         String sql = "SELECT * FROM users";
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet row = statement.executeQuery())
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
+            users.addAll(USER_MAPPER.mapAll(row));
+        }
+        catch (SQLException e)
+        {
+            throw new DaoException(e);
+        }
 
-            ResultSet row = statement.executeQuery();
+        return users;
+    }
+
+    @Override
+    public List<String> getUsernames()
+    {
+        List<String> usernames = new ArrayList<>();
 
+        String sql = "SELECT username FROM users";
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet row = statement.executeQuery())
+        {
             while (row.next())
             {
-                User user = mapRow(row);
-                users.add(user);
+                usernames.add(row.getString(1));
             }
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
 
-        return users;
+        return usernames;
     }
 
     @Override
     public User getUserById(int id)
     {
         String sql = "SELECT * FROM users WHERE user_id = ?";
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setInt(1, id);
 
-            ResultSet row = statement.executeQuery();
-
-            if(row.next())
+            try (ResultSet row = statement.executeQuery())
             {
-                User user = mapRow(row);
-                return user;
+                return USER_MAPPER.mapFirst(row);
             }
         }
         catch (SQLException e)
         {
-            throw new RuntimeException(e);
+            throw new DaoException(e);
         }
-        return null;
     }
 
     @Override
@@ -105,25 +121,20 @@ public class MySqlUserDao extends MySqlDaoBase implements UserDao
                 " FROM users " +
                 " WHERE username = ?";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setString(1, username);
 
-            ResultSet row = statement.executeQuery();
-            if(row.next())
+            try (ResultSet row = statement.executeQuery())
             {
-
-                User user = mapRow(row);
-                return user;
+                return USER_MAPPER.mapFirst(row);
             }
         }
         catch (SQLException e)
         {
-            System.out.println(e);
+            throw new DaoException(e);
         }
-
-        return null;
     }
 
     @Override
@@ -146,13 +157,7 @@ public class MySqlUserDao extends MySqlDaoBase implements UserDao
         return user != null;
     }
 
-    private User mapRow(ResultSet row) throws SQLException
-    {
-        int userId = row.getInt("user_id");
-        String username = row.getString("username");
-        String hashedPassword = row.getString("hashed_password");
-        String role = row.getString("role");
-
-        return new User(userId, username,hashedPassword, role);
-    }
+    static final RowMapper<User> USER_MAPPER = new RowMapper<>(
+            row -> new User(row.getInt(0), row.getString(1), row.getString(2), row.getString(3)),
+            "user_id", "username", "hashed_password", "role");
 }
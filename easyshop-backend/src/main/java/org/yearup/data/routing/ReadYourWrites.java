@@ -0,0 +1,55 @@
+package org.yearup.data.routing;
+
+/**
+ * Tracks, per thread, whether reads must stay on the primary because the current request has written
+ * (or recently wrote) data that a replica may not have yet.
+ *
+ * {@link ReadYourWritesFilter} opens and closes the scope around every HTTP request.
+ */
+public final class ReadYourWrites
+{
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private ReadYourWrites()
+    {
+    }
+
+    /**
+     * Called when a statement that changes data is prepared on the primary.
+     */
+    public static void markWrite()
+    {
+        State state = STATE.get();
+        state.wrote = true;
+        state.pinned = true;
+    }
+
+    /**
+     * Sends every read for the rest of the scope to the primary.
+     */
+    public static void pinToPrimary()
+    {
+        STATE.get().pinned = true;
+    }
+
+    public static boolean isPinnedToPrimary()
+    {
+        return STATE.get().pinned;
+    }
+
+    public static boolean hasWritten()
+    {
+        return STATE.get().wrote;
+    }
+
+    public static void reset()
+    {
+        STATE.remove();
+    }
+
+    private static final class State
+    {
+        private boolean pinned;
+        private boolean wrote;
+    }
+}
@@ -0,0 +1,55 @@
+package org.yearup.data.routing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.yearup.cache.TtlCache;
+import org.yearup.security.SecurityUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Scopes {@link ReadYourWrites} to one HTTP request, and keeps a user's reads on the primary for a short window
+ * after any request of theirs wrote data, so e.g. GET /cart right after POST /cart/products/{id} sees the new item.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter
+{
+    private final TtlCache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(@Value("${easyshop.datasource.read-your-writes-window:2s}") Duration window)
+    {
+        this.recentWriters = new TtlCache<>("recentWriters", 100_000, window);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException
+    {
+        Optional<String> username = SecurityUtils.getCurrentUsername();
+        ReadYourWrites.reset();
+        try
+        {
+            if (username.isPresent() && recentWriters.get(username.get()) != null)
+            {
+                ReadYourWrites.pinToPrimary();
+            }
+
+            filterChain.doFilter(request, response);
+        }
+        finally
+        {
+            if (username.isPresent() && ReadYourWrites.hasWritten())
+            {
+                recentWriters.put(username.get(), Boolean.TRUE);
+            }
+            ReadYourWrites.reset();
+        }
+    }
+}
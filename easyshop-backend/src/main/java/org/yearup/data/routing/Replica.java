@@ -0,0 +1,45 @@
+package org.yearup.data.routing;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A replica DataSource together with the number of its connections that are currently in use.
+ */
+public final class Replica
+{
+    private final String name;
+    private final DataSource dataSource;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public Replica(String name, DataSource dataSource)
+    {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    public int inFlight()
+    {
+        return inFlight.get();
+    }
+
+    void acquired()
+    {
+        inFlight.incrementAndGet();
+    }
+
+    void released()
+    {
+        inFlight.decrementAndGet();
+    }
+}
@@ -0,0 +1,170 @@
+package org.yearup.data.routing;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Sends writes to a primary DataSource and lag-tolerant reads to a set of replicas.
+ *
+ * Connections handed out for the primary watch the SQL they prepare; the first statement that is not a plain
+ * query pins the rest of the current {@link ReadYourWrites} scope to the primary so a request can read back
+ * what it just wrote.
+ */
+public class ReplicaRoutingDataSource implements RoutingDataSource
+{
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaSelector selector;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReplicaSelector selector)
+    {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selector = selector;
+    }
+
+    public DataSource getPrimary()
+    {
+        return primary;
+    }
+
+    public List<Replica> getReplicas()
+    {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        return writeTracking(primary.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        return writeTracking(primary.getConnection(username, password));
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException
+    {
+        if (replicas.isEmpty() || ReadYourWrites.isPinnedToPrimary())
+        {
+            return getConnection();
+        }
+
+        Replica replica = selector.select(replicas);
+        Connection connection = replica.getDataSource().getConnection();
+        replica.acquired();
+        return inFlightTracking(connection, replica);
+    }
+
+    static boolean isQuery(String sql)
+    {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return statement.startsWith("select") || statement.startsWith("with") || statement.startsWith("show");
+    }
+
+    private static Connection writeTracking(Connection connection)
+    {
+        return proxy(connection, (target, method, args) -> {
+            switch (method.getName())
+            {
+                case "prepareStatement", "prepareCall" -> {
+                    if (!isQuery((String) args[0]))
+                        ReadYourWrites.markWrite();
+                }
+                case "createStatement" -> ReadYourWrites.markWrite();
+                case "setAutoCommit" -> {
+                    if (!(Boolean) args[0])
+                        ReadYourWrites.markWrite();
+                }
+                default -> { }
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    private static Connection inFlightTracking(Connection connection, Replica replica)
+    {
+        boolean[] released = {false};
+        return proxy(connection, (target, method, args) -> {
+            if (method.getName().equals("close") && !released[0])
+            {
+                released[0] = true;
+                replica.released();
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    private static Connection proxy(Connection connection, InvocationHandler handler)
+    {
+        InvocationHandler unwrapping = (proxy, method, args) -> {
+            try
+            {
+                return handler.invoke(connection, method, args);
+            }
+            catch (InvocationTargetException e)
+            {
+                throw e.getCause();
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(ReplicaRoutingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, unwrapping);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException
+    {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException
+    {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException
+    {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException
+    {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException
+    {
+        if (type.isInstance(this))
+            return type.cast(this);
+        return primary.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException
+    {
+        return type.isInstance(this) || primary.isWrapperFor(type);
+    }
+}
@@ -0,0 +1,58 @@
+package org.yearup.data.routing;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses which replica serves the next read.
+ */
+public interface ReplicaSelector
+{
+    Replica select(List<Replica> replicas);
+
+    static ReplicaSelector named(String name)
+    {
+        return switch (name.toLowerCase())
+        {
+            case "round-robin" -> new RoundRobin();
+            case "least-in-flight" -> new LeastInFlight();
+            default -> throw new IllegalArgumentException("Unknown replica selection '" + name + "', expected round-robin or least-in-flight");
+        };
+    }
+
+    /**
+     * Cycles through the replicas in order.
+     */
+    final class RoundRobin implements ReplicaSelector
+    {
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Override
+        public Replica select(List<Replica> replicas)
+        {
+            return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+        }
+    }
+
+    /**
+     * Picks the replica with the fewest connections currently checked out through the router; ties go to the
+     * first one in the list.
+     */
+    final class LeastInFlight implements ReplicaSelector
+    {
+        @Override
+        public Replica select(List<Replica> replicas)
+        {
+            Replica best = replicas.get(0);
+            for (int i = 1; i < replicas.size(); i++)
+            {
+                Replica candidate = replicas.get(i);
+                if (candidate.inFlight() < best.inFlight())
+                {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.yearup.data.routing;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A DataSource that can hand out connections for reads that tolerate replication lag.
+ *
+ * {@link #getConnection()} always returns a connection to the primary.
+ */
+public interface RoutingDataSource extends DataSource
+{
+    Connection getReadConnection() throws SQLException;
+}
@@ -0,0 +1,302 @@
+package org.yearup.data.unitofwork;
+
+import org.yearup.exceptions.DaoException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Binds database connections to the current thread so every DAO call inside a unit of work shares them instead
+ * of borrowing a pooled connection each.
+ *
+ * Connections are borrowed when first needed: one for reads and, if that one is a read-only replica connection,
+ * a second one for writes. Once a write connection is open, reads use it too. DAOs get the bound connection wrapped so
+ * their close() does nothing; the connections go back to the pool when the outermost {@link Scope} closes.
+ *
+ * A transactional scope turns auto-commit off on the write connection. The outermost transactional scope commits
+ * if {@link Scope#commit()} was called and rolls back otherwise. Nested scopes join the enclosing unit.
+ *
+ * <pre>
+ * try (UnitOfWork.Scope scope = UnitOfWork.beginTransaction())
+ * {
+ *     userDao.create(user);
+ *     profileDao.create(profile);
+ *     scope.commit();
+ * }
+ * </pre>
+ */
+public final class UnitOfWork
+{
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private DataSource dataSource;
+    private Connection readConnection;
+    private Connection writeConnection;
+    private int transactionDepth;
+    private boolean rollbackOnly;
+
+    private UnitOfWork()
+    {
+    }
+
+    /**
+     * @return the unit of work bound to the current thread, or null when there is none
+     */
+    public static UnitOfWork current()
+    {
+        return CURRENT.get();
+    }
+
+    public static Scope begin()
+    {
+        return open(false);
+    }
+
+    public static Scope beginTransaction()
+    {
+        return open(true);
+    }
+
+    /**
+     * Runs the work in a transaction, committing when it returns and rolling back when it throws.
+     */
+    public static <T> T inTransaction(Supplier<T> work)
+    {
+        try (Scope scope = beginTransaction())
+        {
+            T result = work.get();
+            scope.commit();
+            return result;
+        }
+    }
+
+    private static Scope open(boolean transactional)
+    {
+        UnitOfWork unitOfWork = CURRENT.get();
+        boolean owner = unitOfWork == null;
+        if (owner)
+        {
+            unitOfWork = new UnitOfWork();
+            CURRENT.set(unitOfWork);
+        }
+        if (transactional)
+        {
+            unitOfWork.startTransaction();
+        }
+        return unitOfWork.new Scope(owner, transactional);
+    }
+
+    /**
+     * The connection for writes, borrowed from the data source on first use.
+     */
+    public Connection getConnection(DataSource dataSource) throws SQLException
+    {
+        if (!bindsTo(dataSource))
+        {
+            return dataSource.getConnection();
+        }
+        if (writeConnection == null)
+        {
+            // a read connection that came from the primary can take writes as well
+            if (readConnection != null && !readConnection.isReadOnly())
+            {
+                writeConnection = readConnection;
+                readConnection = null;
+            }
+            else
+            {
+                writeConnection = dataSource.getConnection();
+            }
+            if (transactionDepth > 0)
+            {
+                writeConnection.setAutoCommit(false);
+            }
+        }
+        return unclosable(writeConnection);
+    }
+
+    /**
+     * The connection for reads: the write connection once there is one, otherwise the one the read supplier
+     * hands out on first use.
+     */
+    public Connection getReadConnection(DataSource dataSource, ConnectionSupplier readConnections) throws SQLException
+    {
+        if (!bindsTo(dataSource))
+        {
+            return readConnections.get();
+        }
+        if (writeConnection != null || transactionDepth > 0)
+        {
+            return getConnection(dataSource);
+        }
+        if (readConnection == null)
+        {
+            readConnection = readConnections.get();
+        }
+        return unclosable(readConnection);
+    }
+
+    // a unit of work serves the first data source that asks; any other one is left to its own pool
+    private boolean bindsTo(DataSource dataSource)
+    {
+        if (this.dataSource == null)
+        {
+            this.dataSource = dataSource;
+        }
+        return this.dataSource == dataSource;
+    }
+
+    private void startTransaction()
+    {
+        if (transactionDepth++ == 0)
+        {
+            rollbackOnly = false;
+            try
+            {
+                if (writeConnection != null)
+                {
+                    writeConnection.setAutoCommit(false);
+                }
+            }
+            catch (SQLException e)
+            {
+                throw new DaoException(e);
+            }
+        }
+    }
+
+    private void endTransaction(boolean committed)
+    {
+        if (!committed)
+        {
+            rollbackOnly = true;
+        }
+        if (--transactionDepth > 0 || writeConnection == null)
+        {
+            return;
+        }
+
+        try
+        {
+            if (rollbackOnly)
+            {
+                writeConnection.rollback();
+            }
+            else
+            {
+                writeConnection.commit();
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new DaoException(e);
+        }
+        finally
+        {
+            try
+            {
+                writeConnection.setAutoCommit(true);
+            }
+            catch (SQLException ignored)
+            {
+                // the pool validates the connection before handing it out again
+            }
+        }
+    }
+
+    private void release()
+    {
+        CURRENT.remove();
+        closeQuietly(readConnection);
+        closeQuietly(writeConnection);
+        readConnection = null;
+        writeConnection = null;
+    }
+
+    private static void closeQuietly(Connection connection)
+    {
+        if (connection == null) return;
+        try
+        {
+            connection.close();
+        }
+        catch (SQLException ignored)
+        {
+        }
+    }
+
+    private static Connection unclosable(Connection connection)
+    {
+        return (Connection) Proxy.newProxyInstance(UnitOfWork.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close"))
+                    {
+                        return null;
+                    }
+                    try
+                    {
+                        return method.invoke(connection, args);
+                    }
+                    catch (InvocationTargetException e)
+                    {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    public interface ConnectionSupplier
+    {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * One (possibly nested) use of the unit of work. Closing the outermost scope returns its connections.
+     */
+    public final class Scope implements AutoCloseable
+    {
+        private final boolean owner;
+        private final boolean transactional;
+        private boolean committed;
+        private boolean closed;
+
+        private Scope(boolean owner, boolean transactional)
+        {
+            this.owner = owner;
+            this.transactional = transactional;
+        }
+
+        /**
+         * Marks a transactional scope as successful; without it, closing the scope rolls the transaction back.
+         */
+        public void commit()
+        {
+            committed = true;
+        }
+
+        @Override
+        public void close()
+        {
+            if (closed) return;
+            closed = true;
+            try
+            {
+                if (transactional)
+                {
+                    endTransaction(committed);
+                }
+            }
+            finally
+            {
+                if (owner)
+                {
+                    release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.yearup.data.unitofwork;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Opens a {@link UnitOfWork} around every HTTP request so all the DAO calls a controller makes share one pooled
+ * connection (easyshop.datasource.unit-of-work-per-request).
+ */
+@Component
+public class UnitOfWorkFilter extends OncePerRequestFilter
+{
+    private final boolean enabled;
+
+    public UnitOfWorkFilter(@Value("${easyshop.datasource.unit-of-work-per-request:true}") boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    @Override
+    @SuppressWarnings("try") // the scope is only held open for the rest of the chain
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException
+    {
+        if (!enabled)
+        {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try (UnitOfWork.Scope scope = UnitOfWork.begin())
+        {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.yearup.events;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * A change to the catalog, pushed to /events/catalog subscribers. The type is the SSE event name; the data is only
+ * what a client needs to patch the list it holds, e.g. {"productId":5,"price":599.99,"stock":12}. A bulk update
+ * sends one products-updated event with empty data, telling clients to fetch their lists again.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CatalogEvent(@JsonIgnore String type, Integer productId, BigDecimal price, Integer stock)
+{
+    public static final String CREATED = "product-created";
+    public static final String UPDATED = "product-updated";
+    public static final String DELETED = "product-deleted";
+    public static final String BULK_UPDATED = "products-updated";
+
+    public static CatalogEvent created(Product product)
+    {
+        return new CatalogEvent(CREATED, product.getProductId(), product.getPrice(), product.getStock());
+    }
+
+    public static CatalogEvent updated(int productId, Product product)
+    {
+        return new CatalogEvent(UPDATED, productId, product.getPrice(), product.getStock());
+    }
+
+    public static CatalogEvent deleted(int productId)
+    {
+        return new CatalogEvent(DELETED, productId, null, null);
+    }
+
+    public static CatalogEvent bulkUpdated()
+    {
+        return new CatalogEvent(BULK_UPDATED, null, null, null);
+    }
+}
@@ -0,0 +1,253 @@
+package org.yearup.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans {@link CatalogEvent}s out to the open /events/catalog streams (easyshop.events.*).
+ *
+ * A stream is an async request, so an idle subscriber holds a connection but no request thread. Publishing never
+ * blocks: each event is serialized once and offered to every subscriber's bounded buffer, and a small sender pool
+ * drains the buffers, one task per subscriber at a time. A subscriber whose buffer is full is too slow to keep up;
+ * its stream is closed and the client's EventSource reconnects. Heartbeats go through the same buffers, so a dead
+ * connection is found by the write that fails or by its buffer filling up.
+ */
+@Component
+public class CatalogEventBroadcaster implements MeterBinder, DisposableBean
+{
+    private static final Frame HEARTBEAT = new Frame(null, null);
+    private static final Frame CLOSE = new Frame(null, null);
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maximumSubscribers;
+    private final Duration timeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeats;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public CatalogEventBroadcaster(ObjectMapper objectMapper,
+                                   @Value("${easyshop.events.buffer-size:64}") int bufferSize,
+                                   @Value("${easyshop.events.max-subscribers:10000}") int maximumSubscribers,
+                                   @Value("${easyshop.events.timeout:30m}") Duration timeout,
+                                   @Value("${easyshop.events.heartbeat:25s}") Duration heartbeat,
+                                   @Value("${easyshop.events.threads:2}") int threads)
+    {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maximumSubscribers = maximumSubscribers;
+        this.timeout = timeout;
+        // a subscriber has at most one drain queued, so this queue is bounded by the subscriber count
+        this.senders = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                threadFactory("catalog-events-"));
+        this.senders.allowCoreThreadTimeOut(true);
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(threadFactory("catalog-events-heartbeat-"));
+        this.heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return a new stream, or null when easyshop.events.max-subscribers streams are already open
+     */
+    public SseEmitter subscribe()
+    {
+        if (subscribers.size() >= maximumSubscribers) return null;
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // sent straight away so the response is committed and proxies pass the stream through
+        offer(subscriber, HEARTBEAT);
+        return emitter;
+    }
+
+    public void publish(CatalogEvent event)
+    {
+        Frame frame;
+        try
+        {
+            frame = new Frame(event.type(), objectMapper.writeValueAsString(event));
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new RuntimeException(e);
+        }
+
+        published.incrementAndGet();
+        for (Subscriber subscriber : subscribers)
+        {
+            offer(subscriber, frame);
+        }
+    }
+
+    public int subscriberCount()
+    {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        new ExecutorServiceMetrics(senders, "catalog-events", Tags.empty()).bindTo(registry);
+        Gauge.builder("events.catalog.subscribers", subscribers, Set::size)
+                .description("Open /events/catalog streams.")
+                .register(registry);
+        FunctionCounter.builder("events.catalog.published", published, AtomicLong::get)
+                .description("Catalog events published.")
+                .register(registry);
+        FunctionCounter.builder("events.catalog.evicted", evicted, AtomicLong::get)
+                .description("Streams closed because the subscriber fell a full buffer behind.")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy()
+    {
+        heartbeats.shutdownNow();
+        for (Subscriber subscriber : subscribers)
+        {
+            close(subscriber);
+        }
+        senders.shutdown();
+    }
+
+    private void heartbeat()
+    {
+        for (Subscriber subscriber : subscribers)
+        {
+            offer(subscriber, HEARTBEAT);
+        }
+    }
+
+    private void offer(Subscriber subscriber, Frame frame)
+    {
+        if (subscriber.closed.get()) return;
+
+        if (!subscriber.buffer.offer(frame))
+        {
+            evicted.incrementAndGet();
+            close(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    // the stream is completed by its own drain, so a send stuck on a slow socket never blocks the caller
+    private void close(Subscriber subscriber)
+    {
+        if (!subscriber.closed.compareAndSet(false, true)) return;
+
+        subscribers.remove(subscriber);
+        subscriber.buffer.clear();
+        subscriber.buffer.offer(CLOSE);
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber)
+    {
+        if (subscriber.draining.compareAndSet(false, true))
+        {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber)
+    {
+        try
+        {
+            Frame frame;
+            while ((frame = subscriber.buffer.poll()) != null)
+            {
+                if (frame == CLOSE)
+                {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                if (frame == HEARTBEAT)
+                {
+                    subscriber.emitter.send(SseEmitter.event().comment(""));
+                }
+                else
+                {
+                    subscriber.emitter.send(SseEmitter.event().name(frame.name()).data(frame.json(), MediaType.APPLICATION_JSON));
+                }
+            }
+        }
+        catch (IOException | IllegalStateException e)
+        {
+            // the client went away, or the stream already timed out
+            subscriber.closed.set(true);
+            subscribers.remove(subscriber);
+            subscriber.buffer.clear();
+        }
+        finally
+        {
+            subscriber.draining.set(false);
+        }
+
+        // a frame offered after the last poll but before draining was cleared would otherwise wait for the next one
+        if (!subscriber.buffer.isEmpty())
+        {
+            schedule(subscriber);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix)
+    {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Frame(String name, String json)
+    {
+    }
+
+    private static final class Subscriber
+    {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Frame> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, ArrayBlockingQueue<Frame> buffer)
+        {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
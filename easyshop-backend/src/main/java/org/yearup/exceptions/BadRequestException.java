@@ -0,0 +1,14 @@
+package org.yearup.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+// 400 for a request the client has to change, without a stack trace
+public class BadRequestException extends EasyshopException
+{
+    private static final long serialVersionUID = 1L;
+
+    public BadRequestException(String message)
+    {
+        super(HttpStatus.BAD_REQUEST, message, null, false);
+    }
+}
@@ -0,0 +1,29 @@
+package org.yearup.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+
+// a DAO could not reach or query its store; a 500, logged with the stack trace and the cause
+public class DaoException extends EasyshopException
+{
+    private static final long serialVersionUID = 1L;
+
+    public DaoException(Throwable cause)
+    {
+        super(HttpStatus.INTERNAL_SERVER_ERROR, cause.getMessage(), cause, true);
+    }
+
+    public DaoException(String message)
+    {
+        super(HttpStatus.INTERNAL_SERVER_ERROR, message, null, true);
+    }
+
+    /**
+     * @return true when the statement broke a unique or foreign key, e.g. an insert of a username that is taken
+     */
+    public boolean isConstraintViolation()
+    {
+        return getCause() instanceof SQLIntegrityConstraintViolationException;
+    }
+}
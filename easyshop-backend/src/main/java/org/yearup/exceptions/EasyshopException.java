@@ -0,0 +1,27 @@
+package org.yearup.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The errors the application raises itself, each with the HTTP status {@link GlobalExceptionHandler} answers with.
+ *
+ * Expected outcomes (a missing product, a bad parameter) are created without a stack trace: they are answered,
+ * never logged, and bots probing for ids can raise them at a high rate. Failures keep theirs.
+ */
+public abstract class EasyshopException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus status;
+
+    protected EasyshopException(HttpStatus status, String message, Throwable cause, boolean stackTrace)
+    {
+        super(message, cause, false, stackTrace);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus()
+    {
+        return status;
+    }
+}
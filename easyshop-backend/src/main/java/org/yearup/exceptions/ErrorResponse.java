@@ -0,0 +1,8 @@
+package org.yearup.exceptions;
+
+import java.time.Instant;
+
+// the same properties as Spring Boot's own error body, so clients see one shape whichever path produced it
+public record ErrorResponse(Instant timestamp, int status, String error, String message, String path)
+{
+}
@@ -0,0 +1,86 @@
+package org.yearup.exceptions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Instant;
+
+/**
+ * Answers every exception a controller throws with an {@link ErrorResponse}: {@link EasyshopException}s with their
+ * own status, Spring MVC's (a missing parameter, an unsupported method) with the status Spring gives them, and
+ * anything else as a 500. The response is written here, rather than with sendError, which would send the request
+ * through the filter chain again to reach Spring Boot's /error page.
+ *
+ * Only 500s are logged; their message stays in the log and the client gets "Oops... our bad.". Access denied and
+ * authentication failures are left to Spring Security, which answers them with a 403 or 401.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler
+{
+    private static final Logger LOG = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @ExceptionHandler(EasyshopException.class)
+    public ResponseEntity<Object> handle(EasyshopException ex, HttpServletRequest request)
+    {
+        return respond(ex, ex.getStatus(), ex.getMessage(), HttpHeaders.EMPTY, request);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Object> handle(ResponseStatusException ex, HttpServletRequest request)
+    {
+        return respond(ex, ex.getStatus(), ex.getReason(), ex.getResponseHeaders(), request);
+    }
+
+    @ExceptionHandler({AccessDeniedException.class, AuthenticationException.class})
+    public void rethrow(RuntimeException ex)
+    {
+        // rethrowing the same exception makes Spring MVC pass it on to the security filters untouched
+        throw ex;
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Object> handleUnexpected(Exception ex, HttpServletRequest request)
+    {
+        return respond(ex, HttpStatus.INTERNAL_SERVER_ERROR, null, HttpHeaders.EMPTY, request);
+    }
+
+    // the standard Spring MVC exceptions, with the status and headers (e.g. Allow) ResponseEntityExceptionHandler picked
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+                                                             HttpStatus status, WebRequest request)
+    {
+        // Jackson's parse errors quote the body and name internal classes, so the client only hears what went wrong
+        String message = ex instanceof HttpMessageNotReadableException ? "The request body could not be read" : ex.getMessage();
+        return respond(ex, status, message, headers, ((ServletWebRequest) request).getRequest());
+    }
+
+    private static ResponseEntity<Object> respond(Exception ex, HttpStatus status, String message, HttpHeaders headers,
+                                                  HttpServletRequest request)
+    {
+        if (status == HttpStatus.INTERNAL_SERVER_ERROR)
+        {
+            LOG.error("{} {} failed", request.getMethod(), request.getRequestURI(), ex);
+            message = "Oops... our bad.";
+        }
+
+        // JSON whatever the handler produces or the client accepts, so an event stream or a 406 still gets a body
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponse(Instant.now(), status.value(), status.getReasonPhrase(), message, request.getRequestURI()));
+    }
+}
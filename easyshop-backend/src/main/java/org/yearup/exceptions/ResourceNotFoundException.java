@@ -0,0 +1,14 @@
+package org.yearup.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+// 404, without a stack trace
+public class ResourceNotFoundException extends EasyshopException
+{
+    private static final long serialVersionUID = 1L;
+
+    public ResourceNotFoundException(String message)
+    {
+        super(HttpStatus.NOT_FOUND, message, null, false);
+    }
+}
@@ -0,0 +1,14 @@
+package org.yearup.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+// 503 when the server is too busy to take the request right now and the client should try again, without a stack trace
+public class ServiceUnavailableException extends EasyshopException
+{
+    private static final long serialVersionUID = 1L;
+
+    public ServiceUnavailableException(String message)
+    {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message, null, false);
+    }
+}
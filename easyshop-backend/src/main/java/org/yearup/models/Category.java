@@ -1,5 +1,7 @@
 package org.yearup.models;
 
+import java.util.Objects;
+
 public class Category
 {
     private int categoryId;
@@ -46,4 +48,21 @@ public class Category
     {
         this.description = description;
     }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Category category = (Category) o;
+        return categoryId == category.categoryId &&
+                Objects.equals(name, category.name) &&
+                Objects.equals(description, category.description);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(categoryId, name, description);
+    }
 }
@@ -1,6 +1,7 @@
 package org.yearup.models;
 
 import java.math.BigDecimal;
+import java.util.Objects;
 
 public class Product
 {
@@ -120,4 +121,27 @@ public class Product
     {
         this.imageUrl = imageUrl;
     }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Product product = (Product) o;
+        return productId == product.productId &&
+                categoryId == product.categoryId &&
+                stock == product.stock &&
+                isFeatured == product.isFeatured &&
+                Objects.equals(name, product.name) &&
+                Objects.equals(price, product.price) &&
+                Objects.equals(description, product.description) &&
+                Objects.equals(color, product.color) &&
+                Objects.equals(imageUrl, product.imageUrl);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(productId, name, price, categoryId, description, color, stock, isFeatured, imageUrl);
+    }
 }
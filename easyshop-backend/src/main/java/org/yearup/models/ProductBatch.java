@@ -0,0 +1,29 @@
+package org.yearup.models;
+
+import java.util.List;
+
+/**
+ * The answer to a request for several products by id: the products found, in the order they were asked for, and
+ * the ids that have no product.
+ */
+public class ProductBatch
+{
+    private final List<Product> products;
+    private final List<Integer> missing;
+
+    public ProductBatch(List<Product> products, List<Integer> missing)
+    {
+        this.products = products;
+        this.missing = missing;
+    }
+
+    public List<Product> getProducts()
+    {
+        return products;
+    }
+
+    public List<Integer> getMissing()
+    {
+        return missing;
+    }
+}
@@ -0,0 +1,27 @@
+package org.yearup.models;
+
+/**
+ * What a {@link ProductBulkUpdate} did: the number of products it updated and the number of primary key ranges it
+ * was run in, each its own statement.
+ */
+public class ProductBulkResult
+{
+    private final int updated;
+    private final int chunks;
+
+    public ProductBulkResult(int updated, int chunks)
+    {
+        this.updated = updated;
+        this.chunks = chunks;
+    }
+
+    public int getUpdated()
+    {
+        return updated;
+    }
+
+    public int getChunks()
+    {
+        return chunks;
+    }
+}
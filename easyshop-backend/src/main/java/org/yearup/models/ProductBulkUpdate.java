@@ -0,0 +1,132 @@
+package org.yearup.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A change applied to every product matching a filter, e.g. {"categoryId":2,"pricePercent":-10} for 10% off a
+ * category or {"color":"Black","stockChange":50,"featured":true}.
+ *
+ * The filter takes the same fields as the product search; fields left out don't filter. Of the changes, the price
+ * moves by a percentage or by an amount (not both), stock moves by a number of units, and featured is set. Prices
+ * and stock never go below zero.
+ */
+public class ProductBulkUpdate
+{
+    private Integer categoryId;
+    private String color;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    private BigDecimal pricePercent;
+    private BigDecimal priceChange;
+    private Integer stockChange;
+    private Boolean featured;
+
+    public ProductBulkUpdate()
+    {
+    }
+
+    public Integer getCategoryId()
+    {
+        return categoryId;
+    }
+
+    public void setCategoryId(Integer categoryId)
+    {
+        this.categoryId = categoryId;
+    }
+
+    public String getColor()
+    {
+        return color;
+    }
+
+    public void setColor(String color)
+    {
+        this.color = color;
+    }
+
+    public BigDecimal getMinPrice()
+    {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice)
+    {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice()
+    {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice)
+    {
+        this.maxPrice = maxPrice;
+    }
+
+    public BigDecimal getPricePercent()
+    {
+        return pricePercent;
+    }
+
+    public void setPricePercent(BigDecimal pricePercent)
+    {
+        this.pricePercent = pricePercent;
+    }
+
+    public BigDecimal getPriceChange()
+    {
+        return priceChange;
+    }
+
+    public void setPriceChange(BigDecimal priceChange)
+    {
+        this.priceChange = priceChange;
+    }
+
+    public Integer getStockChange()
+    {
+        return stockChange;
+    }
+
+    public void setStockChange(Integer stockChange)
+    {
+        this.stockChange = stockChange;
+    }
+
+    public Boolean getFeatured()
+    {
+        return featured;
+    }
+
+    public void setFeatured(Boolean featured)
+    {
+        this.featured = featured;
+    }
+
+    public boolean hasChanges()
+    {
+        return pricePercent != null || priceChange != null || stockChange != null || featured != null;
+    }
+
+    /**
+     * @return the product with the changes made, as the UPDATE in MySqlProductDao.updateAll makes them
+     */
+    public Product applyTo(Product product)
+    {
+        BigDecimal price = product.getPrice();
+        if (pricePercent != null)
+            price = price.multiply(BigDecimal.valueOf(100).add(pricePercent)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        if (priceChange != null)
+            price = price.add(priceChange);
+
+        int stock = stockChange == null ? product.getStock() : product.getStock() + stockChange;
+        boolean isFeatured = featured == null ? product.isFeatured() : featured;
+
+        return new Product(product.getProductId(), product.getName(), price.max(BigDecimal.ZERO), product.getCategoryId(),
+                product.getDescription(), product.getColor(), Math.max(0, stock), isFeatured, product.getImageUrl());
+    }
+}
@@ -0,0 +1,129 @@
+package org.yearup.models;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The fields of a {@link Product} a client can ask for with ?fields=, e.g. fields=productId,name,price,imageUrl.
+ * A field set narrows both the columns the DAOs select and the properties written to JSON. productId is always
+ * included; null means every field.
+ */
+public enum ProductField
+{
+    PRODUCT_ID("productId", "product_id"),
+    NAME("name", "name"),
+    PRICE("price", "price"),
+    CATEGORY_ID("categoryId", "category_id"),
+    DESCRIPTION("description", "description"),
+    COLOR("color", "color"),
+    STOCK("stock", "stock"),
+    FEATURED("featured", "featured"),
+    IMAGE_URL("imageUrl", "image_url");
+
+    public static final String FILTER_ID = "productFields";
+
+    private final String property;
+    private final String column;
+
+    ProductField(String property, String column)
+    {
+        this.property = property;
+        this.column = column;
+    }
+
+    public String property()
+    {
+        return property;
+    }
+
+    public String column()
+    {
+        return column;
+    }
+
+    /**
+     * @return the requested fields plus productId, or null when the parameter is absent or blank
+     * @throws IllegalArgumentException for a name that is not a product property
+     */
+    public static Set<ProductField> parse(String fields)
+    {
+        if (fields == null || fields.isBlank()) return null;
+
+        Set<ProductField> parsed = EnumSet.of(PRODUCT_ID);
+        for (String name : fields.split(","))
+        {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) continue;
+
+            ProductField field = null;
+            for (ProductField candidate : values())
+            {
+                if (candidate.property.equalsIgnoreCase(trimmed)) field = candidate;
+            }
+            if (field == null)
+                throw new IllegalArgumentException("Unknown product field '" + trimmed + "'; expected some of "
+                        + EnumSet.allOf(ProductField.class).stream().map(ProductField::property).collect(Collectors.joining(",")));
+            parsed.add(field);
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    /**
+     * @return the columns to select for the fields, qualified with the table alias if one is given
+     */
+    public static String columns(Set<ProductField> fields, String alias)
+    {
+        String prefix = alias == null ? "" : alias + ".";
+        return (fields == null ? EnumSet.allOf(ProductField.class) : fields).stream()
+                .map(field -> prefix + field.column)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Jackson filters that write only the given fields of a Product (all of them for null). They take effect on an
+     * ObjectMapper that has {@link MixIn} registered for Product, as the application's does.
+     */
+    public static Filters filters(Set<ProductField> fields)
+    {
+        return new Filters(fields);
+    }
+
+    /**
+     * @return the fields the filters let through, null for all of them or for filters not made by {@link #filters}
+     */
+    public static Set<ProductField> of(FilterProvider filters)
+    {
+        return filters instanceof Filters productFilters ? productFilters.fields : null;
+    }
+
+    @JsonFilter(FILTER_ID)
+    public interface MixIn
+    {
+    }
+
+    // keeps the field set so writers other than Jackson (protobuf) can narrow the same way
+    public static final class Filters extends SimpleFilterProvider
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Set<ProductField> fields;
+
+        private Filters(Set<ProductField> fields)
+        {
+            this.fields = fields;
+            setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+            if (fields != null)
+            {
+                addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(
+                        fields.stream().map(ProductField::property).collect(Collectors.toSet())));
+            }
+        }
+    }
+}
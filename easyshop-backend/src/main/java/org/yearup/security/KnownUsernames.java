@@ -0,0 +1,131 @@
+package org.yearup.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.yearup.cache.BloomFilter;
+import org.yearup.data.UserDao;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Bloom filter of every username, loaded when the application is ready (easyshop.users.bloom.*), so most
+ * "is this username taken?" checks for a free name are answered without a query.
+ *
+ * The filter never forgets a username it was given, so "taken" is always checked against the database and only
+ * "free" is answered from here. Users registered through this instance are added as they are created; the filter is
+ * rebuilt from the database every rebuild-interval for the ones registered elsewhere. Until the first load succeeds
+ * every name is "maybe taken" and goes to the database as before.
+ */
+@Component
+public class KnownUsernames implements MeterBinder, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KnownUsernames.class);
+
+    private final UserDao userDao;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService rebuilds;
+    private final AtomicLong answered = new AtomicLong();
+
+    private volatile BloomFilter filter;
+    // users created while a rebuild reads the database, added to the new filter once it is in place
+    private volatile Queue<String> pending;
+
+    public KnownUsernames(UserDao userDao,
+                          @Value("${easyshop.users.bloom.expected-insertions:100000}") long expectedUsers,
+                          @Value("${easyshop.users.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${easyshop.users.bloom.rebuild-interval:10m}") Duration rebuildInterval) {
+        this.userDao = userDao;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "known-usernames-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+        rebuilds.scheduleWithFixedDelay(this::rebuild, rebuildInterval.toMillis(), rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return false only for a username no user has
+     */
+    public boolean mightExist(String username) {
+        BloomFilter current = filter;
+        if (current == null || current.mightContain(key(username))) return true;
+
+        answered.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Must be called once a user is created, after the insert has committed.
+     */
+    public void add(String username) {
+        // pending before filter: a name queued after the rebuild drained the queue finds the new filter in place
+        Queue<String> queue = pending;
+        if (queue != null) queue.add(key(username));
+
+        BloomFilter current = filter;
+        if (current != null) current.add(key(username));
+    }
+
+    synchronized void rebuild() {
+        Queue<String> added = new ConcurrentLinkedQueue<>();
+        pending = added;
+        try {
+            List<String> usernames = userDao.getUsernames();
+            // sized for twice today's users, so registrations until the next rebuild keep the rate near the one asked for
+            BloomFilter next = new BloomFilter(Math.max(expectedUsers, usernames.size() * 2L), falsePositiveRate);
+            for (String username : usernames) {
+                next.add(key(username));
+            }
+            filter = next;
+            pending = null;
+            for (String username : added) {
+                next.add(username);
+            }
+            LOG.debug("Loaded {} usernames into a {} bit Bloom filter", usernames.size(), next.bitCount());
+        } catch (RuntimeException e) {
+            pending = null;
+            LOG.warn("Could not load the usernames, the previous filter is kept until the next rebuild", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("users.exists.filtered", answered, AtomicLong::get)
+                .description("Username checks answered by the Bloom filter without a query.")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        rebuilds.shutdownNow();
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase();
+    }
+}
@@ -0,0 +1,61 @@
+package org.yearup.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.yearup.cache.TtlCache;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of the {@link UserDetails} built by {@link UserModelDetailsService}, keyed by lower case username.
+ *
+ * Spring Security erases the password of the principal after a successful login, so callers always get a copy
+ * and never the cached instance.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private final TtlCache<String, UserDetails> cache;
+
+    public UserDetailsCache(@Value("${easyshop.cache.user-details.maximum-size:10000}") int maximumSize,
+                            @Value("${easyshop.cache.user-details.ttl:60s}") Duration ttl) {
+        this.cache = new TtlCache<>("userDetails", maximumSize, ttl);
+    }
+
+    public UserDetails get(String username) {
+        UserDetails cached = cache.get(key(username));
+        return cached == null ? null : User.withUserDetails(cached).build();
+    }
+
+    public void put(String username, UserDetails userDetails) {
+        cache.put(key(username), User.withUserDetails(userDetails).build());
+    }
+
+    /**
+     * Must be called whenever a user is created or their credentials or roles change.
+     */
+    public void evict(String username) {
+        cache.invalidate(key(username));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public double hitRatio() {
+        return cache.hitRatio();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry);
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase();
+    }
+}
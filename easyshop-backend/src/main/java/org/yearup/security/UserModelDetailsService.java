@@ -1,6 +1,7 @@
 package org.yearup.security;
 
 
+import org.yearup.cache.NegativeLookupCache;
 import org.yearup.data.UserDao;
 import org.yearup.models.User;
 import org.slf4j.Logger;
@@ -9,6 +10,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -23,16 +25,39 @@ public class UserModelDetailsService implements UserDetailsService {
     private final Logger log = LoggerFactory.getLogger(UserModelDetailsService.class);
 
     private final UserDao userDao;
+    private final UserDetailsCache userDetailsCache;
+    private final NegativeLookupCache negativeLookups;
 
-    public UserModelDetailsService(UserDao userDao) {
+    public UserModelDetailsService(UserDao userDao, UserDetailsCache userDetailsCache, NegativeLookupCache negativeLookups) {
         this.userDao = userDao;
+        this.userDetailsCache = userDetailsCache;
+        this.negativeLookups = negativeLookups;
     }
 
     @Override
     public UserDetails loadUserByUsername(final String login) {
         log.debug("Authenticating user '{}'", login);
         String lowercaseLogin = login.toLowerCase();
-        return createSpringSecurityUser(lowercaseLogin, userDao.getByUserName(lowercaseLogin));
+
+        UserDetails cached = userDetailsCache.get(lowercaseLogin);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (negativeLookups.isMissingUsername(lowercaseLogin)) {
+            throw new UsernameNotFoundException("User " + lowercaseLogin + " was not found");
+        }
+
+        // a failed query throws a DaoException before anything is cached; only a query that found no row is a miss
+        User user = userDao.getByUserName(lowercaseLogin);
+        if (user == null) {
+            negativeLookups.usernameMissing(lowercaseLogin);
+            throw new UsernameNotFoundException("User " + lowercaseLogin + " was not found");
+        }
+
+        UserDetails userDetails = createSpringSecurityUser(lowercaseLogin, user);
+        userDetailsCache.put(lowercaseLogin, userDetails);
+        return userDetails;
     }
 
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
@@ -47,4 +72,3 @@ public class UserModelDetailsService implements UserDetailsService {
                 grantedAuthorities);
     }
 }
-
@@ -67,6 +67,13 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
 
+                // operational endpoints are for admins only; everything else is secured per controller method
+                .and()
+                .authorizeRequests()
+                .antMatchers("/actuator/health").permitAll()
+                .antMatchers("/actuator/**").hasRole("ADMIN")
+                .anyRequest().permitAll()
+
                 .and()
                 .apply(securityConfigurerAdapter());
     }
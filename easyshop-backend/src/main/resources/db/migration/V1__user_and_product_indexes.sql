@@ -0,0 +1,13 @@
+-- Every authenticated request looks its user up by name (UserModelDetailsService, SecurityUtils).
+-- Usernames are already treated as unique by /register; the index enforces it.
+CREATE UNIQUE INDEX ux_users_username ON users (username);
+
+-- GET /products?cat=&minPrice=&maxPrice= and GET /categories/{id}/products.
+-- The leading category_id column also covers the foreign key, and price serves the range.
+CREATE INDEX ix_products_category_price ON products (category_id, price);
+
+-- GET /products?color=
+CREATE INDEX ix_products_color ON products (color);
+
+-- the featured products shown on the home page
+CREATE INDEX ix_products_featured ON products (featured);
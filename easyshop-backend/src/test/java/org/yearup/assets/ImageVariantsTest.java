@@ -0,0 +1,86 @@
+package org.yearup.assets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageVariantsTest
+{
+    private static final int[] SIZES = {64, 100, 200, 300, 400, 600, 800, 1200, 1600};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void variant_shouldFitTheBox_andBeMadeOnce() throws Exception
+    {
+        // arrange
+        Asset source = image("laptop.jpg", 800, 600);
+        ImageVariants variants = new ImageVariants(directory.resolve("variants"), DataSize.ofMegabytes(1), 1600, SIZES, 0.85f, 2, 10);
+
+        // act
+        CompletableFuture<Asset> first = variants.variant(source, 200, 200);
+        CompletableFuture<Asset> second = variants.variant(source, 200, 200);
+        Asset variant = first.get();
+
+        // assert
+        BufferedImage resized = ImageIO.read(variant.file().toFile());
+        assertEquals(200, resized.getWidth());
+        assertEquals(150, resized.getHeight(), "Because the proportions are kept.");
+        assertEquals(variant.file(), second.get().file());
+        try (var files = Files.list(directory.resolve("variants")))
+        {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void variant_shouldDropTheLeastRecentlyUsed_whenTheDirectoryIsFull() throws Exception
+    {
+        // arrange
+        Asset source = image("camera.png", 400, 400);
+        ImageVariants variants = new ImageVariants(directory.resolve("variants"), DataSize.ofBytes(1), 1600, SIZES, 0.85f, 1, 10);
+        Asset small = variants.variant(source, 100, 0).get();
+
+        // act
+        Asset smaller = variants.variant(source, 50, 0).get();
+
+        // assert
+        assertFalse(Files.exists(small.file()), "Because only the newest variant fits in one byte.");
+        assertTrue(Files.exists(smaller.file()));
+    }
+
+    @Test
+    public void variant_shouldRoundTheBoxUp_toAConfiguredSize() throws Exception
+    {
+        // arrange
+        Asset source = image("lamp.jpg", 800, 600);
+        ImageVariants variants = new ImageVariants(directory.resolve("variants"), DataSize.ofMegabytes(1), 1600, SIZES, 0.85f, 2, 10);
+
+        // act
+        Asset odd = variants.variant(source, 187, 0).get();
+        Asset even = variants.variant(source, 200, 0).get();
+
+        // assert
+        assertEquals(200, ImageIO.read(odd.file().toFile()).getWidth());
+        assertEquals(odd.file(), even.file(), "Because 187 and 200 both round up to the 200 variant.");
+        assertEquals(1600, variants.snap(1201));
+    }
+
+    private Asset image(String name, int width, int height) throws Exception
+    {
+        Path file = directory.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), name.endsWith(".png") ? "png" : "jpg", file.toFile());
+        return new StaticAssets(directory, DataSize.ofKilobytes(64), 10).find("/" + name);
+    }
+}
@@ -0,0 +1,68 @@
+package org.yearup.assets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StaticAssetsTest
+{
+    @TempDir
+    Path directory;
+
+    @Test
+    public void find_shouldHashAgain_whenTheFileChanges() throws Exception
+    {
+        // arrange
+        Path logo = Files.createDirectories(directory.resolve("images")).resolve("logo.png");
+        Files.writeString(logo, "first");
+        StaticAssets assets = new StaticAssets(directory, DataSize.ofKilobytes(64), 10);
+        Asset before = assets.find("/images/logo.png");
+
+        // act
+        Files.writeString(logo, "second");
+        Files.setLastModifiedTime(logo, FileTime.from(Instant.now().plusSeconds(60)));
+        Asset after = assets.find("/images/logo.png");
+
+        // assert
+        assertNotEquals(before.hash(), after.hash());
+        assertEquals("/assets/" + after.hash() + "/images/logo.png", after.versionedUrl());
+        assertArrayEquals("second".getBytes(), assets.content(after), "Because contents are cached by hash.");
+    }
+
+    @Test
+    public void find_shouldNotServe_outsideTheDirectoryOrDotFiles() throws Exception
+    {
+        // arrange
+        Files.createDirectories(directory.resolve("site/.idea"));
+        Files.writeString(directory.resolve("secret.txt"), "secret");
+        Files.writeString(directory.resolve("site/.idea/workspace.xml"), "<project/>");
+        StaticAssets assets = new StaticAssets(directory.resolve("site"), DataSize.ofKilobytes(64), 10);
+
+        // assert
+        assertNull(assets.find("/../secret.txt"));
+        assertNull(assets.find("/.idea/workspace.xml"));
+        assertNull(assets.find("/missing.js"));
+    }
+
+    @Test
+    public void parse_shouldHandleSingleRanges()
+    {
+        // assert
+        assertEquals(new ByteRange(0, 99), ByteRange.parse("bytes=0-99", 1000));
+        assertEquals(new ByteRange(900, 999), ByteRange.parse("bytes=900-", 1000));
+        assertEquals(new ByteRange(950, 999), ByteRange.parse("bytes=-50", 1000));
+        assertEquals(new ByteRange(990, 999), ByteRange.parse("bytes=990-5000", 1000));
+        assertEquals(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=1000-", 1000));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 1000), "Because multiple ranges get the whole file.");
+    }
+}
@@ -0,0 +1,33 @@
+package org.yearup.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest
+{
+    @Test
+    public void mightContain_shouldFindEveryAddedValue_andFewOthers()
+    {
+        // arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++)
+        {
+            filter.add("user" + i);
+        }
+
+        // act
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++)
+        {
+            if (filter.mightContain("user" + i)) falsePositives++;
+        }
+
+        // assert
+        for (int i = 0; i < 10_000; i++)
+        {
+            assertTrue(filter.mightContain("user" + i), "Because a Bloom filter has no false negatives.");
+        }
+        assertTrue(falsePositives < 2_000, "Because about 1% of 100,000 unknown names should match, not " + falsePositives + ".");
+    }
+}
@@ -0,0 +1,76 @@
+package org.yearup.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CatalogCompressionFilterTest
+{
+    private final CatalogCompressionFilter filter = new CatalogCompressionFilter(true, 16, 10, Duration.ofMinutes(1));
+    private final AtomicReference<String> body = new AtomicReference<>("[{\"productId\":1,\"name\":\"Smartphone\"}]");
+    private final FilterChain chain = (request, response) -> response.getOutputStream().write(body.get().getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    public void get_shouldReuseTheCompressedBody_untilTheBodyChanges() throws Exception
+    {
+        // arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        MockHttpServletResponse first = get("gzip, deflate, br");
+        MockHttpServletResponse second = get("gzip");
+        double hitsBeforeChange = registry.get("cache.gets").tag("result", "hit").functionCounter().count();
+
+        // act
+        body.set("[{\"productId\":1,\"name\":\"Smartphone X\"}]");
+        MockHttpServletResponse changed = get("gzip");
+
+        // assert
+        assertEquals("gzip", first.getHeader("Content-Encoding"));
+        assertEquals("Accept, Accept-Encoding", first.getHeader("Vary"));
+        assertEquals(1.0, hitsBeforeChange, "Because the second request found the first one's compression.");
+        assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+        assertEquals(body.get(), gunzip(changed.getContentAsByteArray()), "Because the cached compression was of the old body.");
+    }
+
+    @Test
+    public void get_shouldNotCompress_whenGzipIsRefused() throws Exception
+    {
+        // act
+        MockHttpServletResponse response = get("gzip;q=0, *");
+
+        // assert
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept, Accept-Encoding", response.getHeader("Vary"));
+        assertEquals(body.get(), response.getContentAsString());
+    }
+
+    private MockHttpServletResponse get(String acceptEncoding) throws Exception
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException
+    {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes)))
+        {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.yearup.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.yearup.models.Product;
+import org.yearup.models.ProductBatch;
+import org.yearup.models.ProductField;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogJsonCacheTest
+{
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .mixIn(Product.class, ProductField.MixIn.class)
+            .filters(ProductField.filters(null))
+            .build();
+    private final CatalogJsonCache cache = new CatalogJsonCache(objectMapper, 100, Duration.ofMinutes(1));
+
+    @Test
+    public void products_shouldWriteWhatJacksonWrites()
+    {
+        // arrange
+        List<Product> products = List.of(product(1, "Smartphone"), product(2, "Laptop"));
+
+        // act
+        cache.products(products);
+        String cached = write(cache.products(products));
+
+        // assert
+        assertEquals(toJson(products), cached);
+        assertEquals(toJson(List.of()), write(cache.products(List.of())));
+    }
+
+    @Test
+    public void product_shouldSerializeAgain_whenTheProductChanged()
+    {
+        // arrange
+        cache.product(product(1, "Smartphone"));
+        Product renamed = product(1, "Smartphone X");
+
+        // act
+        String json = write(cache.product(renamed));
+
+        // assert
+        assertEquals(toJson(renamed), json, "Because the cached fragment was made from the old name.");
+    }
+
+    @Test
+    public void product_shouldOnlyWrite_theRequestedFields()
+    {
+        // arrange
+        Product product = product(1, "Smartphone");
+        cache.product(product);
+
+        // act
+        String json = write(cache.product(product, ProductField.parse("name,imageUrl")));
+
+        // assert
+        assertEquals("{\"productId\":1,\"name\":\"Smartphone\",\"imageUrl\":\"product.jpg\"}", json);
+        assertEquals(toJson(product), write(cache.product(product)), "Because the full fragment is kept apart.");
+    }
+
+    @Test
+    public void productBatch_shouldWriteWhatJacksonWrites()
+    {
+        // arrange
+        ProductBatch batch = new ProductBatch(List.of(product(2, "Laptop"), product(1, "Smartphone")), List.of(7, 9));
+
+        // act
+        String json = write(cache.productBatch(batch, null));
+
+        // assert
+        assertEquals(toJson(batch), json);
+    }
+
+    private static Product product(int id, String name)
+    {
+        return new Product(id, name, new BigDecimal("499.99"), 1, "A product", "Black", 10, false, "product.jpg");
+    }
+
+    private String toJson(Object value)
+    {
+        try
+        {
+            return objectMapper.writeValueAsString(value);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String write(JsonFragments fragments)
+    {
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            fragments.writeTo(out);
+            assertEquals(fragments.contentLength(), out.size());
+            return out.toString(StandardCharsets.UTF_8);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.yearup.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NegativeLookupCacheTest
+{
+    private final AtomicLong now = new AtomicLong();
+    private final NegativeLookupCache cache = new NegativeLookupCache(100, Duration.ofSeconds(30), now::get);
+
+    @Test
+    public void miss_shouldBeRemembered_untilTheTtl()
+    {
+        // arrange
+        cache.productMissing(99);
+
+        // act
+        boolean beforeExpiry = cache.isMissingProduct(99);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        boolean afterExpiry = cache.isMissingProduct(99);
+
+        // assert
+        assertTrue(beforeExpiry);
+        assertFalse(afterExpiry, "Because a row added elsewhere must be found once the miss expires.");
+        assertFalse(cache.isMissingProduct(98), "Because only the id that was looked up is remembered.");
+    }
+
+    @Test
+    public void create_shouldForgetTheMiss_straightAway()
+    {
+        // arrange
+        cache.productMissing(99);
+        cache.categoryMissing(7);
+        cache.usernameMissing("Newbie");
+
+        // act
+        cache.productCreated(99);
+        cache.categoryCreated(7);
+        cache.usernameCreated("newbie");
+
+        // assert
+        assertFalse(cache.isMissingProduct(99));
+        assertFalse(cache.isMissingCategory(7));
+        assertFalse(cache.isMissingUsername("NEWBIE"), "Because usernames are matched case-insensitively.");
+    }
+}
@@ -0,0 +1,52 @@
+package org.yearup.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TtlCacheTest
+{
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void get_shouldExpireEntries_afterTheTtl()
+    {
+        // arrange
+        TtlCache<String, String> cache = new TtlCache<>("test", 10, Duration.ofSeconds(5), now::get);
+        cache.put("george", "details");
+
+        // act
+        String beforeExpiry = cache.get("george");
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+        String afterExpiry = cache.get("george");
+
+        // assert
+        assertEquals("details", beforeExpiry);
+        assertNull(afterExpiry, "Because the entry was written more than 5 seconds ago.");
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void put_shouldEvictTheLeastRecentlyUsedEntry_whenFull()
+    {
+        // arrange
+        TtlCache<Integer, String> cache = new TtlCache<>("test", 2, Duration.ofMinutes(1), now::get);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+
+        // act
+        cache.put(3, "three");
+
+        // assert
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2), "Because 2 was the least recently used entry.");
+        assertEquals("one", cache.get(1));
+        assertEquals(1, cache.evictionCount());
+    }
+}
@@ -0,0 +1,105 @@
+package org.yearup.configuration;
+
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Loads test-data.sql and, for tests and benchmarks that need volume, adds generated products and users on top of it.
+ * Works against MySQL and against H2 in MySQL mode.
+ */
+public final class TestData
+{
+    // the bcrypt hash of "password", the same one the seeded users have
+    public static final String HASHED_PASSWORD = "$2a$10$NkufUPF3V8dEPSZeo1fzHe9ScBu.LOay9S3N32M84yuUM2OJYEJ/.";
+
+    private static final String[] COLORS = {"Black", "White", "Gray", "Blue", "Red", "Silver", "Green", "Charcoal"};
+    private static final int BATCH_SIZE = 1_000;
+
+    private TestData()
+    {
+    }
+
+    public static void load(Connection connection) throws IOException, SQLException
+    {
+        ScriptRunner runner = new ScriptRunner(connection);
+        // ScriptRunner would otherwise switch the connection to manual commit
+        runner.setAutoCommit(connection.getAutoCommit());
+        runner.setStopOnError(true);
+        runner.setLogWriter(null);
+        try (Reader reader = new InputStreamReader(new ClassPathResource("test-data.sql").getInputStream(), StandardCharsets.UTF_8))
+        {
+            runner.runScript(reader);
+        }
+    }
+
+    /**
+     * Adds products named "Generated product n", spread over the three seeded categories, with prices between
+     * 1.00 and 999.99. The same count always produces the same rows.
+     */
+    public static void addProducts(Connection connection, int count) throws SQLException
+    {
+        String sql = """
+                INSERT INTO products (name, price, category_id, description, color, image_url, stock, featured)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        try (PreparedStatement statement = connection.prepareStatement(sql))
+        {
+            for (int i = 1; i <= count; i++)
+            {
+                statement.setString(1, "Generated product " + i);
+                statement.setBigDecimal(2, BigDecimal.valueOf(i * 7919L % 99_900 + 100, 2));
+                statement.setInt(3, i % 3 + 1);
+                statement.setString(4, "A generated product for load and benchmark runs, number " + i + ".");
+                statement.setString(5, COLORS[i % COLORS.length]);
+                statement.setString(6, "product-" + i + ".jpg");
+                statement.setInt(7, i % 200);
+                statement.setBoolean(8, i % 50 == 0);
+                statement.addBatch();
+
+                if (i % BATCH_SIZE == 0) statement.executeBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Adds users "generated1" .. "generatedN" with the password "password", each with a profile.
+     */
+    public static void addUsers(Connection connection, int count) throws SQLException
+    {
+        String userSql = "INSERT INTO users (username, hashed_password, role) VALUES (?, ?, 'ROLE_USER')";
+        String profileSql = """
+                INSERT INTO profiles (user_id, first_name, last_name, phone, email, address, city, state, zip)
+                SELECT user_id, username, 'Generated', '800-555-0000', CONCAT(username, '@example.com'),
+                       '1 Main Street', 'Dallas', 'TX', '75051'
+                FROM users
+                WHERE username LIKE 'generated%'
+                  AND user_id NOT IN (SELECT user_id FROM profiles)
+                """;
+
+        try (PreparedStatement users = connection.prepareStatement(userSql);
+             Statement profiles = connection.createStatement())
+        {
+            for (int i = 1; i <= count; i++)
+            {
+                users.setString(1, "generated" + i);
+                users.setString(2, HASHED_PASSWORD);
+                users.addBatch();
+
+                if (i % BATCH_SIZE == 0) users.executeBatch();
+            }
+            users.executeBatch();
+            profiles.executeUpdate(profileSql);
+        }
+    }
+}
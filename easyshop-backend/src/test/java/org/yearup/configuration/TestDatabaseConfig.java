@@ -1,47 +1,63 @@
 package org.yearup.configuration;
 
-import org.apache.ibatis.jdbc.ScriptRunner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.context.annotation.PropertySource;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.sql.DataSource;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+/**
+ * The database the DAO tests run against.
+ *
+ * By default this is an in-memory H2 database in MySQL mode, so the tests need no server. With
+ * datasource.embedded=false (e.g. mvn test -Ddatasource.embedded=false) they run against the MySQL server at
+ * datasource.url instead, in a datasource.testdb database that is created for the run and dropped afterwards.
+ */
 @Configuration
+@PropertySource("classpath:application.properties")
 public class TestDatabaseConfig
 {
+    public static final String H2_URL = "jdbc:h2:mem:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private final boolean embedded;
     private final String serverUrl;
     private final String testDb;
     private final String username;
     private final String password;
+    private final int syntheticProducts;
+    private final int syntheticUsers;
 
     @Autowired
-    public TestDatabaseConfig(@Value("${datasource.url}") String serverUrl,
+    public TestDatabaseConfig(@Value("${datasource.embedded:true}") boolean embedded,
+                              @Value("${datasource.url}") String serverUrl,
                               @Value("${datasource.username}") String username,
                               @Value("${datasource.password}") String password,
-                              @Value("${datasource.testdb}") String testDb)
+                              @Value("${datasource.testdb}") String testDb,
+                              @Value("${datasource.synthetic-products:0}") int syntheticProducts,
+                              @Value("${datasource.synthetic-users:0}") int syntheticUsers)
     {
+        this.embedded = embedded;
         this.serverUrl = serverUrl;
         this.testDb = testDb;
         this.username = username;
         this.password = password;
+        this.syntheticProducts = syntheticProducts;
+        this.syntheticUsers = syntheticUsers;
     }
 
     @PostConstruct
     public void setup() {
+        if (embedded) return;
 
         try(Connection connection = DriverManager.getConnection(serverUrl + "/sys", username, password);
             Statement statement = connection.createStatement();
@@ -55,6 +71,7 @@ public class TestDatabaseConfig
 
     @PreDestroy
     public void cleanup() {
+        if (embedded) return;
 
         try(Connection connection = DriverManager.getConnection(serverUrl + "/sys", username, password);
             Statement statement = connection.createStatement();
@@ -71,16 +88,24 @@ public class TestDatabaseConfig
     public DataSource dataSource() throws SQLException, IOException
     {
         SingleConnectionDataSource dataSource = new SingleConnectionDataSource();
-        dataSource.setUrl(String.format("%s/%s", serverUrl, testDb));
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
+        if (embedded)
+        {
+            dataSource.setUrl(String.format(H2_URL, testDb));
+        }
+        else
+        {
+            dataSource.setUrl(String.format("%s/%s", serverUrl, testDb));
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+        }
         dataSource.setAutoCommit(false);
         dataSource.setSuppressClose(true);
 
-        ScriptRunner runner = new ScriptRunner(dataSource.getConnection());
-        Reader reader = new BufferedReader(new FileReader((new ClassPathResource("test-data.sql")).getFile().getAbsolutePath()));
-        runner.runScript(reader);
-        dataSource.getConnection().commit();
+        Connection connection = dataSource.getConnection();
+        TestData.load(connection);
+        TestData.addProducts(connection, syntheticProducts);
+        TestData.addUsers(connection, syntheticUsers);
+        connection.commit();
 
         return dataSource;
     }
@@ -0,0 +1,150 @@
+package org.yearup.converters;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.DescriptorValidationException;
+import com.google.protobuf.Descriptors.FileDescriptor;
+import com.google.protobuf.DynamicMessage;
+import org.junit.jupiter.api.Test;
+import org.yearup.models.Product;
+import org.yearup.models.ProductBatch;
+import org.yearup.models.ProductField;
+import org.yearup.models.ShoppingCart;
+import org.yearup.models.ShoppingCartItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ModelProtobufTest
+{
+    @Test
+    public void encode_shouldWriteTheRequestedProductFields()
+    {
+        // arrange
+        Product product = new Product(1, "Smartphone", new BigDecimal("499.99"), 1, "A phone", "Black", 50, false, "phone.jpg");
+
+        // act
+        byte[] encoded = ModelProtobuf.encode(product, ProductField.parse("name,price"));
+
+        // assert
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(new byte[] {0x08, 0x01}, 0, 2);            // product_id = 1
+        expected.write(0x12);                                      // name, length delimited
+        expected.write(10);
+        expected.writeBytes("Smartphone".getBytes(StandardCharsets.UTF_8));
+        expected.write(0x1A);                                      // price, length delimited
+        expected.write(6);
+        expected.writeBytes("499.99".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(expected.toByteArray(), encoded);
+    }
+
+    @Test
+    public void encode_shouldWriteAList_asRepeatedFieldOne()
+    {
+        // arrange
+        Product first = new Product();
+        first.setProductId(1);
+        Product second = new Product();
+        second.setProductId(300);
+
+        // act
+        byte[] encoded = ModelProtobuf.encode(List.of(first, second), null);
+
+        // assert
+        assertArrayEquals(new byte[] {0x0A, 0x02, 0x08, 0x01, 0x0A, 0x03, 0x08, (byte) 0xAC, 0x02}, encoded);
+        assertEquals(0, ModelProtobuf.encode(List.of(), null).length, "Because an empty list is an empty message.");
+    }
+
+    @Test
+    public void encode_shouldDecode_withTheMessagesInEasyshopProto() throws Exception
+    {
+        // arrange
+        FileDescriptor schema = easyshopProto();
+        Product phone = new Product(1, "Smartphone", new BigDecimal("499.99"), 1, "A phone", "Black", 50, true, "phone.jpg");
+        ShoppingCartItem item = new ShoppingCartItem();
+        item.setProduct(phone);
+        item.setQuantity(2);
+        ShoppingCart cart = new ShoppingCart();
+        cart.add(item);
+
+        // act
+        DynamicMessage decodedCart = decode(schema, "ShoppingCart", ModelProtobuf.encode(cart, null));
+        DynamicMessage decodedBatch = decode(schema, "ProductBatch", ModelProtobuf.encode(new ProductBatch(List.of(phone), List.of(4, 300)), ProductField.parse("name")));
+
+        // assert
+        DynamicMessage decodedItem = (DynamicMessage) get(decodedCart, "items", 0);
+        DynamicMessage product = (DynamicMessage) get(decodedItem, "product");
+        assertEquals(1, get(product, "product_id"));
+        assertEquals("Smartphone", get(product, "name"));
+        assertEquals("499.99", get(product, "price"));
+        assertEquals(true, get(product, "featured"));
+        assertEquals("phone.jpg", get(product, "image_url"));
+        assertEquals(2, get(decodedItem, "quantity"));
+        assertEquals("999.98", get(decodedCart, "total"));
+
+        DynamicMessage narrowed = (DynamicMessage) get(decodedBatch, "products", 0);
+        assertEquals("Smartphone", get(narrowed, "name"));
+        assertFalse(narrowed.hasField(narrowed.getDescriptorForType().findFieldByName("price")), "Because ?fields= leaves the price out.");
+        assertEquals(List.of(4, 300), get(decodedBatch, "missing"));
+    }
+
+    private static DynamicMessage decode(FileDescriptor schema, String message, byte[] encoded) throws IOException
+    {
+        return DynamicMessage.parseFrom(schema.findMessageTypeByName(message), encoded);
+    }
+
+    private static Object get(DynamicMessage message, String field)
+    {
+        return message.getField(message.getDescriptorForType().findFieldByName(field));
+    }
+
+    private static Object get(DynamicMessage message, String field, int index)
+    {
+        return message.getRepeatedField(message.getDescriptorForType().findFieldByName(field), index);
+    }
+
+    // reads the messages out of the .proto the clients generate from; it only needs the field syntax that file uses
+    private static FileDescriptor easyshopProto() throws IOException, DescriptorValidationException
+    {
+        String proto = Files.readString(Path.of("src/main/proto/easyshop.proto"));
+        FileDescriptorProto.Builder file = FileDescriptorProto.newBuilder()
+                .setName("easyshop.proto")
+                .setPackage("easyshop")
+                .setSyntax("proto3");
+
+        Matcher message = Pattern.compile("message (\\w+) \\{([^}]*)}").matcher(proto);
+        while (message.find())
+        {
+            DescriptorProto.Builder type = file.addMessageTypeBuilder().setName(message.group(1));
+            Matcher field = Pattern.compile("(repeated )?(\\w+) (\\w+) = (\\d+);").matcher(message.group(2));
+            while (field.find())
+            {
+                FieldDescriptorProto.Builder declared = type.addFieldBuilder()
+                        .setName(field.group(3))
+                        .setNumber(Integer.parseInt(field.group(4)))
+                        .setLabel(field.group(1) == null ? FieldDescriptorProto.Label.LABEL_OPTIONAL : FieldDescriptorProto.Label.LABEL_REPEATED);
+                switch (field.group(2))
+                {
+                    case "int32" -> declared.setType(FieldDescriptorProto.Type.TYPE_INT32);
+                    case "bool" -> declared.setType(FieldDescriptorProto.Type.TYPE_BOOL);
+                    case "string" -> declared.setType(FieldDescriptorProto.Type.TYPE_STRING);
+                    default -> declared.setType(FieldDescriptorProto.Type.TYPE_MESSAGE).setTypeName(".easyshop." + field.group(2));
+                }
+            }
+        }
+        return FileDescriptor.buildFrom(file.build(), new FileDescriptor[0]);
+    }
+}
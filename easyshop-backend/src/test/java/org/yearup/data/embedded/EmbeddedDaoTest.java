@@ -0,0 +1,138 @@
+package org.yearup.data.embedded;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yearup.exceptions.DaoException;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+import org.yearup.models.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the embedded DAOs against a store seeded from the same create_database.sql that builds the MySQL schema.
+ */
+class EmbeddedDaoTest
+{
+    @TempDir
+    Path directory;
+
+    private EmbeddedStore store;
+    private EmbeddedProductDao productDao;
+
+    @BeforeEach
+    public void setup() throws IOException
+    {
+        store = new EmbeddedStore(directory, Path.of("database/create_database.sql"));
+        productDao = new EmbeddedProductDao(store);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException
+    {
+        store.destroy();
+    }
+
+    @Test
+    public void seededStore_shouldMatch_theSeedScript()
+    {
+        // act
+        Product smartphone = productDao.getById(1);
+
+        // assert
+        assertEquals("Smartphone", smartphone.getName());
+        assertEquals(new BigDecimal("499.99"), smartphone.getPrice());
+        assertNotNull(new EmbeddedUserDao(store).getByUserName("ADMIN"), "Because usernames compare like a MySQL collation.");
+        assertEquals(2, new EmbeddedShoppingCartDao(store).getByUserId(3).getItems().size());
+    }
+
+    @Test
+    public void search_shouldApply_everyFilter()
+    {
+        // act
+        var products = productDao.search(1, new BigDecimal("100"), new BigDecimal("500"), "black");
+
+        // assert
+        for (Product product : products)
+        {
+            assertEquals(1, product.getCategoryId());
+            assertEquals("Black", product.getColor());
+        }
+        assertEquals(productDao.search(null, null, null, null).stream()
+                .filter(p -> p.getCategoryId() == 1 && p.getColor().equals("Black")
+                        && p.getPrice().compareTo(new BigDecimal("100")) >= 0 && p.getPrice().compareTo(new BigDecimal("500")) <= 0)
+                .count(), products.size());
+    }
+
+    @Test
+    public void writes_shouldSurvive_reopeningTheStore() throws IOException
+    {
+        // arrange
+        EmbeddedCategoryDao categoryDao = new EmbeddedCategoryDao(store);
+        Category created = categoryDao.create(new Category(0, "Garden", "Outdoor things"));
+        productDao.update(1, new Product(1, "Phone", new BigDecimal("449.99"), 1, "", "Red", 5, true, "phone.jpg"));
+        productDao.delete(2);
+
+        // act
+        store.destroy();
+        store = new EmbeddedStore(directory, null);
+        productDao = new EmbeddedProductDao(store);
+
+        // assert
+        assertEquals("Garden", new EmbeddedCategoryDao(store).getById(created.getCategoryId()).getName());
+        assertEquals("Phone", productDao.getById(1).getName());
+        assertEquals(1, productDao.search(null, null, null, "red").stream().filter(p -> p.getProductId() == 1).count(),
+                "Because the color index is rebuilt from the file.");
+        assertNull(productDao.getById(2));
+    }
+
+    @Test
+    public void cart_shouldCount_repeatedAdds()
+    {
+        // arrange
+        EmbeddedShoppingCartDao cartDao = new EmbeddedShoppingCartDao(store);
+
+        // act
+        cartDao.addProductById(1, 5);
+        cartDao.addProductById(1, 5);
+
+        // assert
+        assertEquals(2, cartDao.getByUserId(1).get(5).getQuantity());
+    }
+
+    @Test
+    public void duplicateProfile_shouldBeRejected()
+    {
+        // arrange
+        EmbeddedProfileDao profileDao = new EmbeddedProfileDao(store);
+
+        // act / assert
+        assertThrows(RuntimeException.class, () -> profileDao.create(new Profile(1, "", "", "", "", "", "", "", "")));
+    }
+
+    @Test
+    public void duplicateUsername_shouldBeRejected_asAConstraintViolation()
+    {
+        // arrange
+        EmbeddedUserDao userDao = new EmbeddedUserDao(store);
+        int users = userDao.getAll().size();
+
+        // act
+        DaoException thrown = assertThrows(DaoException.class, () -> userDao.create(new User(0, "Admin", "password", "ROLE_USER")));
+
+        // assert
+        assertTrue(thrown.isConstraintViolation(), "Because the embedded store must answer like MySQL's unique key.");
+        assertEquals(users, userDao.getAll().size());
+    }
+}
@@ -0,0 +1,114 @@
+package org.yearup.data.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.mysql.MySqlCategoryDao;
+import org.yearup.models.Category;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InstrumentedDataSourceTest
+{
+    private SimpleMeterRegistry registry;
+    private InstrumentedDataSource dataSource;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:metrics;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE IF EXISTS categories");
+            statement.execute("CREATE TABLE categories (category_id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50), description TEXT)");
+            statement.execute("INSERT INTO categories (name, description) VALUES ('Electronics', ''), ('Fashion', '')");
+        }
+
+        registry = new SimpleMeterRegistry();
+        dataSource = new InstrumentedDataSource(h2, new StatementMetrics(registry));
+    }
+
+    @Test
+    public void normalize_shouldReplace_literalsAndWhitespace()
+    {
+        // act
+        var actual = StatementMetrics.normalize("SELECT *\n  FROM products WHERE product_id IN (1, 2, 3) AND name = 'it''s' LIMIT 10");
+
+        // assert
+        assertEquals("select * from products where product_id in (?) and name = ? limit ?", actual);
+    }
+
+    @Test
+    public void queries_shouldRecord_latencyAndRows()
+    {
+        // arrange
+        MySqlCategoryDao dao = new MySqlCategoryDao(dataSource);
+
+        // act
+        dao.getAllCategories();
+        dao.getAllCategories();
+
+        // assert
+        var timer = registry.get("db.statement").tag("operation", "select").timer();
+        var rows = registry.get("db.statement.rows").tag("operation", "select").summary();
+        assertEquals(2, timer.count());
+        assertEquals(4, rows.totalAmount(), 0.0, "Because each call reads both categories.");
+    }
+
+    @Test
+    public void updates_shouldRecord_rowsWritten()
+    {
+        // arrange
+        MySqlCategoryDao dao = new MySqlCategoryDao(dataSource);
+
+        // act
+        dao.update(1, new Category(1, "Gadgets", ""));
+
+        // assert
+        var rows = registry.get("db.statement.rows").tag("operation", "update").summary();
+        assertEquals(1, rows.totalAmount(), 0.0);
+    }
+
+    @Test
+    public void failures_shouldCount_asErrors() throws SQLException
+    {
+        // act
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            assertThrows(SQLException.class, () -> statement.executeQuery("SELECT nope FROM categories"));
+        }
+
+        // assert
+        assertEquals(1, registry.get("db.statement.errors").tag("sql", "select nope from categories").counter().count());
+    }
+
+    @Test
+    public void forSql_shouldCountShapes_notTexts_againstTheCap()
+    {
+        // arrange
+        StatementMetrics metrics = new StatementMetrics(registry);
+        StringBuilder inList = new StringBuilder("?");
+
+        // act
+        for (int i = 0; i < StatementMetrics.MAXIMUM_STATEMENTS + 100; i++)
+        {
+            metrics.forSql("SELECT * FROM products WHERE product_id IN (" + inList + ")");
+            inList.append(", ?");
+        }
+        var known = metrics.forSql("SELECT * FROM categories WHERE category_id = ?");
+
+        // assert
+        assertEquals(1, registry.find("db.statement").tag("sql", "select * from products where product_id in (?)").timers().size());
+        assertEquals("select * from categories where category_id = ?", known.statement(),
+                "Because one shape seen through many texts shouldn't push a new shape into other.");
+    }
+}
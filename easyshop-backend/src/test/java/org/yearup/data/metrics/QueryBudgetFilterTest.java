@@ -0,0 +1,101 @@
+package org.yearup.data.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.yearup.data.mysql.MySqlCategoryDao;
+
+import javax.servlet.FilterChain;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryBudgetFilterTest
+{
+    private MySqlCategoryDao dao;
+    private QueryBudgetFilter filter;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE IF EXISTS categories");
+            statement.execute("CREATE TABLE categories (category_id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50), description TEXT)");
+            statement.execute("INSERT INTO categories (name, description) VALUES ('Electronics', '')");
+        }
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dao = new MySqlCategoryDao(new InstrumentedDataSource(h2, new StatementMetrics(registry)));
+        filter = new QueryBudgetFilter(registry, 3, 10, 2, Duration.ofSeconds(5), true);
+    }
+
+    @Test
+    public void requestWithinBudget_shouldReport_countsOnly() throws Exception
+    {
+        // arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, servletResponse) -> dao.getById(1);
+
+        // act
+        filter.doFilter(new MockHttpServletRequest("GET", "/categories/1"), response, chain);
+
+        // assert
+        assertTrue(response.getHeader(QueryBudgetFilter.STATS_HEADER).startsWith("connections=1; statements=1;"));
+        assertNull(response.getHeader(QueryBudgetFilter.BUDGET_HEADER));
+    }
+
+    @Test
+    public void repeatedQueries_shouldBeFlagged_asOverBudget() throws Exception
+    {
+        // arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, servletResponse) -> {
+            for (int i = 0; i < 4; i++)
+            {
+                dao.getById(1);
+            }
+        };
+
+        // act
+        filter.doFilter(new MockHttpServletRequest("GET", "/categories"), response, chain);
+
+        // assert
+        String budget = response.getHeader(QueryBudgetFilter.BUDGET_HEADER);
+        assertTrue(budget.contains("connections=4>3"));
+        assertTrue(budget.contains("repeated=4>2"), "Because one query per row is the N+1 shape.");
+        assertNull(RequestQueries.current(), "Because the scope ends with the request.");
+    }
+
+    @Test
+    public void streamedResponse_shouldGetHeaders_beforeItCommits_withoutBuffering() throws Exception
+    {
+        // arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String[] writtenBeforeReturn = new String[1];
+        FilterChain chain = (request, servletResponse) -> {
+            dao.getById(1);
+            servletResponse.getWriter().write("data: first\n\n");
+            servletResponse.flushBuffer();
+            writtenBeforeReturn[0] = response.getContentAsString();
+        };
+
+        // act
+        filter.doFilter(new MockHttpServletRequest("GET", "/events/catalog"), response, chain);
+
+        // assert
+        assertEquals("data: first\n\n", writtenBeforeReturn[0], "Because the body goes straight through, not into a buffer.");
+        assertTrue(response.getHeader(QueryBudgetFilter.STATS_HEADER).startsWith("connections=1; statements=1;"));
+    }
+}
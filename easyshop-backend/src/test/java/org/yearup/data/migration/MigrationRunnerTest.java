@@ -0,0 +1,75 @@
+package org.yearup.data.migration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MigrationRunnerTest
+{
+    private JdbcDataSource h2;
+
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("CREATE TABLE users (user_id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(50), hashed_password VARCHAR(200), role VARCHAR(50))");
+            statement.execute("CREATE TABLE products (product_id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(200), price DECIMAL(10, 2), category_id INT, color VARCHAR(20), featured BOOLEAN)");
+        }
+    }
+
+    @Test
+    public void migrate_shouldApply_eachMigrationOnce() throws Exception
+    {
+        // arrange
+        MigrationRunner runner = new MigrationRunner(h2, "classpath:db/migration/V*__*.sql", true);
+
+        // act
+        List<Migration> first = runner.migrate();
+        List<Migration> second = runner.migrate();
+
+        // assert
+        assertEquals(1, first.get(0).version());
+        assertTrue(second.isEmpty(), "Because every migration was already recorded in schema_version.");
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery(
+                     "SELECT COUNT(*) FROM information_schema.indexes WHERE index_name = 'ix_products_category_price'"))
+        {
+            row.next();
+            assertTrue(row.getInt(1) > 0);
+        }
+    }
+
+    @Test
+    public void migrate_shouldFail_whenAnAppliedMigrationChanged(@TempDir Path directory) throws Exception
+    {
+        // arrange
+        Path script = directory.resolve("V1__add_color_index.sql");
+        Files.writeString(script, "CREATE INDEX ix_products_color ON products (color);");
+        MigrationRunner runner = new MigrationRunner(h2, "file:" + directory + "/V*__*.sql", true);
+        runner.migrate();
+
+        // act
+        Files.writeString(script, "CREATE INDEX ix_products_color ON products (color, price);");
+
+        // assert
+        assertThrows(IllegalStateException.class, runner::migrate);
+    }
+}
@@ -4,11 +4,17 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.yearup.models.Product;
+import org.yearup.models.ProductBulkResult;
+import org.yearup.models.ProductBulkUpdate;
+import org.yearup.models.ProductField;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 class MySqlProductDaoTest extends BaseDaoTestClass
 {
@@ -45,4 +51,54 @@ class MySqlProductDaoTest extends BaseDaoTestClass
         assertEquals(expected.getPrice(), actual.getPrice(), "Because I tried to get product 1 from the database.");
     }
 
+    @Test
+    public void getById_shouldOnlyLoad_theRequestedFields()
+    {
+        // arrange
+        var fields = ProductField.parse("name,price");
+
+        // act
+        var actual = dao.getById(1, fields);
+
+        // assert
+        assertEquals(1, actual.getProductId());
+        assertEquals("Smartphone", actual.getName());
+        assertEquals(new BigDecimal("499.99"), actual.getPrice());
+        assertNull(actual.getDescription(), "Because the description column was not selected.");
+    }
+
+    @Test
+    public void updateAll_shouldChangeTheMatchingProducts_inPrimaryKeyChunks()
+    {
+        // arrange
+        ProductBulkUpdate update = new ProductBulkUpdate();
+        update.setCategoryId(1);
+        update.setPricePercent(new BigDecimal("-10"));
+        update.setStockChange(-40);
+
+        // act
+        ProductBulkResult result = dao.updateAll(update, 2);
+
+        // assert
+        assertEquals(3, result.getUpdated(), "Because category 1 has three products.");
+        assertEquals(2, result.getChunks(), "Because ids 1 to 3 take two chunks of two.");
+        assertEquals(new BigDecimal("449.99"), dao.getById(1).getPrice());
+        assertEquals(10, dao.getById(1).getStock());
+        assertEquals(0, dao.getById(2).getStock(), "Because stock stops at zero.");
+        assertEquals(new BigDecimal("29.99"), dao.getById(4).getPrice(), "Because product 4 is in category 2.");
+    }
+
+    @Test
+    public void getByIds_shouldReturn_theProductsThatExist()
+    {
+        // act
+        var actual = dao.getByIds(List.of(3, 1, 999999), null);
+
+        // assert
+        actual.sort(Comparator.comparing(Product::getProductId));
+        assertEquals(2, actual.size(), "Because there is no product 999999.");
+        assertEquals(1, actual.get(0).getProductId());
+        assertEquals(3, actual.get(1).getProductId());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package org.yearup.data.mysql;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.exceptions.DaoException;
+import org.yearup.models.User;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MySqlUserDaoTest
+{
+    private MySqlUserDao dao;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:users;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("CREATE TABLE users (user_id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(50), hashed_password VARCHAR(100), role VARCHAR(50))");
+            statement.execute("CREATE UNIQUE INDEX ux_users_username ON users (username)");
+        }
+        dao = new MySqlUserDao(h2);
+    }
+
+    @Test
+    public void create_shouldFail_asAConstraintViolation_forATakenUsername()
+    {
+        // arrange
+        dao.create(new User(0, "newbie", "password", "ROLE_USER"));
+
+        // act
+        DaoException thrown = assertThrows(DaoException.class, () -> dao.create(new User(0, "newbie", "password", "ROLE_USER")));
+
+        // assert
+        assertTrue(thrown.isConstraintViolation(), "Because /register answers a taken name with a 400, not a 500.");
+    }
+
+    @Test
+    public void getAll_shouldFail_whenAMappedColumnIsMissing() throws SQLException
+    {
+        // arrange
+        dao.create(new User(0, "newbie", "password", "ROLE_USER"));
+        try (Connection connection = dao.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("ALTER TABLE users DROP COLUMN role");
+        }
+
+        // act
+        DaoException thrown = assertThrows(DaoException.class, () -> dao.getAll());
+
+        // assert
+        assertTrue(thrown.getMessage().contains("role"), "Because a missing column must not quietly read as null.");
+    }
+
+    @Test
+    public void getByUserName_shouldFail_ratherThanReportNoUser() throws SQLException
+    {
+        // arrange
+        try (Connection connection = dao.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE users");
+        }
+
+        // act / assert
+        assertThrows(DaoException.class, () -> dao.getByUserName("newbie"), "Because a failed query is not a missing user.");
+        assertThrows(DaoException.class, () -> dao.exists("newbie"));
+    }
+}
@@ -0,0 +1,131 @@
+package org.yearup.data.routing;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.mysql.MySqlProductDao;
+import org.yearup.models.Product;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Two in-memory H2 databases stand in for a primary and a replica; each holds product 1 under a different
+ * name so the tests can tell which one answered.
+ */
+class ReplicaRoutingDataSourceTest
+{
+    private DataSource primary;
+    private DataSource replica;
+    private MySqlProductDao dao;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        primary = database("primary");
+        replica = database("replica");
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                List.of(new Replica("replica-1", replica)), new ReplicaSelector.RoundRobin());
+        dao = new MySqlProductDao(routing);
+        ReadYourWrites.reset();
+    }
+
+    @AfterEach
+    public void cleanup()
+    {
+        ReadYourWrites.reset();
+    }
+
+    @Test
+    public void getById_shouldRead_fromTheReplica()
+    {
+        // act
+        var actual = dao.getById(1);
+
+        // assert
+        assertEquals("replica", actual.getName(), "Because reads go to the replica when nothing was written.");
+    }
+
+    @Test
+    public void getById_shouldRead_fromThePrimary_afterAWrite()
+    {
+        // arrange
+        dao.update(1, new Product(1, "updated", new BigDecimal("1.00"), 1, "", "Black", 1, false, ""));
+
+        // act
+        var actual = dao.getById(1);
+
+        // assert
+        assertEquals("updated", actual.getName(), "Because a request must read back its own write from the primary.");
+    }
+
+    @Test
+    public void roundRobin_shouldAlternate_betweenReplicas()
+    {
+        // arrange
+        Replica first = new Replica("replica-1", replica);
+        Replica second = new Replica("replica-2", replica);
+        ReplicaSelector selector = new ReplicaSelector.RoundRobin();
+
+        // act / assert
+        assertSame(first, selector.select(List.of(first, second)));
+        assertSame(second, selector.select(List.of(first, second)));
+        assertSame(first, selector.select(List.of(first, second)));
+    }
+
+    @Test
+    @SuppressWarnings("try") // the connections are only held open, never used
+    public void leastInFlight_shouldPick_theLeastBusyReplica() throws SQLException
+    {
+        // arrange
+        Replica busy = new Replica("replica-1", replica);
+        Replica idle = new Replica("replica-2", database("replica-2"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(busy, idle), new ReplicaSelector.LeastInFlight());
+
+        // act
+        try (Connection first = routing.getReadConnection();
+             Connection second = routing.getReadConnection())
+        {
+            // assert
+            assertEquals(1, busy.inFlight());
+            assertEquals(1, idle.inFlight());
+        }
+        assertEquals(0, busy.inFlight(), "Because closing a connection releases it.");
+        assertEquals(0, idle.inFlight());
+    }
+
+    private static DataSource database(String name) throws SQLException
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE IF EXISTS products");
+            statement.execute("""
+                    CREATE TABLE products (
+                        product_id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+                        name VARCHAR(100) NOT NULL,
+                        price DECIMAL(10, 2) NOT NULL,
+                        category_id INT NOT NULL,
+                        description TEXT,
+                        color VARCHAR(20),
+                        image_url VARCHAR(200),
+                        stock INT NOT NULL DEFAULT 0,
+                        featured BOOL NOT NULL DEFAULT 0)
+                    """);
+            statement.execute("INSERT INTO products (name, price, category_id) VALUES ('" + name + "', 9.99, 1)");
+        }
+        return dataSource;
+    }
+}
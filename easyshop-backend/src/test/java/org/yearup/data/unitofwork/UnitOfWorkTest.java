@@ -0,0 +1,92 @@
+package org.yearup.data.unitofwork;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.metrics.InstrumentedDataSource;
+import org.yearup.data.metrics.RequestQueries;
+import org.yearup.data.metrics.StatementMetrics;
+import org.yearup.data.mysql.MySqlCategoryDao;
+import org.yearup.models.Category;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UnitOfWorkTest
+{
+    private MySqlCategoryDao dao;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:unitofwork;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE IF EXISTS categories");
+            statement.execute("CREATE TABLE categories (category_id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50), description TEXT)");
+            statement.execute("INSERT INTO categories (name, description) VALUES ('Electronics', '')");
+        }
+
+        dao = new MySqlCategoryDao(new InstrumentedDataSource(h2, new StatementMetrics(new SimpleMeterRegistry())));
+        RequestQueries.begin();
+    }
+
+    @AfterEach
+    public void cleanup()
+    {
+        RequestQueries.end();
+    }
+
+    @Test
+    @SuppressWarnings("try") // the scope is only held open around the DAO calls
+    public void daoCalls_shouldShare_oneConnection()
+    {
+        // act
+        try (UnitOfWork.Scope scope = UnitOfWork.begin())
+        {
+            dao.getById(1);
+            dao.update(1, new Category(1, "Gadgets", ""));
+            dao.getById(1);
+        }
+
+        // assert
+        assertEquals(1, RequestQueries.current().getConnections());
+        assertNull(UnitOfWork.current(), "Because the connection is released when the scope closes.");
+    }
+
+    @Test
+    public void failedTransaction_shouldRollBack()
+    {
+        // act
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.inTransaction(() -> {
+            dao.update(1, new Category(1, "Gadgets", ""));
+            throw new IllegalStateException("profile insert failed");
+        }));
+
+        // assert
+        assertEquals("Electronics", dao.getById(1).getName());
+    }
+
+    @Test
+    public void committedTransaction_shouldKeep_allWrites()
+    {
+        // act
+        UnitOfWork.inTransaction(() -> {
+            dao.update(1, new Category(1, "Gadgets", ""));
+            return dao.create(new Category(0, "Fashion", ""));
+        });
+
+        // assert
+        assertEquals("Gadgets", dao.getById(1).getName());
+        assertEquals(2, dao.getAllCategories().size());
+    }
+}
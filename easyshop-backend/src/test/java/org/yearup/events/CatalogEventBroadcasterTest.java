@@ -0,0 +1,56 @@
+package org.yearup.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.yearup.controllers.EventsController;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class CatalogEventBroadcasterTest
+{
+    private final CatalogEventBroadcaster broadcaster = new CatalogEventBroadcaster(Jackson2ObjectMapperBuilder.json().build(),
+            8, 1, Duration.ofMinutes(1), Duration.ofMinutes(1), 1);
+
+    @AfterEach
+    public void shutdown()
+    {
+        broadcaster.destroy();
+    }
+
+    @Test
+    public void publish_shouldStreamTheChange_toEverySubscriber() throws Exception
+    {
+        // arrange
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new EventsController(broadcaster)).build();
+        MockHttpServletResponse stream = mvc.perform(get("/events/catalog"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        Product product = new Product(5, "Digital Camera", new BigDecimal("599.99"), 1, "A camera", "Black", 12, false, "camera.jpg");
+
+        // act
+        broadcaster.publish(CatalogEvent.updated(5, product));
+
+        // assert
+        String expected = "event:product-updated\ndata:{\"productId\":5,\"price\":599.99,\"stock\":12}\n\n";
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!stream.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertTrue(stream.getContentAsString().contains(expected), stream.getContentAsString());
+        assertEquals(1, broadcaster.subscriberCount());
+        assertNull(broadcaster.subscribe(), "Because easyshop.events.max-subscribers is 1.");
+    }
+}
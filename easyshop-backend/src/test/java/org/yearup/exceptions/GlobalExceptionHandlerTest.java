@@ -0,0 +1,116 @@
+package org.yearup.exceptions;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.NestedServletException;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTest
+{
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new FailingController())
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    public void handle_shouldAnswerNotFound_withTheMessage() throws Exception
+    {
+        // act
+        var result = mvc.perform(get("/fail/not-found"));
+
+        // assert
+        result.andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.error").value("Not Found"))
+                .andExpect(jsonPath("$.message").value("Product 99 was not found"))
+                .andExpect(jsonPath("$.path").value("/fail/not-found"));
+        Exception thrown = result.andReturn().getResolvedException();
+        assertInstanceOf(ResourceNotFoundException.class, thrown);
+        assertEquals(0, thrown.getStackTrace().length, "Because expected outcomes skip filling in the stack trace.");
+    }
+
+    @Test
+    public void handle_shouldHideTheCause_ofServerErrors() throws Exception
+    {
+        // act
+        var result = mvc.perform(get("/fail/dao"));
+
+        // assert
+        result.andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("Oops... our bad."));
+        Exception thrown = result.andReturn().getResolvedException();
+        assertInstanceOf(DaoException.class, thrown);
+        assertTrue(thrown.getStackTrace().length > 0, "Because failures are logged with their stack trace.");
+    }
+
+    @Test
+    public void handleUnexpected_shouldAnswer500_withTheSameBody() throws Exception
+    {
+        // act
+        var result = mvc.perform(get("/fail/bug"));
+
+        // assert
+        result.andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.status").value(500))
+                .andExpect(jsonPath("$.message").value("Oops... our bad."))
+                .andExpect(jsonPath("$.path").value("/fail/bug"));
+        assertInstanceOf(NullPointerException.class, result.andReturn().getResolvedException());
+    }
+
+    @Test
+    public void springMvcExceptions_shouldKeep_theirOwnStatus() throws Exception
+    {
+        // act
+        var result = mvc.perform(get("/search"));
+
+        // assert
+        result.andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    public void accessDenied_shouldBeLeft_toSpringSecurity()
+    {
+        // act
+        var thrown = assertThrows(NestedServletException.class, () -> mvc.perform(get("/fail/denied")));
+
+        // assert
+        assertInstanceOf(AccessDeniedException.class, thrown.getCause());
+    }
+
+    @RestController
+    static class FailingController
+    {
+        @GetMapping("/fail/{kind}")
+        public String fail(@PathVariable String kind)
+        {
+            switch (kind)
+            {
+                case "dao" -> throw new DaoException(new SQLException("Communications link failure"));
+                case "bug" -> throw new NullPointerException("user is null");
+                case "denied" -> throw new AccessDeniedException("Access is denied");
+                default -> throw new ResourceNotFoundException("Product 99 was not found");
+            }
+        }
+
+        @GetMapping("/search")
+        public String search(@RequestParam String name)
+        {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.yearup.security;
+
+import org.junit.jupiter.api.Test;
+import org.yearup.data.UserDao;
+import org.yearup.models.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KnownUsernamesTest
+{
+    @Test
+    public void mightExist_shouldSayMaybe_untilTheFirstLoad()
+    {
+        // arrange
+        KnownUsernames known = new KnownUsernames(new StubUserDao(List.of("george")), 1000, 0.01, Duration.ofMinutes(10));
+
+        // act
+        boolean beforeLoad = known.mightExist("nobody");
+        known.rebuild();
+        boolean afterLoad = known.mightExist("nobody");
+
+        // assert
+        assertTrue(beforeLoad, "Because without a filter every name has to go to the database.");
+        assertFalse(afterLoad);
+        assertTrue(known.mightExist("George"), "Because usernames are matched case-insensitively, like the database.");
+    }
+
+    @Test
+    public void add_shouldNotBeLost_whenItRacesARebuild() throws Exception
+    {
+        // arrange
+        StubUserDao users = new StubUserDao(List.of("george"));
+        KnownUsernames known = new KnownUsernames(users, 1000, 0.01, Duration.ofMinutes(10));
+        known.rebuild();
+        users.blockNextRead();
+
+        // act
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(known::rebuild);
+        assertTrue(users.reading.await(5, TimeUnit.SECONDS));
+        // registered after the rebuild read the table, so it is not in what the rebuild loaded
+        known.add("newbie");
+        users.release.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        // assert
+        assertTrue(known.mightExist("newbie"), "Because a user created during a rebuild must be in the new filter.");
+        assertTrue(known.mightExist("george"));
+    }
+
+    private static class StubUserDao implements UserDao
+    {
+        private final List<String> usernames;
+        private volatile boolean block;
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        StubUserDao(List<String> usernames)
+        {
+            this.usernames = usernames;
+        }
+
+        void blockNextRead()
+        {
+            block = true;
+        }
+
+        @Override
+        public List<String> getUsernames()
+        {
+            if (block)
+            {
+                reading.countDown();
+                try
+                {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return usernames;
+        }
+
+        @Override
+        public List<User> getAll()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User getUserById(int userId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User getByUserName(String username)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getIdByUsername(String username)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User create(User user)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean exists(String username)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.yearup.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.yearup.cache.NegativeLookupCache;
+import org.yearup.data.UserDao;
+import org.yearup.exceptions.DaoException;
+import org.yearup.models.User;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserModelDetailsServiceTest
+{
+    private final FailingUserDao users = new FailingUserDao();
+    private final UserDetailsCache userDetailsCache = new UserDetailsCache(100, Duration.ofSeconds(60));
+    private final NegativeLookupCache negativeLookups = new NegativeLookupCache(100, Duration.ofSeconds(30));
+    private final UserModelDetailsService service = new UserModelDetailsService(users, userDetailsCache, negativeLookups);
+
+    @Test
+    public void failedLookup_shouldNotBeCached_asAMissingUser()
+    {
+        // arrange
+        users.failing = true;
+
+        // act
+        assertThrows(DaoException.class, () -> service.loadUserByUsername("newbie"));
+        boolean cachedAfterFailure = negativeLookups.isMissingUsername("newbie");
+        users.failing = false;
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("newbie"));
+
+        // assert
+        assertFalse(cachedAfterFailure, "Because a failed query says nothing about the user.");
+        assertNull(userDetailsCache.get("newbie"));
+        assertTrue(negativeLookups.isMissingUsername("newbie"), "Because a query that found no row is a real miss.");
+    }
+
+    private static class FailingUserDao implements UserDao
+    {
+        volatile boolean failing;
+
+        @Override
+        public User getByUserName(String username)
+        {
+            if (failing) throw new DaoException(new SQLException("Communications link failure"));
+            return null;
+        }
+
+        @Override
+        public List<User> getAll()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> getUsernames()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User getUserById(int userId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getIdByUsername(String username)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public User create(User user)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean exists(String username)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,9 +1,5 @@
--- Added extra sql code to regenerate test database
-DROP DATABASE IF EXISTS easyshop;
-
-CREATE DATABASE IF NOT EXISTS easyshop;
-
-USE easyshop;
+-- Runs inside the test database that TestDatabaseConfig created (MySQL) or opened (H2 in MySQL mode),
+-- so it must not switch databases and must stick to SQL both understand.
 
 -- Drop existing tables to ensure the script can be re-run multiple times
 DROP TABLE IF EXISTS users;
@@ -0,0 +1,65 @@
+package org.yearup.benchmarks;
+
+import org.yearup.models.Product;
+import org.yearup.models.ShoppingCart;
+import org.yearup.models.ShoppingCartItem;
+
+import java.math.BigDecimal;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Test data shaped like the seeded catalog, shared by the benchmarks.
+ */
+public final class Fixtures
+{
+    private static final String[] COLORS = {"Black", "White", "Red", "Blue", "Gray"};
+
+    private Fixtures()
+    {
+    }
+
+    public static Product product(int id)
+    {
+        return new Product(id, "Product " + id, new BigDecimal(id % 500 + ".99"), id % 3 + 1,
+                "A description of product " + id + " that is about as long as the ones in the catalog.",
+                COLORS[id % COLORS.length], id % 100, id % 10 == 0, "product-" + id + ".jpg");
+    }
+
+    public static List<Product> products(int count)
+    {
+        List<Product> products = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++)
+        {
+            products.add(product(id));
+        }
+        return products;
+    }
+
+    public static ShoppingCart cart(int items)
+    {
+        ShoppingCart cart = new ShoppingCart();
+        for (int id = 1; id <= items; id++)
+        {
+            ShoppingCartItem item = new ShoppingCartItem();
+            item.setProduct(product(id));
+            item.setQuantity(id % 4 + 1);
+            if (id % 5 == 0)
+            {
+                item.setDiscountPercent(new BigDecimal("0.10"));
+            }
+            cart.add(item);
+        }
+        return cart;
+    }
+
+    // a random HS512 key in the same form as jwt.secret
+    public static String jwtSecret()
+    {
+        byte[] key = new byte[64];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
@@ -0,0 +1,554 @@
+package org.yearup.benchmarks.data;
+
+import org.apache.ibatis.jdbc.ScriptRunner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Fills an EasyShop database with a realistic volume of generated data: categories, products, users with profiles,
+ * shopping carts and orders with their line items. Rows are added next to whatever is already there.
+ *
+ * The data is skewed the way a real shop is: a few categories hold most of the products, a few colors dominate,
+ * prices are log-normal (many cheap products, a long tail of expensive ones), a small set of products ends up in
+ * most carts and orders, and some users order far more than others. The same --seed always generates the same data.
+ *
+ * Rows are written with batched prepared statements in one transaction per batch. On MySQL the driver is told to
+ * rewrite each batch into multi-row INSERTs, and unique and foreign key checks are switched off for the session.
+ *
+ * Run with (after database/create_database.sql):
+ * java -cp easyshop-benchmarks/target/benchmarks.jar org.yearup.benchmarks.data.DataGenerator \
+ *      --url=jdbc:mysql://localhost:3306/easyshop --username=root --password=yearup --products=1000000 --users=200000
+ */
+public class DataGenerator
+{
+    static final String USAGE = """
+            Usage: java -cp benchmarks.jar org.yearup.benchmarks.data.DataGenerator [--name=value ...]
+
+              --url=jdbc:mysql://localhost:3306/easyshop   database to fill (MySQL or H2)
+              --username=root
+              --password=yearup
+              --schema=                           SQL script to run first, e.g. for a fresh H2 database
+              --categories=50                     categories to add
+              --products=1000000                  products to add
+              --users=200000                      users to add, each with a profile; named generated1, generated2, ...
+              --cart-users=0.2                    fraction of the new users that have something in their cart
+              --orders=500000                     orders to add, with 1-5 line items each
+              --batch=1000                        rows per batch and per transaction
+              --seed=42
+            """;
+
+    // the bcrypt hash of "password", as in create_database.sql
+    private static final String HASHED_PASSWORD = "$2a$10$NkufUPF3V8dEPSZeo1fzHe9ScBu.LOay9S3N32M84yuUM2OJYEJ/.";
+
+    private static final String[] COLORS = {"Black", "White", "Gray", "Blue", "Red", "Silver", "Green", "Navy",
+            "Brown", "Beige", "Pink", "Charcoal", "Gold", "Purple", "Orange", "Teal"};
+    private static final String[] ADJECTIVES = {"Classic", "Premium", "Compact", "Deluxe", "Essential", "Ultra",
+            "Smart", "Portable", "Vintage", "Modern", "Rugged", "Slim", "Wireless", "Organic", "Pro", "Everyday"};
+    private static final String[] NOUNS = {"Headphones", "Jacket", "Blender", "Backpack", "Lamp", "Sneakers",
+            "Watch", "Speaker", "Kettle", "Jeans", "Camera", "Chair", "Mug", "Keyboard", "Blanket", "Sunglasses",
+            "Skillet", "Hoodie", "Monitor", "Rug"};
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael",
+            "Linda", "David", "Elizabeth", "Maria", "Wei", "Aisha", "Carlos", "Priya", "Kenji", "Fatima", "Olga"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Nguyen", "Kim", "Patel", "Okafor", "Cohen", "Silva", "Novak"};
+    private static final String[] STREETS = {"Main Street", "Oak Avenue", "Elm Street", "Maple Drive", "Cedar Lane",
+            "Pine Road", "Lakeview Drive", "Park Avenue", "Hillcrest Road", "Sunset Boulevard"};
+    private static final String[][] CITIES = {{"Dallas", "TX"}, {"Houston", "TX"}, {"Austin", "TX"},
+            {"New York", "NY"}, {"Los Angeles", "CA"}, {"Chicago", "IL"}, {"Phoenix", "AZ"}, {"Seattle", "WA"},
+            {"Denver", "CO"}, {"Atlanta", "GA"}, {"Miami", "FL"}, {"Boston", "MA"}};
+
+    private final Connection connection;
+    private final int batchSize;
+    private final Random random;
+    // generated users are numbered on from the ones an earlier run added
+    private int firstUserNumber = 1;
+
+    DataGenerator(Connection connection, int batchSize, long seed)
+    {
+        this.connection = connection;
+        this.batchSize = batchSize;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args)
+        {
+            int equals = arg.indexOf('=');
+            if (arg.equals("--help") || !arg.startsWith("--") || equals < 0)
+            {
+                System.out.println(USAGE);
+                return;
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        int categories, products, users, orders, batchSize;
+        double cartUsers;
+        long seed;
+        try
+        {
+            categories = Integer.parseInt(options.getOrDefault("categories", "50"));
+            products = Integer.parseInt(options.getOrDefault("products", "1000000"));
+            users = Integer.parseInt(options.getOrDefault("users", "200000"));
+            cartUsers = Double.parseDouble(options.getOrDefault("cart-users", "0.2"));
+            orders = Integer.parseInt(options.getOrDefault("orders", "500000"));
+            batchSize = Integer.parseInt(options.getOrDefault("batch", "1000"));
+            seed = Long.parseLong(options.getOrDefault("seed", "42"));
+            validate(categories, products, users, cartUsers, orders, batchSize);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        String url = options.getOrDefault("url", "jdbc:mysql://localhost:3306/easyshop");
+        if (url.startsWith("jdbc:mysql:") && !url.contains("rewriteBatchedStatements"))
+        {
+            url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+
+        try (Connection connection = DriverManager.getConnection(url,
+                options.getOrDefault("username", "root"), options.getOrDefault("password", "yearup")))
+        {
+            String schema = options.getOrDefault("schema", "");
+            if (!schema.isBlank())
+            {
+                runScript(connection, Path.of(schema));
+            }
+
+            new DataGenerator(connection, batchSize, seed).generate(categories, products, users, cartUsers, orders);
+        }
+    }
+
+    // every product goes into one of the new categories, so there have to be some
+    static void validate(int categories, int products, int users, double cartUsers, int orders, int batchSize)
+    {
+        if (categories < 0 || products < 0 || users < 0 || orders < 0)
+        {
+            throw new IllegalArgumentException("--categories, --products, --users and --orders can't be negative");
+        }
+        if (products > 0 && categories == 0)
+        {
+            throw new IllegalArgumentException("--products=" + products + " needs at least one category to put them in");
+        }
+        if (cartUsers < 0 || cartUsers > 1)
+        {
+            throw new IllegalArgumentException("--cart-users is a fraction between 0 and 1, not " + cartUsers);
+        }
+        if (batchSize < 1)
+        {
+            throw new IllegalArgumentException("--batch must be at least 1");
+        }
+    }
+
+    void generate(int categories, int products, int users, double cartUsers, int orders) throws SQLException
+    {
+        boolean mysql = connection.getMetaData().getURL().startsWith("jdbc:mysql:");
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        if (mysql)
+        {
+            execute("SET unique_checks = 0, foreign_key_checks = 0");
+        }
+
+        try
+        {
+            int[] categoryIds = insertCategories(categories);
+            Catalog catalog = insertProducts(products, categoryIds);
+            int[] userIds = insertUsers(users);
+            insertProfiles(userIds);
+            insertCarts(userIds, (int) (userIds.length * cartUsers), catalog);
+            insertOrders(orders, userIds, catalog);
+        }
+        finally
+        {
+            if (mysql)
+            {
+                execute("SET unique_checks = 1, foreign_key_checks = 1");
+            }
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private int[] insertCategories(int count) throws SQLException
+    {
+        long after = maxId("categories", "category_id");
+        try (Batch batch = new Batch("categories", "INSERT INTO categories (name, description) VALUES (?, ?)"))
+        {
+            for (int i = 1; i <= count; i++)
+            {
+                batch.statement.setString(1, "Category " + i);
+                batch.statement.setString(2, "Generated category " + i + " for scale testing.");
+                batch.add();
+            }
+        }
+        return idsAfter("categories", "category_id", after);
+    }
+
+    private Catalog insertProducts(int count, int[] categoryIds) throws SQLException
+    {
+        long after = maxId("products", "product_id");
+        Zipf categoryPopularity = new Zipf(categoryIds.length, 1.0);
+        Zipf colorPopularity = new Zipf(COLORS.length, 1.2);
+
+        // some categories are pricier than others (appliances vs. socks)
+        double[] categoryPriceFactor = new double[categoryIds.length];
+        for (int i = 0; i < categoryPriceFactor.length; i++)
+        {
+            categoryPriceFactor[i] = Math.exp(0.6 * random.nextGaussian());
+        }
+
+        int[] priceCents = new int[count];
+        String sql = """
+                INSERT INTO products (name, price, category_id, description, color, image_url, stock, featured)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        try (Batch batch = new Batch("products", sql))
+        {
+            for (int i = 0; i < count; i++)
+            {
+                int category = categoryPopularity.next(random);
+                String color = COLORS[colorPopularity.next(random)];
+                String noun = NOUNS[random.nextInt(NOUNS.length)];
+
+                // log-normal around $40, between $1 and $5000, ending in .99
+                double price = 40 * categoryPriceFactor[category] * Math.exp(random.nextGaussian());
+                int cents = (int) Math.max(0, Math.min(4999, Math.floor(price))) * 100 + 99;
+                priceCents[i] = cents;
+
+                batch.statement.setString(1, ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun + " " + (i + 1));
+                batch.statement.setBigDecimal(2, BigDecimal.valueOf(cents, 2));
+                batch.statement.setInt(3, categoryIds[category]);
+                batch.statement.setString(4, "A " + color.toLowerCase(Locale.ROOT) + " " + noun.toLowerCase(Locale.ROOT)
+                        + " that is built to last and priced to move. Generated product number " + (i + 1) + ".");
+                batch.statement.setString(5, color);
+                batch.statement.setString(6, noun.toLowerCase(Locale.ROOT) + ".jpg");
+                batch.statement.setInt(7, (int) Math.min(500, -50 * Math.log(1 - random.nextDouble())));
+                batch.statement.setBoolean(8, random.nextInt(50) == 0);
+                batch.add();
+            }
+        }
+        return new Catalog(idsAfter("products", "product_id", after), priceCents, random);
+    }
+
+    private int[] insertUsers(int count) throws SQLException
+    {
+        long after = maxId("users", "user_id");
+        try (Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery("SELECT COUNT(*) FROM users WHERE username LIKE 'generated%'"))
+        {
+            row.next();
+            firstUserNumber = row.getInt(1) + 1;
+        }
+
+        try (Batch batch = new Batch("users", "INSERT INTO users (username, hashed_password, role) VALUES (?, ?, 'ROLE_USER')"))
+        {
+            for (int i = 0; i < count; i++)
+            {
+                batch.statement.setString(1, "generated" + (firstUserNumber + i));
+                batch.statement.setString(2, HASHED_PASSWORD);
+                batch.add();
+            }
+        }
+        return idsAfter("users", "user_id", after);
+    }
+
+    private void insertProfiles(int[] userIds) throws SQLException
+    {
+        Zipf cityPopularity = new Zipf(CITIES.length, 0.8);
+        String sql = """
+                INSERT INTO profiles (user_id, first_name, last_name, phone, email, address, city, state, zip)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        try (Batch batch = new Batch("profiles", sql))
+        {
+            for (int i = 0; i < userIds.length; i++)
+            {
+                String[] city = CITIES[cityPopularity.next(random)];
+                batch.statement.setInt(1, userIds[i]);
+                batch.statement.setString(2, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                batch.statement.setString(3, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                batch.statement.setString(4, String.format("%03d-555-%04d", 200 + random.nextInt(800), random.nextInt(10_000)));
+                batch.statement.setString(5, "generated" + (firstUserNumber + i) + "@example.com");
+                batch.statement.setString(6, (1 + random.nextInt(9_999)) + " " + STREETS[random.nextInt(STREETS.length)]);
+                batch.statement.setString(7, city[0]);
+                batch.statement.setString(8, city[1]);
+                batch.statement.setString(9, String.format("%05d", 10_000 + random.nextInt(89_999)));
+                batch.add();
+            }
+        }
+    }
+
+    private void insertCarts(int[] userIds, int cartCount, Catalog catalog) throws SQLException
+    {
+        if (catalog.size() == 0) return;
+
+        try (Batch batch = new Batch("shopping_cart", "INSERT INTO shopping_cart (user_id, product_id, quantity) VALUES (?, ?, ?)"))
+        {
+            Set<Integer> inCart = new HashSet<>();
+            for (int i = 0; i < Math.min(cartCount, userIds.length); i++)
+            {
+                inCart.clear();
+                int items = 1 + (int) Math.min(9, -2 * Math.log(1 - random.nextDouble()));
+                for (int item = 0; item < items; item++)
+                {
+                    int product = catalog.popular();
+                    if (!inCart.add(product)) continue;
+
+                    batch.statement.setInt(1, userIds[i]);
+                    batch.statement.setInt(2, catalog.id(product));
+                    batch.statement.setInt(3, 1 + (random.nextInt(4) == 0 ? random.nextInt(3) : 0));
+                    batch.add();
+                }
+            }
+        }
+    }
+
+    private void insertOrders(int count, int[] userIds, Catalog catalog) throws SQLException
+    {
+        if (count == 0 || userIds.length == 0 || catalog.size() == 0) return;
+
+        long after = maxId("orders", "order_id");
+        Zipf buyers = new Zipf(userIds.length, 0.7);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        String sql = """
+                INSERT INTO orders (user_id, date, address, city, state, zip, shipping_amount)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """;
+        try (Batch batch = new Batch("orders", sql))
+        {
+            for (int i = 0; i < count; i++)
+            {
+                String[] city = CITIES[random.nextInt(CITIES.length)];
+                batch.statement.setInt(1, userIds[buyers.next(random)]);
+                batch.statement.setTimestamp(2, Timestamp.valueOf(now.minusMinutes(random.nextInt(2 * 365 * 24 * 60))));
+                batch.statement.setString(3, (1 + random.nextInt(9_999)) + " " + STREETS[random.nextInt(STREETS.length)]);
+                batch.statement.setString(4, city[0]);
+                batch.statement.setString(5, city[1]);
+                batch.statement.setString(6, String.format("%05d", 10_000 + random.nextInt(89_999)));
+                batch.statement.setBigDecimal(7, random.nextInt(3) == 0 ? BigDecimal.ZERO : new BigDecimal("5.99"));
+                batch.add();
+            }
+        }
+
+        int[] orderIds = idsAfter("orders", "order_id", after);
+        sql = """
+                INSERT INTO order_line_items (order_id, product_id, sales_price, quantity, discount)
+                VALUES (?, ?, ?, ?, ?)
+                """;
+        try (Batch batch = new Batch("order_line_items", sql))
+        {
+            for (int orderId : orderIds)
+            {
+                int items = 1 + (int) Math.min(4, -1.2 * Math.log(1 - random.nextDouble()));
+                for (int item = 0; item < items; item++)
+                {
+                    int product = catalog.popular();
+                    batch.statement.setInt(1, orderId);
+                    batch.statement.setInt(2, catalog.id(product));
+                    batch.statement.setBigDecimal(3, catalog.price(product));
+                    batch.statement.setInt(4, 1 + (random.nextInt(5) == 0 ? random.nextInt(4) : 0));
+                    batch.statement.setBigDecimal(5, random.nextInt(10) == 0 ? new BigDecimal("0.10") : BigDecimal.ZERO);
+                    batch.add();
+                }
+            }
+        }
+    }
+
+    private long maxId(String table, String column) throws SQLException
+    {
+        try (Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table))
+        {
+            row.next();
+            return row.getLong(1);
+        }
+    }
+
+    // the keys of the rows just inserted, in insert order
+    private int[] idsAfter(String table, String column, long after) throws SQLException
+    {
+        IntList ids = new IntList();
+        String sql = "SELECT " + column + " FROM " + table + " WHERE " + column + " > ? ORDER BY " + column;
+        try (PreparedStatement statement = connection.prepareStatement(sql))
+        {
+            statement.setLong(1, after);
+            try (ResultSet row = statement.executeQuery())
+            {
+                while (row.next())
+                {
+                    ids.add(row.getInt(1));
+                }
+            }
+        }
+        return ids.toArray();
+    }
+
+    private void execute(String sql) throws SQLException
+    {
+        try (Statement statement = connection.createStatement())
+        {
+            statement.execute(sql);
+        }
+    }
+
+    private static void runScript(Connection connection, Path script) throws IOException
+    {
+        ScriptRunner runner = new ScriptRunner(connection);
+        runner.setStopOnError(true);
+        runner.setLogWriter(null);
+        try (Reader reader = Files.newBufferedReader(script))
+        {
+            runner.runScript(reader);
+        }
+    }
+
+    /**
+     * A prepared statement that is executed and committed every batchSize rows, and reports its rate when closed.
+     */
+    private final class Batch implements AutoCloseable
+    {
+        private final String table;
+        private final PreparedStatement statement;
+        private final long start = System.nanoTime();
+        private long rows;
+
+        private Batch(String table, String sql) throws SQLException
+        {
+            this.table = table;
+            this.statement = connection.prepareStatement(sql);
+        }
+
+        void add() throws SQLException
+        {
+            statement.addBatch();
+            if (++rows % batchSize == 0)
+            {
+                flush();
+                if (rows % (batchSize * 100L) == 0)
+                {
+                    System.out.printf(Locale.ROOT, "  %s: %,d rows%n", table, rows);
+                }
+            }
+        }
+
+        private void flush() throws SQLException
+        {
+            statement.executeBatch();
+            connection.commit();
+        }
+
+        @Override
+        public void close() throws SQLException
+        {
+            try
+            {
+                flush();
+            }
+            finally
+            {
+                statement.close();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "%-17s %,12d rows in %7.1f s (%,.0f rows/s)%n",
+                    table, rows, seconds, rows / Math.max(seconds, 1e-9));
+        }
+    }
+
+    /**
+     * The generated products, with a popularity ranking that is independent of insert order.
+     */
+    private static final class Catalog
+    {
+        private final int[] ids;
+        private final int[] priceCents;
+        private final int[] byPopularity;
+        private final Zipf popularity;
+        private final Random random;
+
+        private Catalog(int[] ids, int[] priceCents, Random random)
+        {
+            this.ids = ids;
+            this.priceCents = priceCents;
+            this.random = random;
+            this.byPopularity = new int[ids.length];
+            for (int i = 0; i < ids.length; i++)
+            {
+                byPopularity[i] = i;
+            }
+            for (int i = ids.length - 1; i > 0; i--)
+            {
+                int j = random.nextInt(i + 1);
+                int swap = byPopularity[i];
+                byPopularity[i] = byPopularity[j];
+                byPopularity[j] = swap;
+            }
+            this.popularity = new Zipf(Math.max(1, ids.length), 1.0);
+        }
+
+        int size()
+        {
+            return ids.length;
+        }
+
+        // index of a product, drawn by popularity
+        int popular()
+        {
+            return byPopularity[popularity.next(random)];
+        }
+
+        int id(int product)
+        {
+            return ids[product];
+        }
+
+        BigDecimal price(int product)
+        {
+            return BigDecimal.valueOf(priceCents[product], 2);
+        }
+    }
+
+    private static final class IntList
+    {
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray()
+        {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
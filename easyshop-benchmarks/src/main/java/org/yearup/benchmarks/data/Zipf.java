@@ -0,0 +1,34 @@
+package org.yearup.benchmarks.data;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws 0..n-1 with probability proportional to 1 / (rank + 1)^exponent, so a few values are very common and most
+ * are rare: a handful of categories hold most products, a few products are in most carts.
+ */
+final class Zipf
+{
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent)
+    {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++)
+        {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++)
+        {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    int next(Random random)
+    {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+}
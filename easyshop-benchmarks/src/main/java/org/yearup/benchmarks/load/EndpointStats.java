@@ -0,0 +1,121 @@
+package org.yearup.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Response times and errors per endpoint ("GET /products", "POST /cart/products/{id}", ...).
+ *
+ * Virtual users record into a {@link Recorder} per endpoint without locking. The reporting thread calls
+ * {@link #sample()} once per interval, which swaps each recorder's interval histogram out and adds it to the
+ * endpoint's running total.
+ */
+final class EndpointStats
+{
+    // microseconds, up to a minute, 3 significant digits
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final HistogramLogWriter logWriter;
+
+    EndpointStats(HistogramLogWriter logWriter)
+    {
+        this.logWriter = logWriter;
+    }
+
+    void record(String endpoint, long nanos, boolean failed)
+    {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, Endpoint::new);
+        stats.recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE));
+        if (failed)
+        {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Moves everything recorded since the last call into the running totals.
+     *
+     * @return the requests of this interval, per endpoint
+     */
+    synchronized Map<String, Histogram> sample()
+    {
+        Map<String, Histogram> interval = new TreeMap<>();
+        for (Endpoint endpoint : endpoints.values())
+        {
+            endpoint.interval = endpoint.recorder.getIntervalHistogram(endpoint.interval);
+            endpoint.total.add(endpoint.interval);
+            interval.put(endpoint.name, endpoint.interval);
+
+            if (logWriter != null)
+            {
+                endpoint.interval.setTag(endpoint.name);
+                logWriter.outputIntervalHistogram(endpoint.interval);
+            }
+        }
+        return interval;
+    }
+
+    // drops what was recorded during the warmup
+    synchronized void reset()
+    {
+        sample();
+        for (Endpoint endpoint : endpoints.values())
+        {
+            endpoint.total.reset();
+            endpoint.errors.reset();
+        }
+    }
+
+    synchronized Map<String, Result> results(double seconds)
+    {
+        Map<String, Result> results = new TreeMap<>();
+        for (Endpoint endpoint : endpoints.values())
+        {
+            results.put(endpoint.name, Result.of(endpoint.total, endpoint.errors.sum(), seconds));
+        }
+        return results;
+    }
+
+    private static final class Endpoint
+    {
+        private final String name;
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+        private final LongAdder errors = new LongAdder();
+        private Histogram interval;
+
+        private Endpoint(String name)
+        {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Requests, failures, throughput and latency percentiles (in milliseconds) of one endpoint.
+     */
+    record Result(long requests, long errors, double throughput,
+                  double mean, double p50, double p95, double p99, double p999, double max)
+    {
+        static Result of(Histogram histogram, long errors, double seconds)
+        {
+            return new Result(histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                    histogram.getMean() / 1000.0,
+                    millis(histogram, 50.0), millis(histogram, 95.0), millis(histogram, 99.0), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0);
+        }
+
+        private static double millis(Histogram histogram, double percentile)
+        {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.yearup.benchmarks.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load generator for a running backend. Each virtual user logs in and then browses, searches and fills
+ * and empties its cart the way the storefront does, with think time between requests. Reports throughput and
+ * p50/p95/p99/p99.9 per endpoint from HdrHistograms, while running and at the end.
+ *
+ * Being closed loop, a slow server also slows the rate at which requests are sent, so the percentiles describe
+ * the service time a user saw, not what an open stream of arrivals would have queued behind. Run enough users
+ * (and little enough think time) to keep the server busy.
+ *
+ * Run with:
+ * java -cp easyshop-benchmarks/target/benchmarks.jar org.yearup.benchmarks.load.LoadGenerator --users=50 --duration=2m
+ */
+public class LoadGenerator
+{
+    public static void main(String[] args) throws Exception
+    {
+        if (List.of(args).contains("--help"))
+        {
+            System.out.println(LoadOptions.USAGE);
+            return;
+        }
+
+        LoadOptions options;
+        try
+        {
+            options = LoadOptions.parse(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.err.println(e.getMessage());
+            System.err.println(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        new LoadGenerator().run(options, System.out);
+    }
+
+    void run(LoadOptions options, PrintStream out) throws IOException, InterruptedException
+    {
+        HistogramLogWriter logWriter = null;
+        if (options.histogramLog() != null)
+        {
+            logWriter = new HistogramLogWriter(options.histogramLog().toFile());
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(System.currentTimeMillis());
+            logWriter.setBaseTime(System.currentTimeMillis());
+            logWriter.outputLegend();
+        }
+
+        EndpointStats stats = new EndpointStats(logWriter);
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(2, options.users() / 4), daemon("http-client")))
+                .build();
+
+        long warmupEnd = System.nanoTime() + options.warmup().toNanos();
+        long end = warmupEnd + options.duration().toNanos();
+        ExecutorService users = Executors.newFixedThreadPool(options.users(), daemon("virtual-user"));
+        for (int i = 0; i < options.users(); i++)
+        {
+            String account = options.accounts().get(i % options.accounts().size());
+            users.execute(new VirtualUser(new StorefrontClient(http, options.url(), stats), account, options, i,
+                    () -> System.nanoTime() < end));
+        }
+
+        out.printf("%d virtual users against %s: %s warmup, then %s measured%n",
+                options.users(), options.url(), options.warmup(), options.duration());
+        sleepUntil(warmupEnd);
+        stats.reset();
+        long measureStart = System.nanoTime();
+
+        long intervalStart = measureStart;
+        while (intervalStart < end)
+        {
+            long next = Math.min(end, intervalStart + options.reportInterval().toNanos());
+            sleepUntil(next);
+            printInterval(out, stats.sample(), Duration.ofNanos(next - intervalStart));
+            intervalStart = next;
+        }
+
+        users.shutdownNow();
+        users.awaitTermination(30, TimeUnit.SECONDS);
+        stats.sample();
+        if (logWriter != null)
+        {
+            logWriter.close();
+        }
+
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+        Map<String, EndpointStats.Result> results = stats.results(seconds);
+        printResults(out, results);
+
+        if (options.output() != null)
+        {
+            writeJson(options, results, seconds);
+            out.println("Results written to " + options.output());
+        }
+    }
+
+    private static void printInterval(PrintStream out, Map<String, Histogram> interval, Duration length)
+    {
+        long requests = interval.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        long p99 = interval.values().stream().mapToLong(h -> h.getValueAtPercentile(99.0)).max().orElse(0);
+        out.printf(Locale.ROOT, "%s  %8.1f req/s  worst endpoint p99 %8.2f ms%n",
+                Instant.now(), requests / (length.toMillis() / 1000.0), p99 / 1000.0);
+    }
+
+    private static void printResults(PrintStream out, Map<String, EndpointStats.Result> results)
+    {
+        out.println();
+        out.printf(Locale.ROOT, "%-28s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        long requests = 0;
+        long errors = 0;
+        double throughput = 0;
+        for (Map.Entry<String, EndpointStats.Result> entry : results.entrySet())
+        {
+            EndpointStats.Result r = entry.getValue();
+            out.printf(Locale.ROOT, "%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), r.requests(), r.errors(), r.throughput(), r.p50(), r.p95(), r.p99(), r.p999(), r.max());
+            requests += r.requests();
+            errors += r.errors();
+            throughput += r.throughput();
+        }
+        out.printf(Locale.ROOT, "%-28s %9d %7d %9.1f%n", "total", requests, errors, throughput);
+    }
+
+    private static void writeJson(LoadOptions options, Map<String, EndpointStats.Result> results, double seconds)
+            throws IOException
+    {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("url", options.url().toString());
+        report.put("users", options.users());
+        report.put("thinkTimeMs", options.thinkTime().toMillis());
+        report.put("mix", options.mix());
+        report.put("seconds", seconds);
+        report.put("endpoints", results);
+
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(options.output().toFile(), report);
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException
+    {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0)
+        {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private static ThreadFactory daemon(String name)
+    {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package org.yearup.benchmarks.load;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadGenerator}, given as --name=value.
+ *
+ * @param accounts  usernames the virtual users log in as, shared round-robin; "generated1..500" expands to a range
+ * @param mix       relative weight of each scenario
+ * @param output    where to write the JSON report, or null
+ * @param histogramLog where to write the interval histograms in HdrHistogram log format, or null
+ */
+record LoadOptions(URI url,
+                   int users,
+                   Duration duration,
+                   Duration warmup,
+                   Duration thinkTime,
+                   Duration reportInterval,
+                   List<String> accounts,
+                   String password,
+                   Map<Scenario, Integer> mix,
+                   Path output,
+                   Path histogramLog)
+{
+    static final String USAGE = """
+            Usage: java -cp benchmarks.jar org.yearup.benchmarks.load.LoadGenerator [--name=value ...]
+
+              --url=http://localhost:8080         backend to load
+              --users=20                          concurrent virtual users (closed loop: one request in flight each)
+              --duration=60s                      how long to measure
+              --warmup=10s                        how long to run before measuring
+              --think-time=500ms                  mean pause between a user's requests (exponentially distributed, 0 for none)
+              --report-interval=10s               how often to print progress
+              --accounts=user,george              usernames to log in as; generated1..1000 expands to a range
+              --password=password                 password of every account
+              --mix=browse=60,search=25,cart=15   relative weight of each scenario
+              --output=load-result.json           JSON report
+              --histogram-log=load.hlog           interval histograms in HdrHistogram log format
+            """;
+
+    static LoadOptions parse(String[] args)
+    {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args)
+        {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0)
+            {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+                URI.create(stripTrailingSlash(take(values, "url", "http://localhost:8080"))),
+                Integer.parseInt(take(values, "users", "20")),
+                duration(take(values, "duration", "60s")),
+                duration(take(values, "warmup", "10s")),
+                duration(take(values, "think-time", "500ms")),
+                duration(take(values, "report-interval", "10s")),
+                accounts(take(values, "accounts", "user,george")),
+                take(values, "password", "password"),
+                mix(take(values, "mix", "browse=60,search=25,cart=15")),
+                path(take(values, "output", "")),
+                path(take(values, "histogram-log", "")));
+
+        if (!values.isEmpty())
+        {
+            throw new IllegalArgumentException("Unknown option(s) " + values.keySet());
+        }
+        if (options.users() < 1 || options.accounts().isEmpty())
+        {
+            throw new IllegalArgumentException("Need at least one user and one account");
+        }
+        return options;
+    }
+
+    // "250ms", "10s", "2m"
+    static Duration duration(String value)
+    {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ms")) return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        if (text.endsWith("s")) return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        if (text.endsWith("m")) return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+        return Duration.ofMillis(Long.parseLong(text));
+    }
+
+    static List<String> accounts(String value)
+    {
+        List<String> accounts = new ArrayList<>();
+        for (String account : value.split(","))
+        {
+            account = account.trim();
+            int range = account.indexOf("..");
+            if (range < 0)
+            {
+                if (!account.isEmpty()) accounts.add(account);
+                continue;
+            }
+
+            // generated1..500
+            String first = account.substring(0, range);
+            int digits = first.length();
+            while (digits > 0 && Character.isDigit(first.charAt(digits - 1))) digits--;
+            String prefix = first.substring(0, digits);
+            int from = Integer.parseInt(first.substring(digits));
+            int to = Integer.parseInt(account.substring(range + 2));
+            for (int i = from; i <= to; i++)
+            {
+                accounts.add(prefix + i);
+            }
+        }
+        return accounts;
+    }
+
+    static Map<Scenario, Integer> mix(String value)
+    {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String entry : value.split(","))
+        {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0)
+            {
+                mix.put(Scenario.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty())
+        {
+            throw new IllegalArgumentException("The scenario mix needs at least one positive weight");
+        }
+        return mix;
+    }
+
+    private static String take(Map<String, String> values, String name, String defaultValue)
+    {
+        String value = values.remove(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static String stripTrailingSlash(String url)
+    {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static Path path(String value)
+    {
+        return value.isBlank() ? null : Path.of(value);
+    }
+}
@@ -0,0 +1,91 @@
+package org.yearup.benchmarks.load;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * What a virtual user does on one visit, following the storefront's own sequence of calls.
+ */
+enum Scenario
+{
+    /**
+     * The home page (categories and every product), then a category page.
+     */
+    BROWSE
+    {
+        @Override
+        void run(VirtualUser user)
+        {
+            StorefrontClient client = user.client();
+            List<Integer> categories = StorefrontClient.ids(client.categories(), "categoryId");
+            user.think();
+            user.remember(client.products(""));
+            user.think();
+            if (!categories.isEmpty())
+            {
+                user.remember(client.products("?cat=" + user.pick(categories)));
+            }
+        }
+    },
+
+    /**
+     * The filter form: any combination of category, price range and color.
+     */
+    SEARCH
+    {
+        @Override
+        void run(VirtualUser user)
+        {
+            Random random = user.random();
+            StringBuilder query = new StringBuilder();
+            if (random.nextBoolean()) append(query, "cat", String.valueOf(random.nextInt(3) + 1));
+            if (random.nextBoolean())
+            {
+                int minPrice = random.nextInt(20) * 25;
+                append(query, "minPrice", String.valueOf(minPrice));
+                if (random.nextBoolean()) append(query, "maxPrice", String.valueOf(minPrice + 25 + random.nextInt(8) * 25));
+            }
+            if (random.nextInt(3) == 0) append(query, "color", COLORS[random.nextInt(COLORS.length)]);
+
+            user.remember(user.client().products(query.toString()));
+        }
+    },
+
+    /**
+     * Add a few products, change a quantity, look at the cart and empty it.
+     */
+    CART
+    {
+        @Override
+        void run(VirtualUser user)
+        {
+            StorefrontClient client = user.client();
+            int items = user.random().nextInt(3) + 1;
+            int last = 0;
+            for (int i = 0; i < items; i++)
+            {
+                Integer productId = user.randomProduct();
+                if (productId == null) return;
+
+                client.addToCart(productId);
+                last = productId;
+                user.think();
+            }
+
+            client.updateQuantity(last, user.random().nextInt(5) + 1);
+            user.think();
+            client.cart();
+            user.think();
+            client.clearCart();
+        }
+    };
+
+    private static final String[] COLORS = {"Black", "White", "Gray", "Blue", "Red"};
+
+    abstract void run(VirtualUser user);
+
+    private static void append(StringBuilder query, String name, String value)
+    {
+        query.append(query.length() == 0 ? '?' : '&').append(name).append('=').append(value);
+    }
+}
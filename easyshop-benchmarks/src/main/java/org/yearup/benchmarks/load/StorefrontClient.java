@@ -0,0 +1,151 @@
+package org.yearup.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The HTTP calls the storefront makes (js/services/*-service.js), for one virtual user.
+ *
+ * Every call is timed into {@link EndpointStats} under its endpoint template, so /products?cat=1 and /products?cat=2
+ * are reported together. A call fails when the request throws or the status is not 2xx; it then returns null.
+ */
+final class StorefrontClient
+{
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final URI baseUrl;
+    private final EndpointStats stats;
+    private String token;
+
+    StorefrontClient(HttpClient http, URI baseUrl, EndpointStats stats)
+    {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    boolean login(String username, String password)
+    {
+        JsonNode body = send("POST /login", "POST", "/login",
+                MAPPER.createObjectNode().put("username", username).put("password", password));
+        token = body == null ? null : body.path("token").asText(null);
+        return token != null;
+    }
+
+    JsonNode categories()
+    {
+        return send("GET /categories", "GET", "/categories", null);
+    }
+
+    /**
+     * @param query e.g. "?cat=1&minPrice=25", or "" for every product
+     */
+    JsonNode products(String query)
+    {
+        return send(query.isEmpty() ? "GET /products" : "GET /products?filter", "GET", "/products" + query, null);
+    }
+
+    JsonNode cart()
+    {
+        return send("GET /cart", "GET", "/cart", null);
+    }
+
+    JsonNode addToCart(int productId)
+    {
+        return send("POST /cart/products/{id}", "POST", "/cart/products/" + productId, MAPPER.createObjectNode());
+    }
+
+    JsonNode updateQuantity(int productId, int quantity)
+    {
+        return send("PUT /cart/products/{id}", "PUT", "/cart/products/" + productId,
+                MAPPER.createObjectNode().put("quantity", quantity));
+    }
+
+    JsonNode clearCart()
+    {
+        return send("DELETE /cart", "DELETE", "/cart", null);
+    }
+
+    static List<Integer> ids(JsonNode array, String field)
+    {
+        List<Integer> ids = new ArrayList<>();
+        if (array != null)
+        {
+            array.forEach(node -> ids.add(node.path(field).asInt()));
+        }
+        return ids;
+    }
+
+    private JsonNode send(String endpoint, String method, String path, JsonNode body)
+    {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null)
+        {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if (body != null)
+        {
+            request.header("Content-Type", "application/json");
+            request.method(method, HttpRequest.BodyPublishers.ofString(body.toString()));
+        }
+        else
+        {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        long start = System.nanoTime();
+        long elapsed;
+        JsonNode result = null;
+        try
+        {
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            elapsed = System.nanoTime() - start;
+            if (response.statusCode() / 100 == 2)
+            {
+                result = parse(response.body());
+            }
+        }
+        catch (IOException e)
+        {
+            elapsed = System.nanoTime() - start;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        // a 2xx whose body doesn't parse counts as an error, once
+        stats.record(endpoint, elapsed, result == null);
+        return result;
+    }
+
+    private static JsonNode parse(byte[] content)
+    {
+        if (content.length == 0 || content[0] != '{' && content[0] != '[')
+        {
+            return MAPPER.nullNode();
+        }
+        try
+        {
+            return MAPPER.readTree(content);
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+}
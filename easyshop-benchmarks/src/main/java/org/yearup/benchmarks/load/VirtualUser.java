@@ -0,0 +1,120 @@
+package org.yearup.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One shopper: logs in, then keeps picking a scenario from the mix and running it, pausing between requests,
+ * until told to stop. Closed loop, so it never has more than one request in flight.
+ */
+final class VirtualUser implements Runnable
+{
+    private final StorefrontClient client;
+    private final String username;
+    private final String password;
+    private final Map<Scenario, Integer> mix;
+    private final int totalWeight;
+    private final long thinkTimeMillis;
+    private final BooleanSupplier running;
+    private final Random random;
+    private List<Integer> productIds = new ArrayList<>();
+
+    VirtualUser(StorefrontClient client, String username, LoadOptions options, long seed, BooleanSupplier running)
+    {
+        this.client = client;
+        this.username = username;
+        this.password = options.password();
+        this.mix = options.mix();
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.thinkTimeMillis = options.thinkTime().toMillis();
+        this.running = running;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void run()
+    {
+        if (!client.login(username, password))
+        {
+            System.err.println("Could not log in as " + username + "; this virtual user stops.");
+            return;
+        }
+        // the storefront loads the cart right after logging in
+        client.cart();
+
+        while (running.getAsBoolean() && !Thread.currentThread().isInterrupted())
+        {
+            nextScenario().run(this);
+            think();
+        }
+    }
+
+    StorefrontClient client()
+    {
+        return client;
+    }
+
+    Random random()
+    {
+        return random;
+    }
+
+    <T> T pick(List<T> values)
+    {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    // products shown on the last page this user saw, which are the ones it can add to its cart
+    void remember(JsonNode products)
+    {
+        List<Integer> ids = StorefrontClient.ids(products, "productId");
+        if (!ids.isEmpty())
+        {
+            productIds = ids;
+        }
+    }
+
+    Integer randomProduct()
+    {
+        if (productIds.isEmpty())
+        {
+            remember(client.products(""));
+        }
+        return productIds.isEmpty() ? null : pick(productIds);
+    }
+
+    // exponentially distributed around the configured mean, like people reading a page
+    void think()
+    {
+        if (thinkTimeMillis <= 0 || !running.getAsBoolean()) return;
+
+        long pause = (long) (-thinkTimeMillis * Math.log(1 - random.nextDouble()));
+        try
+        {
+            Thread.sleep(Math.min(pause, thinkTimeMillis * 10));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Scenario nextScenario()
+    {
+        int ticket = random.nextInt(totalWeight);
+        for (Map.Entry<Scenario, Integer> entry : mix.entrySet())
+        {
+            ticket -= entry.getValue();
+            if (ticket < 0)
+            {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+}
@@ -0,0 +1,102 @@
+package org.yearup.converters;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.yearup.benchmarks.Fixtures;
+import org.yearup.models.Product;
+import org.yearup.models.ProductField;
+import org.yearup.models.ShoppingCart;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time of the product listing and cart bodies as JSON, CBOR and protobuf, with mappers configured like the
+ * application's. The body sizes don't change between iterations, so they are printed once per trial instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class SerializationFormatBenchmark
+{
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private List<Product> products;
+    private ShoppingCart cart;
+
+    @Setup(Level.Trial)
+    public void setup() throws JsonProcessingException
+    {
+        json = builder().build();
+        cbor = builder().factory(new CBORFactory()).build();
+        products = Fixtures.products(size);
+        cart = Fixtures.cart(size);
+
+        System.out.printf("%nbody bytes for %d products: json=%d cbor=%d protobuf=%d; cart: json=%d cbor=%d protobuf=%d%n", size,
+                json.writeValueAsBytes(products).length, cbor.writeValueAsBytes(products).length, ModelProtobuf.encode(products, null).length,
+                json.writeValueAsBytes(cart).length, cbor.writeValueAsBytes(cart).length, ModelProtobuf.encode(cart, null).length);
+    }
+
+    @Benchmark
+    public byte[] productsJson() throws JsonProcessingException
+    {
+        return json.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productsCbor() throws JsonProcessingException
+    {
+        return cbor.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] productsProtobuf()
+    {
+        return ModelProtobuf.encode(products, null);
+    }
+
+    @Benchmark
+    public byte[] cartJson() throws JsonProcessingException
+    {
+        return json.writeValueAsBytes(cart);
+    }
+
+    @Benchmark
+    public byte[] cartCbor() throws JsonProcessingException
+    {
+        return cbor.writeValueAsBytes(cart);
+    }
+
+    @Benchmark
+    public byte[] cartProtobuf()
+    {
+        return ModelProtobuf.encode(cart, null);
+    }
+
+    private static Jackson2ObjectMapperBuilder builder()
+    {
+        return Jackson2ObjectMapperBuilder.json()
+                .mixIn(Product.class, ProductField.MixIn.class)
+                .filters(ProductField.filters(null));
+    }
+}
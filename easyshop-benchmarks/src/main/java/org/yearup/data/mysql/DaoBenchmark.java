@@ -0,0 +1,128 @@
+package org.yearup.data.mysql;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yearup.configuration.TestData;
+import org.yearup.configuration.TestDatabaseConfig;
+import org.yearup.models.Product;
+import org.yearup.models.User;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the MySQL DAOs for product search, adding to a cart and looking a user up by name, run fully
+ * offline against an in-memory H2 database in MySQL mode loaded with test-data.sql plus generated rows.
+ *
+ * The numbers compare DAO changes with each other (SQL, mapping, pooling); they are not a prediction of
+ * MySQL throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+@Threads(4)
+public class DaoBenchmark
+{
+    private static final int USERS = 10_000;
+    private static final String[] COLORS = {"Black", "White", "Gray", "Blue", "Red"};
+
+    @Param({"1000", "100000"})
+    private int products;
+
+    private BasicDataSource dataSource;
+    private MySqlProductDao productDao;
+    private MySqlShoppingCartDao cartDao;
+    private MySqlUserDao userDao;
+    private int firstGeneratedUserId;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException, IOException
+    {
+        dataSource = new BasicDataSource();
+        dataSource.setUrl(String.format(TestDatabaseConfig.H2_URL, "easyshop_benchmark"));
+        dataSource.setMaxTotal(8);
+        dataSource.setMinIdle(8);
+
+        try (Connection connection = dataSource.getConnection())
+        {
+            TestData.load(connection);
+            TestData.addProducts(connection, products);
+            TestData.addUsers(connection, USERS);
+        }
+
+        productDao = new MySqlProductDao(dataSource);
+        cartDao = new MySqlShoppingCartDao(dataSource);
+        userDao = new MySqlUserDao(dataSource);
+        firstGeneratedUserId = userDao.getIdByUsername("generated1");
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearCarts() throws SQLException
+    {
+        execute("DELETE FROM shopping_cart");
+    }
+
+    @TearDown(Level.Trial)
+    public void dropDatabase() throws SQLException
+    {
+        execute("DROP ALL OBJECTS");
+        dataSource.close();
+    }
+
+    // a category and a 100.00-wide price band, half the time narrowed to one color
+    @Benchmark
+    public List<Product> search()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BigDecimal minPrice = BigDecimal.valueOf(random.nextInt(900));
+        String color = random.nextBoolean() ? COLORS[random.nextInt(COLORS.length)] : null;
+
+        return productDao.search(random.nextInt(3) + 1, minPrice, minPrice.add(BigDecimal.valueOf(100)), color);
+    }
+
+    @Benchmark
+    public Product addToCart()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int userId = firstGeneratedUserId + random.nextInt(USERS);
+
+        return cartDao.addProductById(userId, random.nextInt(products) + 1);
+    }
+
+    @Benchmark
+    public User getByUserName()
+    {
+        return userDao.getByUserName("generated" + (ThreadLocalRandom.current().nextInt(USERS) + 1));
+    }
+
+    private void execute(String sql) throws SQLException
+    {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute(sql);
+        }
+    }
+}
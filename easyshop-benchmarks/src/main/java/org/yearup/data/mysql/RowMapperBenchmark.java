@@ -0,0 +1,213 @@
+package org.yearup.data.mysql;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yearup.benchmarks.Fixtures;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+import org.yearup.models.ShoppingCartItem;
+import org.yearup.models.User;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps 10,000 rows with each of the DAO row mappers, and product rows with the old name-based mapRow as well.
+ * The rows live in in-memory CachedRowSets so the numbers reflect mapping cost, not the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class RowMapperBenchmark
+{
+    private static final int ROWS = 10_000;
+
+    private static final String[] PRODUCT_COLUMNS = {"product_id", "name", "price", "category_id", "description", "color", "image_url", "stock", "featured"};
+    private static final int[] PRODUCT_TYPES = {Types.INTEGER, Types.VARCHAR, Types.DECIMAL, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.BOOLEAN};
+
+    private CachedRowSet products;
+    private CachedRowSet cartItems;
+    private CachedRowSet categories;
+    private CachedRowSet users;
+    private CachedRowSet profiles;
+
+    @Setup(Level.Trial)
+    public void createRows() throws SQLException
+    {
+        products = rowSet(PRODUCT_COLUMNS, PRODUCT_TYPES, RowMapperBenchmark::writeProduct);
+
+        String[] cartColumns = append(PRODUCT_COLUMNS, "quantity");
+        int[] cartTypes = Arrays.copyOf(PRODUCT_TYPES, PRODUCT_TYPES.length + 1);
+        cartTypes[PRODUCT_TYPES.length] = Types.INTEGER;
+        cartItems = rowSet(cartColumns, cartTypes, (rows, id) -> {
+            writeProduct(rows, id);
+            rows.updateInt(10, id % 4 + 1);
+        });
+
+        categories = rowSet(new String[]{"category_id", "name", "description"},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR},
+                (rows, id) -> {
+                    rows.updateInt(1, id);
+                    rows.updateString(2, "Category " + id);
+                    rows.updateString(3, "Everything in category " + id + ".");
+                });
+
+        users = rowSet(new String[]{"user_id", "username", "hashed_password", "role"},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR},
+                (rows, id) -> {
+                    rows.updateInt(1, id);
+                    rows.updateString(2, "user" + id);
+                    rows.updateString(3, "$2a$10$NkufUPF3V8dEPSZeo1fzHe9ScBu.LOay9S3N32M84yuUM2OJYEJ/.");
+                    rows.updateString(4, id % 100 == 0 ? "ROLE_ADMIN" : "ROLE_USER");
+                });
+
+        profiles = rowSet(new String[]{"user_id", "first_name", "last_name", "phone", "email", "address", "city", "state", "zip"},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR},
+                (rows, id) -> {
+                    rows.updateInt(1, id);
+                    rows.updateString(2, "First" + id);
+                    rows.updateString(3, "Last" + id);
+                    rows.updateString(4, "800-555-" + String.format("%04d", id % 10_000));
+                    rows.updateString(5, "user" + id + "@example.com");
+                    rows.updateString(6, id + " Main Street");
+                    rows.updateString(7, "Dallas");
+                    rows.updateString(8, "TX");
+                    rows.updateString(9, "75051");
+                });
+    }
+
+    @Benchmark
+    public List<Product> byColumnName() throws SQLException
+    {
+        products.beforeFirst();
+        List<Product> results = new ArrayList<>(ROWS);
+        while (products.next())
+        {
+            results.add(mapRowByName(products));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<Product> byColumnIndex() throws SQLException
+    {
+        products.beforeFirst();
+        return MySqlProductDao.PRODUCT_MAPPER.mapAll(products);
+    }
+
+    @Benchmark
+    public List<ShoppingCartItem> cartItems() throws SQLException
+    {
+        cartItems.beforeFirst();
+        return MySqlShoppingCartDao.CART_ITEM_MAPPER.mapAll(cartItems);
+    }
+
+    @Benchmark
+    public List<Category> categories() throws SQLException
+    {
+        categories.beforeFirst();
+        return MySqlCategoryDao.CATEGORY_MAPPER.mapAll(categories);
+    }
+
+    @Benchmark
+    public List<User> users() throws SQLException
+    {
+        users.beforeFirst();
+        return MySqlUserDao.USER_MAPPER.mapAll(users);
+    }
+
+    @Benchmark
+    public List<Profile> profiles() throws SQLException
+    {
+        profiles.beforeFirst();
+        return MySqlProfileDao.PROFILE_MAPPER.mapAll(profiles);
+    }
+
+    // the mapRow that MySqlProductDao used before PRODUCT_MAPPER
+    private static Product mapRowByName(ResultSet row) throws SQLException
+    {
+        int productId = row.getInt("product_id");
+        String name = row.getString("name");
+        BigDecimal price = row.getBigDecimal("price");
+        int categoryId = row.getInt("category_id");
+        String description = row.getString("description");
+        String color = row.getString("color");
+        int stock = row.getInt("stock");
+        boolean isFeatured = row.getBoolean("featured");
+        String imageUrl = row.getString("image_url");
+
+        return new Product(productId, name, price, categoryId, description, color, stock, isFeatured, imageUrl);
+    }
+
+    private static void writeProduct(CachedRowSet rows, int id) throws SQLException
+    {
+        Product product = Fixtures.product(id);
+        rows.updateInt(1, product.getProductId());
+        rows.updateString(2, product.getName());
+        rows.updateBigDecimal(3, product.getPrice());
+        rows.updateInt(4, product.getCategoryId());
+        rows.updateString(5, product.getDescription());
+        rows.updateString(6, product.getColor());
+        rows.updateString(7, product.getImageUrl());
+        rows.updateInt(8, product.getStock());
+        rows.updateBoolean(9, product.isFeatured());
+    }
+
+    private static CachedRowSet rowSet(String[] names, int[] types, RowWriter writer) throws SQLException
+    {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(names.length);
+        for (int i = 0; i < names.length; i++)
+        {
+            metaData.setColumnName(i + 1, names[i]);
+            metaData.setColumnLabel(i + 1, names[i]);
+            metaData.setColumnType(i + 1, types[i]);
+        }
+
+        CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+        rows.setMetaData(metaData);
+        for (int id = 1; id <= ROWS; id++)
+        {
+            rows.moveToInsertRow();
+            writer.write(rows, id);
+            rows.insertRow();
+            rows.moveToCurrentRow();
+        }
+        return rows;
+    }
+
+    private static String[] append(String[] names, String name)
+    {
+        String[] appended = Arrays.copyOf(names, names.length + 1);
+        appended[names.length] = name;
+        return appended;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter
+    {
+        void write(CachedRowSet rows, int id) throws SQLException;
+    }
+}
@@ -0,0 +1,201 @@
+package org.yearup.exceptions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.web.ErrorProperties;
+import org.springframework.boot.autoconfigure.web.servlet.error.BasicErrorController;
+import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.yearup.cache.CatalogJsonCache;
+import org.yearup.cache.NegativeLookupCache;
+import org.yearup.controllers.ProductsController;
+import org.yearup.data.ProductDao;
+import org.yearup.events.CatalogEventBroadcaster;
+import org.yearup.models.Product;
+import org.yearup.models.ProductBulkResult;
+import org.yearup.models.ProductBulkUpdate;
+import org.yearup.models.ProductField;
+
+import javax.servlet.RequestDispatcher;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * GET /products/{id} for a product that doesn't exist, through MockMvc: before, a ResponseStatusException with a
+ * stack trace was thrown, caught by the controller's catch-all and rethrown as a second one, resolved with sendError
+ * and rendered by Spring Boot's /error controller; after, one stackless {@link ResourceNotFoundException} is
+ * answered by {@link GlobalExceptionHandler}.
+ *
+ * MockMvc doesn't forward a sendError to /error the way Tomcat does, so notFoundBefore makes that second dispatch
+ * itself, with the request attributes Tomcat sets. Neither path has a filter chain here; behind Tomcat and Spring
+ * Security the stacks are deeper and the old path also ran the security filters again for its error dispatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class ErrorPathBenchmark
+{
+    private CatalogEventBroadcaster catalogEvents;
+    private MockMvc before;
+    private MockMvc errorPage;
+    private MockMvc after;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ProductDao productDao = new EmptyProductDao();
+        catalogEvents = new CatalogEventBroadcaster(Jackson2ObjectMapperBuilder.json().build(), 8, 1, Duration.ofMinutes(1), Duration.ofMinutes(1), 1);
+
+        before = MockMvcBuilders.standaloneSetup(new PreviousProductsController(productDao)).build();
+        errorPage = MockMvcBuilders.standaloneSetup(new BasicErrorController(new DefaultErrorAttributes(), new ErrorProperties())).build();
+        // a zero TTL keeps no misses, so every request takes the whole 404 path rather than the negative cache
+        after = MockMvcBuilders.standaloneSetup(new ProductsController(productDao,
+                        new CatalogJsonCache(Jackson2ObjectMapperBuilder.json().build(), 1000, Duration.ofMinutes(10)),
+                        new NegativeLookupCache(1, Duration.ZERO), catalogEvents, 500, 1000))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        catalogEvents.destroy();
+    }
+
+    @Benchmark
+    public int notFoundBefore() throws Exception
+    {
+        MvcResult result = before.perform(get("/products/99999")).andReturn();
+        return errorPage.perform(get("/error")
+                        .requestAttr(RequestDispatcher.ERROR_STATUS_CODE, result.getResponse().getStatus())
+                        .requestAttr(RequestDispatcher.ERROR_EXCEPTION, result.getResolvedException())
+                        .requestAttr(RequestDispatcher.ERROR_REQUEST_URI, "/products/99999"))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int notFoundAfter() throws Exception
+    {
+        return after.perform(get("/products/99999")).andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public RuntimeException exceptionBefore()
+    {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND);
+    }
+
+    @Benchmark
+    public RuntimeException exceptionAfter()
+    {
+        return new ResourceNotFoundException("Product 99999 was not found");
+    }
+
+    // ProductsController.getById as it was
+    @RestController
+    public static class PreviousProductsController
+    {
+        private final ProductDao productDao;
+
+        PreviousProductsController(ProductDao productDao)
+        {
+            this.productDao = productDao;
+        }
+
+        @GetMapping("/products/{id}")
+        public Product getById(@PathVariable int id)
+        {
+            try
+            {
+                var product = productDao.getById(id);
+
+                if(product == null)
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+
+                return product;
+            }
+            catch(Exception ex)
+            {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            }
+        }
+    }
+
+    private static class EmptyProductDao implements ProductDao
+    {
+        @Override
+        public List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String color)
+        {
+            return List.of();
+        }
+
+        @Override
+        public List<Product> listByCategoryId(int categoryId)
+        {
+            return List.of();
+        }
+
+        @Override
+        public Product getById(int productId)
+        {
+            return null;
+        }
+
+        @Override
+        public List<Product> getByIds(Collection<Integer> productIds, Set<ProductField> fields)
+        {
+            return List.of();
+        }
+
+        @Override
+        public Product create(Product product)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void update(int productId, Product product)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(int productId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProductBulkResult updateAll(ProductBulkUpdate update, int chunkSize)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.yearup.models;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.yearup.benchmarks.Fixtures;
+import org.yearup.cache.CatalogJsonCache;
+import org.yearup.cache.JsonFragments;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the product listings and carts the controllers return, with an ObjectMapper configured the way
+ * Spring MVC configures its own. cachedProducts is the same listing assembled from {@link CatalogJsonCache}
+ * fragments, for products equal to (but not the same objects as) the ones already cached, as after a DAO reload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class JsonSerializationBenchmark
+{
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<Product> products;
+    private ShoppingCart cart;
+    private CatalogJsonCache catalogJson;
+    private List<Product> reloaded;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        products = Fixtures.products(size);
+        cart = Fixtures.cart(size);
+        catalogJson = new CatalogJsonCache(mapper, 100_000, Duration.ofHours(1));
+        catalogJson.products(products);
+        reloaded = Fixtures.products(size);
+    }
+
+    @Benchmark
+    public byte[] products() throws JsonProcessingException
+    {
+        return mapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] cachedProducts() throws IOException
+    {
+        JsonFragments fragments = catalogJson.products(reloaded);
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) fragments.contentLength());
+        fragments.writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cart() throws JsonProcessingException
+    {
+        return mapper.writeValueAsBytes(cart);
+    }
+}
@@ -0,0 +1,47 @@
+package org.yearup.models;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yearup.benchmarks.Fixtures;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShoppingCart#getTotal()}, which is recalculated every time a cart is returned.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class ShoppingCartBenchmark
+{
+    @Param({"1", "10", "100"})
+    private int items;
+
+    private ShoppingCart cart;
+
+    @Setup(Level.Trial)
+    public void createCart()
+    {
+        cart = Fixtures.cart(items);
+    }
+
+    @Benchmark
+    public BigDecimal getTotal()
+    {
+        return cart.getTotal();
+    }
+}
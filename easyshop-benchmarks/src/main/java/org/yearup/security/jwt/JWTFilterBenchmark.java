@@ -0,0 +1,81 @@
+package org.yearup.security.jwt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.yearup.benchmarks.Fixtures;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JWTFilter} end to end: reading the header, validating and parsing the token and installing the principal,
+ * for a request with a bearer token and for an anonymous one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1)
+public class JWTFilterBenchmark
+{
+    private JWTFilter filter;
+    private MockHttpServletRequest authenticated;
+    private MockHttpServletRequest anonymous;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        TokenProvider tokenProvider = new TokenProvider(Fixtures.jwtSecret(), 108_000);
+        tokenProvider.afterPropertiesSet();
+        filter = new JWTFilter(tokenProvider);
+
+        String token = tokenProvider.createToken(new UsernamePasswordAuthenticationToken("george", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))), false);
+
+        authenticated = new MockHttpServletRequest("GET", "/cart");
+        authenticated.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token);
+        anonymous = new MockHttpServletRequest("GET", "/products");
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearContext()
+    {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Authentication withToken() throws IOException, ServletException
+    {
+        filter.doFilter(authenticated, response, new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication withoutToken() throws IOException, ServletException
+    {
+        filter.doFilter(anonymous, response, new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}